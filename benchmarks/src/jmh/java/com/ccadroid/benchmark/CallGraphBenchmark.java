@@ -0,0 +1,70 @@
+package com.ccadroid.benchmark;
+
+import com.ccadroid.util.graph.CallGraph;
+import com.ccadroid.util.graph.Node;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CallGraphBenchmark { // layers of callers above one callee, as the apps call a crypto API
+    private static final String LAYERED = "layered";
+    private static final String RECURSIVE = "recursive";
+    private static final int MAX_CALLER_CHAINS = 1000;
+    private static final int MAX_CHAIN_DEPTH = 100;
+
+    @Param({LAYERED, RECURSIVE})
+    private String shape;
+
+    @Param({"16", "64"})
+    private int width;
+
+    @Param({"8", "32"})
+    private int depth;
+
+    @Param({"2"})
+    private int fanIn;
+
+    private CallGraph callGraph;
+    private String targetId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        callGraph = new CallGraph();
+
+        ArrayList<Node> callees = new ArrayList<>();
+        targetId = "<javax.crypto.Cipher: void init(int,java.security.Key)>";
+        callees.add(callGraph.addNode(targetId));
+
+        for (int i = 0; i < depth; i++) {
+            ArrayList<Node> callers = new ArrayList<>();
+            for (int j = 0; j < width; j++) {
+                callers.add(callGraph.addNode(String.format("<com.example.Layer%d: void method%d()>", i, j)));
+            }
+
+            for (int j = 0; j < callees.size(); j++) {
+                Node callee = callees.get(j);
+                for (int k = 0; k < fanIn; k++) {
+                    Node caller = callers.get((j + k * (width / fanIn + 1)) % width);
+                    callGraph.addEdge(caller, callee, true);
+                }
+
+                if (shape.equals(RECURSIVE) && i > 0 && j % 4 == 0) { // mutual recursion inside a layer pair
+                    callGraph.addEdge(callee, callers.get(j % width), true);
+                }
+            }
+
+            callees = callers;
+        }
+
+        callGraph.getListOfIds(targetId, 1, 1); // the condensation is built once per graph
+    }
+
+    @Benchmark
+    public ArrayList<ArrayList<String>> getListOfIds() {
+        return callGraph.getListOfIds(targetId, MAX_CALLER_CHAINS, MAX_CHAIN_DEPTH);
+    }
+}
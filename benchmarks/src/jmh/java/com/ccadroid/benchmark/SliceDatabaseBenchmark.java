@@ -0,0 +1,76 @@
+package com.ccadroid.benchmark;
+
+import com.ccadroid.slice.Slice;
+import com.ccadroid.slice.SliceDatabase;
+import com.ccadroid.slice.SliceLine;
+import com.ccadroid.slice.SliceQuery;
+import org.openjdk.jmh.annotations.*;
+import soot.Unit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.ccadroid.util.soot.SootUnit.getUnitType;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SliceDatabaseBenchmark {
+    private static final int SLICES_PER_NODE = 8;
+    private static final int TARGET_STATEMENTS = 16;
+
+    @Param({"1000", "10000"})
+    private int sliceCount;
+
+    private SliceDatabase sliceDatabase;
+    private String nodeId;
+    private String callerName;
+    private String targetStatement;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ArrayList<Unit> units = Dataset.loadUnits();
+        ArrayList<String> signatures = Dataset.getSignatures(units);
+        ArrayList<SliceLine> lines = new ArrayList<>();
+        for (int i = 0; i < units.size(); i++) {
+            Unit u = units.get(i);
+            lines.add(new SliceLine(u.toString(), getUnitType(u), signatures.get(i % signatures.size()), i));
+        }
+
+        sliceDatabase = new SliceDatabase();
+        for (int i = 0; i < sliceCount; i++) {
+            String nodeId = "node" + (i / SLICES_PER_NODE);
+            String callerName = signatures.get(i % signatures.size());
+            String targetStatement = signatures.get(i % TARGET_STATEMENTS);
+            int fromIndex = i % lines.size();
+            List<SliceLine> contents = lines.subList(fromIndex, Math.min(fromIndex + 16, lines.size()));
+            sliceDatabase.insert(nodeId, callerName, targetStatement, i, new ArrayList<>(List.of(-1)), List.of(), contents);
+            sliceDatabase.insert(nodeId + callerName); // the empty slices which are deleted after the merge
+        }
+
+        nodeId = "node" + (sliceCount / SLICES_PER_NODE / 2);
+        callerName = signatures.get(sliceCount / 2 % signatures.size());
+        targetStatement = signatures.get(0);
+    }
+
+    @Benchmark
+    public ArrayList<Slice> selectByNodeId() {
+        return sliceDatabase.selectAll(new SliceQuery().nodeId(nodeId).hasContents(true));
+    }
+
+    @Benchmark
+    public ArrayList<Slice> selectByCallerName() {
+        return sliceDatabase.selectAll(new SliceQuery().callerName(callerName));
+    }
+
+    @Benchmark
+    public ArrayList<Slice> selectByTargetStatement() {
+        return sliceDatabase.selectAll(new SliceQuery().targetStatement(targetStatement).hasCallerName(true));
+    }
+
+    @Benchmark
+    public ArrayList<Slice> selectAll() {
+        return sliceDatabase.selectAll(new SliceQuery().hasContents(true));
+    }
+}
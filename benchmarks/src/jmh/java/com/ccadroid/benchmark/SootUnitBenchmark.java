@@ -0,0 +1,61 @@
+package com.ccadroid.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import soot.Unit;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static com.ccadroid.util.soot.SootUnit.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SootUnitBenchmark { // one operation is one pass over the units of the dataset
+    private ArrayList<Unit> units;
+    private ArrayList<String> unitStrings;
+    private ArrayList<String> signatures;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        units = Dataset.loadUnits();
+        unitStrings = new ArrayList<>();
+        for (Unit u : units) {
+            int unitType = getUnitType(u);
+            if ((unitType & INVOKE) == INVOKE) {
+                unitStrings.add(u.toString());
+            }
+        }
+
+        signatures = Dataset.getSignatures(units);
+    }
+
+    @Benchmark
+    public void getUnitTypes(Blackhole blackhole) {
+        for (Unit u : units) {
+            blackhole.consume(getUnitType(u));
+        }
+    }
+
+    @Benchmark
+    public void getSignatures(Blackhole blackhole) {
+        for (String s : unitStrings) {
+            blackhole.consume(getSignature(s));
+        }
+    }
+
+    @Benchmark
+    public void getClassNames(Blackhole blackhole) {
+        for (String s : signatures) {
+            blackhole.consume(getClassName(s));
+        }
+    }
+
+    @Benchmark
+    public void getParamTypes(Blackhole blackhole) {
+        for (String s : signatures) {
+            blackhole.consume(getParamTypes(s));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ccadroid.check;
+
+import com.ccadroid.AnalysisContext;
+import com.ccadroid.benchmark.Dataset;
+import com.ccadroid.report.ReportConstant;
+import com.ccadroid.report.ResultFormat;
+import com.ccadroid.report.ResultSink;
+import com.ccadroid.util.Argparse4j;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RuleCheckerBenchmark { // in the package of the checker, for the compiled rule matchers
+    private RuleChecker ruleChecker;
+    private ArrayList<RuleMatcher> constantMatchers;
+    private ArrayList<String> constants;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String datasetPath = Dataset.getDatasetPath();
+        Argparse4j.setArguments(new String[]{"-i", datasetPath, "-p", datasetPath, "-r", Dataset.getRulePath()});
+
+        AnalysisContext context = new AnalysisContext(new ResultSink(null, ResultFormat.create(ReportConstant.TEXT, false)));
+        ruleChecker = context.getRuleChecker();
+        constantMatchers = new ArrayList<>();
+        for (Rule r : ruleChecker.getRules()) {
+            RuleMatcher matcher = r.getInsecureMatcher();
+            if (matcher.getConstantPattern() != null) {
+                constantMatchers.add(matcher);
+            }
+        }
+
+        constants = Dataset.getConstants(Dataset.loadUnits());
+    }
+
+    @Benchmark
+    public void isAlgorithm(Blackhole blackhole) {
+        for (String s : constants) {
+            blackhole.consume(ruleChecker.isAlgorithm(s));
+        }
+    }
+
+    @Benchmark
+    public void isTargetConstant(Blackhole blackhole) {
+        for (RuleMatcher m : constantMatchers) {
+            for (String s : constants) {
+                blackhole.consume(ruleChecker.isTargetConstant(s, m));
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.ccadroid.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+public class ApkBuilder { // javac, d8 and aapt2 of the Android SDK whose platforms are analyzed against
+    private static final boolean IS_WINDOWS = System.getProperty("os.name").startsWith("Windows");
+    private static final String MIN_API = "26";
+    private final Path androidJar;
+    private final Path d8;
+    private final Path aapt2;
+
+    public ApkBuilder(String platformDir) {
+        Path platformsDir = Paths.get(platformDir).toAbsolutePath();
+        Path buildToolsDir = findLatestDir(platformsDir.resolveSibling("build-tools"), "");
+        Path androidDir = findLatestDir(platformsDir, "android-");
+
+        androidJar = androidDir.resolve("android.jar");
+        d8 = buildToolsDir.resolve(IS_WINDOWS ? "d8.bat" : "d8");
+        aapt2 = buildToolsDir.resolve(IS_WINDOWS ? "aapt2.exe" : "aapt2");
+    }
+
+    public Path build(Path sourceDir, String packageName, Path apkPath) throws IOException, InterruptedException {
+        Path workDir = Files.createTempDirectory("cca-droid-apk-");
+        Path jarPath = buildJar(sourceDir, workDir.resolve("classes.jar"));
+        Path dexDir = Files.createDirectories(workDir.resolve("dex"));
+        Path manifestPath = workDir.resolve("AndroidManifest.xml");
+        Path resourceApkPath = workDir.resolve("resources.apk");
+
+        run(List.of(d8.toString(), "--release", "--min-api", MIN_API, "--lib", androidJar.toString(), "--output", dexDir.toString(), jarPath.toString()));
+
+        String manifest = String.format("<manifest xmlns:android=\"http://schemas.android.com/apk/res/android\" package=\"%s\">\n\t<application/>\n</manifest>\n", packageName); // the cases are developer classes
+        Files.writeString(manifestPath, manifest);
+        run(List.of(aapt2.toString(), "link", "-o", resourceApkPath.toString(), "-I", androidJar.toString(), "--manifest", manifestPath.toString(), "--min-sdk-version", MIN_API));
+
+        writeApk(resourceApkPath, dexDir, apkPath);
+
+        return apkPath;
+    }
+
+    public static Path buildJar(Path sourceDir, Path jarPath) throws IOException { // analyzed as is without the SDK
+        Path classDir = Dataset.compileSources(sourceDir);
+        writeJar(classDir, jarPath);
+
+        return jarPath;
+    }
+
+    private static Path findLatestDir(Path dir, String prefix) {
+        try (Stream<Path> stream = Files.list(dir)) {
+            Optional<Path> latestDir = stream.filter(Files::isDirectory).filter(p -> p.getFileName().toString().startsWith(prefix)).max(Comparator.comparing(p -> getVersion(p.getFileName().toString().substring(prefix.length()))));
+            if (latestDir.isEmpty()) {
+                throw new IllegalStateException(String.format("Cannot find %s*", dir.resolve(prefix)));
+            }
+
+            return latestDir.get();
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Cannot find %s", dir), e);
+        }
+    }
+
+    private static String getVersion(String str) { // 9.0.0 before 34.0.0
+        String[] numbers = str.split("[.\\-]");
+        StringBuilder builder = new StringBuilder();
+        for (String s : numbers) {
+            builder.append(String.format("%8s", s));
+        }
+
+        return builder.toString();
+    }
+
+    private static void writeJar(Path classDir, Path jarPath) throws IOException {
+        try (Stream<Path> stream = Files.walk(classDir); JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(jarPath))) {
+            List<Path> classPaths = stream.filter(p -> p.toString().endsWith(".class")).sorted().collect(Collectors.toList());
+            for (Path p : classPaths) {
+                String name = classDir.relativize(p).toString().replace(File.separatorChar, '/');
+                outputStream.putNextEntry(new JarEntry(name));
+                Files.copy(p, outputStream);
+                outputStream.closeEntry();
+            }
+        }
+    }
+
+    private static void writeApk(Path resourceApkPath, Path dexDir, Path apkPath) throws IOException {
+        try (ZipFile zipFile = new ZipFile(resourceApkPath.toFile()); ZipOutputStream outputStream = new ZipOutputStream(Files.newOutputStream(apkPath)); Stream<Path> stream = Files.list(dexDir)) {
+            ArrayList<? extends ZipEntry> entries = Collections.list(zipFile.entries());
+            for (ZipEntry e : entries) {
+                outputStream.putNextEntry(new ZipEntry(e.getName()));
+                try (InputStream inputStream = zipFile.getInputStream(e)) {
+                    inputStream.transferTo(outputStream);
+                }
+
+                outputStream.closeEntry();
+            }
+
+            List<Path> dexPaths = stream.filter(p -> p.toString().endsWith(".dex")).sorted().collect(Collectors.toList());
+            for (Path p : dexPaths) {
+                outputStream.putNextEntry(new ZipEntry(p.getFileName().toString()));
+                Files.copy(p, outputStream);
+                outputStream.closeEntry();
+            }
+        }
+    }
+
+    private static void run(List<String> command) throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectErrorStream(true);
+        Process process = builder.start();
+
+        String output;
+        try (InputStream inputStream = process.getInputStream()) {
+            output = new String(inputStream.readAllBytes());
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IOException(String.format("%s exited with %d: %s", command.get(0), exitCode, output));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ccadroid.benchmark;
+
+import com.ccadroid.util.soot.Soot;
+import soot.*;
+import soot.options.Options;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.ccadroid.util.soot.SootUnit.*;
+
+public class Dataset {
+    public static final String DATASET_PATH = "ccadroid.dataset";
+    public static final String RULE_PATH = "ccadroid.rule";
+
+    public Dataset() throws InstantiationException {
+        throw new InstantiationException();
+    }
+
+    public static String getDatasetPath() {
+        return System.getProperty(DATASET_PATH, "../dataset");
+    }
+
+    public static String getRulePath() {
+        return System.getProperty(RULE_PATH, "../rule");
+    }
+
+    public static ArrayList<Unit> loadUnits() { // Jimple bodies of the dataset sources, compiled and loaded once per fork
+        Path classDir = compileSources(Paths.get(getDatasetPath()));
+
+        Soot.reset();
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_ignore_resolution_errors(true);
+        Options.v().set_prepend_classpath(true);
+        Options.v().set_process_dir(Collections.singletonList(classDir.toString()));
+        Options.v().set_src_prec(Options.src_prec_class);
+        Scene.v().loadNecessaryClasses();
+
+        ArrayList<Unit> units = new ArrayList<>();
+        for (SootClass c : Scene.v().getApplicationClasses()) {
+            for (SootMethod m : new ArrayList<>(c.getMethods())) {
+                units.addAll(Soot.getUnits(m));
+            }
+        }
+
+        return units;
+    }
+
+    public static ArrayList<String> getSignatures(List<Unit> units) {
+        ArrayList<String> signatures = new ArrayList<>();
+        for (Unit u : units) {
+            int unitType = getUnitType(u);
+            if ((unitType & INVOKE) == INVOKE) {
+                signatures.add(getSignature(u.toString()));
+            }
+        }
+
+        return signatures;
+    }
+
+    public static ArrayList<String> getConstants(List<Unit> units) { // the strings which the constant checker is given
+        ArrayList<String> constants = new ArrayList<>();
+        for (Unit u : units) {
+            int unitType = getUnitType(u);
+            String unitString = u.toString();
+            if ((unitType & INVOKE) == INVOKE) {
+                getParameters(unitString).stream().filter(s -> !isVariableStr(s)).forEach(constants::add);
+            } else if (unitType == ASSIGN_VARIABLE_CONSTANT || unitType == RETURN_VALUE) {
+                constants.add(getRightOpStr(unitString, unitType));
+            }
+        }
+
+        return constants;
+    }
+
+    public static Path compileSources(Path sourceDir) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("A JDK is required to compile the dataset sources");
+        }
+
+        try (Stream<Path> stream = Files.walk(sourceDir); StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            List<File> files = stream.filter(p -> p.toString().endsWith(".java")).map(Path::toFile).collect(Collectors.toList());
+            Path classDir = Files.createTempDirectory("cca-droid-classes-");
+
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(files);
+            List<String> options = List.of("-d", classDir.toString(), "--release", "8", "-nowarn", "-proc:none"); // also for d8
+            Boolean isCompiled = compiler.getTask(null, fileManager, null, options, null, units).call();
+            if (!isCompiled) {
+                throw new IllegalStateException("Cannot compile the dataset sources: " + sourceDir);
+            }
+
+            return classDir;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
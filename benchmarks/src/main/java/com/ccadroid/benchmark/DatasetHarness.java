@@ -0,0 +1,351 @@
+package com.ccadroid.benchmark;
+
+import com.ccadroid.report.Finding;
+import com.ccadroid.slice.SliceLine;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.ccadroid.report.ReportConstant.PEAK_HEAP;
+import static com.ccadroid.report.ReportConstant.PHASES;
+import static com.ccadroid.report.ReportConstant.WALL_TIME;
+import static com.ccadroid.util.Common.printf;
+import static com.ccadroid.util.soot.SootUnit.getClassName;
+
+public class DatasetHarness { // runs the pipeline on each category of the dataset and compares the results with a baseline
+    private static final Map<String, Integer> RULE_NUMBERS = Map.ofEntries(Map.entry("ecbcrypto", 2), Map.entry("predictablecryptographickey", 3), Map.entry("staticsalts", 4), Map.entry("untrustedprngiv", 7), Map.entry("untrustedprngkey", 8), Map.entry("insecureasymmetriccipher", 9), Map.entry("staticinitializationvector", 10), Map.entry("insecurepadding", 11), Map.entry("encryptandmac", 12), Map.entry("insecureoperationmode", 13), Map.entry("shortmackey", 14));
+    private static final String INSECURE = "insecure";
+    private static final String SECURE = "secure";
+    private static final String UNLABELED = "unlabeled";
+    private static final String CATEGORIES = "categories";
+    private static final String CATEGORY = "category";
+    private static final String RULE_NUMBER = "ruleNumber";
+    private static final String EXIT_CODE = "exitCode";
+    private static final String CASES = "cases";
+    private static final String CASE = "case";
+    private static final String EXPECTED = "expected";
+    private static final String DETECTED = "detected";
+    private static final String OUTCOME = "outcome";
+    private static final String TOTALS = "totals";
+    private static final String PRECISION = "precision";
+    private static final String RECALL = "recall";
+    private static final String INPUT = "input";
+    private static final String APK = "apk";
+    private static final String JAR = "jar";
+    private static final String[] OUTCOMES = {"TP", "FP", "TN", "FN"};
+    private static final long MIN_WALL_TIME_DELTA = 1000L; // ms, below which the JVM startup is noise
+    private static final long MIN_PEAK_HEAP_DELTA = 64L << 20;
+
+    public DatasetHarness() throws InstantiationException {
+        throw new InstantiationException();
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("DatasetHarness").build();
+        parser.addArgument("-p", "--PLATFORMS_PATH").type(String.class); // JARs without the SDK
+        parser.addArgument("-d", "--DATASET_PATH").type(String.class).setDefault("dataset");
+        parser.addArgument("-r", "--RULE_PATH").type(String.class).setDefault("rule");
+        parser.addArgument("-bl", "--BASELINE_PATH").type(String.class).setDefault("benchmarks/baseline.json");
+        parser.addArgument("-o", "--OUTPUT_PATH").type(String.class).setDefault("build/dataset-results.json");
+        parser.addArgument("-u", "--UPDATE_BASELINE").action(Arguments.storeTrue());
+        parser.addArgument("-tl", "--TOLERANCE").type(Double.class).setDefault(0.25); // of wall time and peak heap
+        parser.addArgument("-ec", "--ENGINE_CLASSPATH").type(String.class); // another version of the engine with only the text output, such as the original one
+
+        Namespace namespace;
+        try {
+            namespace = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(2);
+            return;
+        }
+
+        Path baselinePath = Paths.get(namespace.getString("BASELINE_PATH"));
+        boolean isUpdate = namespace.getBoolean("UPDATE_BASELINE");
+        if (!isUpdate && !Files.exists(baselinePath)) { // a missing baseline would pass every run
+            printf(DatasetHarness.class, String.format("No baseline at %s, record it with -u", baselinePath));
+            System.exit(2);
+            return;
+        }
+
+        try {
+            JSONObject results = run(namespace.getString("PLATFORMS_PATH"), Paths.get(namespace.getString("DATASET_PATH")), namespace.getString("RULE_PATH"), namespace.getString("ENGINE_CLASSPATH"));
+            Path outputPath = Paths.get(namespace.getString("OUTPUT_PATH"));
+            Files.createDirectories(outputPath.toAbsolutePath().getParent());
+            Files.writeString(outputPath, results.toString(2));
+            printf(DatasetHarness.class, String.format("Results: %s", outputPath));
+
+            if (isUpdate) {
+                Files.writeString(baselinePath, results.toString(2));
+                printf(DatasetHarness.class, String.format("Baseline: %s", baselinePath));
+                return;
+            }
+
+            JSONObject baseline = new JSONObject(Files.readString(baselinePath));
+            String input1 = baseline.optString(INPUT, JAR);
+            String input2 = results.getString(INPUT);
+            if (!input1.equals(input2)) { // the outcomes and the timings of APKs and JARs differ
+                printf(DatasetHarness.class, String.format("The baseline is recorded with %s inputs, not %s inputs", input1, input2));
+                System.exit(2);
+                return;
+            }
+
+            int regressionCount = compare(baseline, results, namespace.getDouble("TOLERANCE"));
+            if (regressionCount > 0) {
+                printf(DatasetHarness.class, String.format("%d regression(s) against %s", regressionCount, baselinePath));
+                System.exit(1);
+            }
+        } catch (IOException | InterruptedException | JSONException e) {
+            printf(DatasetHarness.class, e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static JSONObject run(String platformDir, Path datasetDir, String rulePath, String engineClassPath) throws IOException, InterruptedException {
+        ApkBuilder apkBuilder = (platformDir == null) ? null : new ApkBuilder(platformDir);
+        Path workDir = Files.createTempDirectory("cca-droid-dataset-");
+        JSONArray categories = new JSONArray();
+        int[] totals = new int[OUTCOMES.length];
+
+        List<Path> categoryDirs;
+        try (Stream<Path> stream = Files.list(datasetDir)) {
+            categoryDirs = stream.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+        }
+
+        for (Path d : categoryDirs) {
+            String categoryName = d.getFileName().toString();
+            Integer ruleNumber = RULE_NUMBERS.get(categoryName);
+            if (ruleNumber == null) {
+                printf(DatasetHarness.class, String.format("No rule for %s, skipped", categoryName));
+                continue;
+            }
+
+            LinkedHashMap<String, String> caseMap = getCases(d); // class name to label
+            if (caseMap.isEmpty()) {
+                continue;
+            }
+
+            String className = caseMap.keySet().iterator().next();
+            String packageName = className.substring(0, className.lastIndexOf('.'));
+            Path inputPath = (apkBuilder == null) ? ApkBuilder.buildJar(d, workDir.resolve(categoryName + ".jar")) : apkBuilder.build(d, packageName, workDir.resolve(categoryName + ".apk"));
+            JSONObject category = analyze(inputPath, platformDir, rulePath, ruleNumber, caseMap, engineClassPath);
+            category.put(CATEGORY, categoryName);
+            categories.put(category);
+
+            JSONObject counts = category.getJSONObject(TOTALS);
+            for (int i = 0; i < OUTCOMES.length; i++) {
+                totals[i] += counts.getInt(OUTCOMES[i]);
+            }
+
+            printf(DatasetHarness.class, String.format("%s: %s, %.0f ms", categoryName, counts, category.getDouble(WALL_TIME)));
+
+        }
+
+        JSONObject results = new JSONObject();
+        results.put(INPUT, (apkBuilder == null) ? JAR : APK);
+        results.put(CATEGORIES, categories);
+        results.put(TOTALS, getTotals(totals));
+
+        return results;
+    }
+
+    private static LinkedHashMap<String, String> getCases(Path categoryDir) throws IOException {
+        LinkedHashMap<String, String> caseMap = new LinkedHashMap<>();
+
+        List<Path> sourcePaths;
+        try (Stream<Path> stream = Files.list(categoryDir)) {
+            sourcePaths = stream.filter(p -> p.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+        }
+
+        for (Path p : sourcePaths) {
+            String fileName = p.getFileName().toString();
+            String simpleName = fileName.substring(0, fileName.length() - ".java".length());
+            String packageName = getPackageName(p);
+            String className = (packageName == null) ? simpleName : packageName + "." + simpleName;
+            String label = simpleName.contains("Corrected") ? SECURE : simpleName.contains("Case") ? INSECURE : UNLABELED;
+            caseMap.put(className, label);
+        }
+
+        return caseMap;
+    }
+
+    private static String getPackageName(Path sourcePath) throws IOException {
+        for (String l : Files.readAllLines(sourcePath)) {
+            String line = l.trim();
+            if (line.startsWith("package ")) {
+                return line.substring("package ".length(), line.indexOf(';')).trim();
+            }
+        }
+
+        return null;
+    }
+
+    private static JSONObject analyze(Path inputPath, String platformDir, String rulePath, int ruleNumber, LinkedHashMap<String, String> caseMap, String engineClassPath) throws IOException, InterruptedException {
+        EngineRunner.Result result = EngineRunner.run(inputPath, platformDir, rulePath, List.of(), engineClassPath);
+        ArrayList<Finding> findings = result.getFindings();
+
+        HashSet<String> detectedClassNames = new HashSet<>();
+        String ruleId = ruleNumber + "-1"; // the insecure rule of the category
+        for (Finding f : findings) {
+            if (!f.getRuleId().equals(ruleId)) {
+                continue;
+            }
+
+            detectedClassNames.add(getClassName(f.getCallerName()));
+            for (SliceLine l : f.getTargetLines()) {
+                detectedClassNames.add(getClassName(l.getCallerName()));
+            }
+        }
+
+        JSONArray cases = new JSONArray();
+        int[] counts = new int[OUTCOMES.length];
+        for (Map.Entry<String, String> e : caseMap.entrySet()) {
+            String className = e.getKey();
+            String label = e.getValue();
+            boolean isDetected = detectedClassNames.stream().anyMatch(s -> s.equals(className) || s.startsWith(className + "$"));
+            String outcome = getOutcome(label, isDetected);
+            int index = Arrays.asList(OUTCOMES).indexOf(outcome);
+            if (index != -1) {
+                counts[index]++;
+            }
+
+            JSONObject c = new JSONObject();
+            c.put(CASE, className);
+            c.put(EXPECTED, label);
+            c.put(DETECTED, isDetected);
+            c.put(OUTCOME, outcome);
+            cases.put(c);
+        }
+
+        JSONObject category = new JSONObject();
+        category.put(RULE_NUMBER, ruleNumber);
+        category.put(EXIT_CODE, result.getExitCode());
+        category.put(CASES, cases);
+        category.put(TOTALS, getTotals(counts));
+        putProfile(category, result);
+
+        return category;
+    }
+
+    private static String getOutcome(String label, boolean isDetected) {
+        switch (label) {
+            case INSECURE: {
+                return isDetected ? "TP" : "FN";
+            }
+
+            case SECURE: {
+                return isDetected ? "FP" : "TN";
+            }
+
+            default: {
+                return isDetected ? DETECTED : "none";
+            }
+        }
+    }
+
+    private static JSONObject getTotals(int[] counts) {
+        JSONObject totals = new JSONObject();
+        for (int i = 0; i < OUTCOMES.length; i++) {
+            totals.put(OUTCOMES[i], counts[i]);
+        }
+
+        int tp = counts[0];
+        int fp = counts[1];
+        int fn = counts[3];
+        totals.put(PRECISION, (tp + fp == 0) ? 0 : (double) tp / (tp + fp));
+        totals.put(RECALL, (tp + fn == 0) ? 0 : (double) tp / (tp + fn));
+
+        return totals;
+    }
+
+    private static void putProfile(JSONObject category, EngineRunner.Result result) { // the phases as written by EngineMain with -po, none for another engine
+        JSONObject phases = new JSONObject();
+        JSONObject stats = result.getPhases();
+        for (String k : stats.keySet()) {
+            JSONObject phase = stats.getJSONObject(k);
+            phases.put(k, new JSONObject().put(WALL_TIME, phase.getDouble(WALL_TIME)).put(PEAK_HEAP, phase.getLong(PEAK_HEAP)));
+        }
+
+        category.put(WALL_TIME, result.getWallTime());
+        category.put(PEAK_HEAP, result.getPeakHeap());
+        category.put(PHASES, phases);
+    }
+
+    private static int compare(JSONObject baseline, JSONObject results, double tolerance) {
+        HashMap<String, JSONObject> baselineMap = new HashMap<>();
+        JSONArray arr1 = baseline.getJSONArray(CATEGORIES);
+        for (int i = 0; i < arr1.length(); i++) {
+            JSONObject category = arr1.getJSONObject(i);
+            baselineMap.put(category.getString(CATEGORY), category);
+        }
+
+        int regressionCount = 0;
+        JSONArray arr2 = results.getJSONArray(CATEGORIES);
+        for (int i = 0; i < arr2.length(); i++) {
+            JSONObject category2 = arr2.getJSONObject(i);
+            String categoryName = category2.getString(CATEGORY);
+            JSONObject category1 = baselineMap.get(categoryName);
+            if (category1 == null) {
+                continue;
+            }
+
+            regressionCount += compareCases(categoryName, category1.getJSONArray(CASES), category2.getJSONArray(CASES));
+
+            double wallTime1 = category1.getDouble(WALL_TIME);
+            double wallTime2 = category2.getDouble(WALL_TIME);
+            if (wallTime2 > wallTime1 * (1 + tolerance) && wallTime2 - wallTime1 > MIN_WALL_TIME_DELTA) {
+                printf(DatasetHarness.class, String.format("%s: wall time %.0f ms -> %.0f ms", categoryName, wallTime1, wallTime2));
+                regressionCount++;
+            }
+
+            long peakHeap1 = category1.getLong(PEAK_HEAP);
+            long peakHeap2 = category2.getLong(PEAK_HEAP);
+            if (peakHeap2 > peakHeap1 * (1 + tolerance) && peakHeap2 - peakHeap1 > MIN_PEAK_HEAP_DELTA) {
+                printf(DatasetHarness.class, String.format("%s: peak heap %d MB -> %d MB", categoryName, peakHeap1 >> 20, peakHeap2 >> 20));
+                regressionCount++;
+            }
+        }
+
+        return regressionCount;
+    }
+
+    private static int compareCases(String categoryName, JSONArray cases1, JSONArray cases2) {
+        HashMap<String, String> outcomeMap = new HashMap<>();
+        for (int i = 0; i < cases1.length(); i++) {
+            JSONObject c = cases1.getJSONObject(i);
+            outcomeMap.put(c.getString(CASE), c.getString(OUTCOME));
+        }
+
+        int regressionCount = 0;
+        for (int i = 0; i < cases2.length(); i++) {
+            JSONObject c = cases2.getJSONObject(i);
+            String className = c.getString(CASE);
+            String outcome1 = outcomeMap.get(className);
+            String outcome2 = c.getString(OUTCOME);
+            if (outcome1 == null || outcome1.equals(outcome2)) {
+                continue;
+            }
+
+            boolean isRegression = outcome1.equals("TP") || outcome1.equals("TN") || outcome1.equals(DETECTED);
+            printf(DatasetHarness.class, String.format("%s: %s %s -> %s%s", categoryName, className, outcome1, outcome2, isRegression ? "" : " (improved)"));
+            if (isRegression) {
+                regressionCount++;
+            }
+        }
+
+        return regressionCount;
+    }
+}
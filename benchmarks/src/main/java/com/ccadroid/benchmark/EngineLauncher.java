@@ -0,0 +1,55 @@
+package com.ccadroid.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class EngineLauncher { // measures any version of the engine the same way, also one without a profile
+    public static final String WALL_TIME = "wallTime";
+    public static final String PEAK_HEAP = "peakHeap";
+
+    public EngineLauncher() throws InstantiationException {
+        throw new InstantiationException();
+    }
+
+    public static void main(String[] args) throws ReflectiveOperationException { // <measurement path> <main class> <engine arguments...>
+        Path measurementPath = Paths.get(args[0]);
+        long startTime = System.nanoTime();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> writeMeasurement(measurementPath, startTime))); // also on System.exit
+
+        try {
+            Class.forName(args[1]).getMethod("main", String[].class).invoke(null, (Object) Arrays.copyOfRange(args, 2, args.length));
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw e;
+        }
+    }
+
+    private static void writeMeasurement(Path measurementPath, long startTime) {
+        double wallTime = (System.nanoTime() - startTime) / 1e6;
+        long peakHeap = 0;
+        for (MemoryPoolMXBean b : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (b.getType() == MemoryType.HEAP) {
+                peakHeap += b.getPeakUsage().getUsed();
+            }
+        }
+
+        try {
+            Files.writeString(measurementPath, String.format("%s=%s\n%s=%d\n", WALL_TIME, wallTime, PEAK_HEAP, peakHeap));
+        } catch (IOException ignored) {
+            System.err.printf("Cannot write %s!%n", measurementPath);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.ccadroid.benchmark;
+
+import com.ccadroid.EngineMain;
+import com.ccadroid.report.Finding;
+import com.ccadroid.report.ReportConstant;
+import com.ccadroid.slice.SliceLine;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+
+import static com.ccadroid.report.ReportConstant.*;
+import static com.ccadroid.util.Common.printf;
+
+public class EngineRunner { // the whole pipeline of EngineMain in its own JVM, as a batch worker runs it
+    private static final String SEPARATOR = "=======================================";
+    private static final String RULE_ID_FIELD = "[*] Rule ID: ";
+    private static final String DESCRIPTION_FIELD = "[*] Description: ";
+    private static final String CALLER_NAME_FIELD = "[*] Caller name: ";
+    private static final String TARGET_STATEMENT_FIELD = "[*] Target statement: ";
+    private static final String TARGET_LINES_FIELD = "[*] Target lines:";
+    private static final String CALLER_NAME_SEPARATOR = ", callerName=";
+
+    public EngineRunner() throws InstantiationException {
+        throw new InstantiationException();
+    }
+
+    public static Result run(Path inputPath, String platformDir, String rulePath, List<String> options) throws IOException, InterruptedException {
+        return run(inputPath, platformDir, rulePath, options, null);
+    }
+
+    public static Result run(Path inputPath, String platformDir, String rulePath, List<String> options, String engineClassPath) throws IOException, InterruptedException { // an engine class path for a version with only the text output, such as the original one
+        boolean isTextOutput = (engineClassPath != null);
+        Path outputPath = Paths.get(inputPath + (isTextOutput ? ".txt" : ".jsonl"));
+        Path profilePath = Paths.get(inputPath + ".profile.json");
+        Path measurementPath = Paths.get(inputPath + ".measurement");
+        Path logPath = Paths.get(inputPath + ".log");
+        Files.deleteIfExists(outputPath);
+        Files.deleteIfExists(profilePath);
+        Files.deleteIfExists(measurementPath);
+
+        String launcherPath = Paths.get(EngineLauncher.class.getProtectionDomain().getCodeSource().getLocation().getPath()).toString();
+        ArrayList<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(isTextOutput ? launcherPath + File.pathSeparator + engineClassPath : System.getProperty("java.class.path"));
+        command.add(EngineLauncher.class.getName());
+        command.add(measurementPath.toString());
+        command.add(EngineMain.class.getName());
+        command.addAll(List.of("-i", inputPath.toString(), "-r", rulePath));
+        if (!isTextOutput) {
+            command.addAll(List.of("-o", outputPath.toString(), "-f", ReportConstant.JSON_LINES, "-po", profilePath.toString()));
+        }
+
+        if (platformDir != null) {
+            command.addAll(List.of("-p", platformDir));
+        }
+
+        command.addAll(options);
+
+        ProcessBuilder builder = new ProcessBuilder(command);
+        if (isTextOutput) { // the findings are printed to stdout
+            builder.redirectOutput(outputPath.toFile());
+            builder.redirectError(logPath.toFile());
+        } else {
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(logPath.toFile());
+        }
+
+        Process process = builder.start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            printf(EngineRunner.class, String.format("Cannot analyze %s: exit code %d, see %s", inputPath, exitCode, logPath));
+        }
+
+        ArrayList<Finding> findings = new ArrayList<>();
+        if (Files.exists(outputPath)) {
+            List<String> lines = Files.readAllLines(outputPath);
+            if (isTextOutput) {
+                findings.addAll(readTextFindings(lines));
+            } else {
+                for (String l : lines) {
+                    if (!l.isEmpty()) {
+                        findings.add(new Finding(new JSONObject(l)));
+                    }
+                }
+            }
+        }
+
+        JSONObject profile = new JSONObject();
+        if (Files.exists(profilePath)) {
+            JSONArray arr = new JSONObject(Files.readString(profilePath)).getJSONArray(ReportConstant.PROFILES);
+            if (!arr.isEmpty()) {
+                profile = arr.getJSONObject(0);
+            }
+        }
+
+        Properties measurement = new Properties();
+        if (Files.exists(measurementPath)) {
+            try (Reader reader = Files.newBufferedReader(measurementPath)) {
+                measurement.load(reader);
+            }
+        }
+
+        return new Result(exitCode, findings, profile, measurement);
+    }
+
+    private static ArrayList<Finding> readTextFindings(List<String> lines) { // as written by TextFormat
+        ArrayList<Finding> findings = new ArrayList<>();
+        HashMap<String, String> fieldMap = new HashMap<>();
+        ArrayList<SliceLine> targetLines = null;
+
+        for (String l : lines) {
+            if (l.equals(SEPARATOR)) {
+                if (targetLines != null) {
+                    findings.add(new Finding(fieldMap.get(RULE_ID_FIELD), fieldMap.get(DESCRIPTION_FIELD), fieldMap.get(CALLER_NAME_FIELD), fieldMap.get(TARGET_STATEMENT_FIELD), targetLines));
+                    targetLines = null;
+                }
+
+                fieldMap.clear();
+            } else if (l.equals(TARGET_LINES_FIELD)) {
+                targetLines = new ArrayList<>();
+            } else if (targetLines != null) {
+                int index = l.lastIndexOf(CALLER_NAME_SEPARATOR);
+                if (index != -1) {
+                    targetLines.add(new SliceLine(l.substring(0, index), -1, l.substring(index + CALLER_NAME_SEPARATOR.length()), -1));
+                }
+            } else if (l.startsWith("[*] ") && l.contains(": ")) {
+                int index = l.indexOf(": ");
+                fieldMap.put(l.substring(0, index + 2), l.substring(index + 2));
+            }
+        }
+
+        return findings;
+    }
+
+    public static class Result {
+        private final int exitCode;
+        private final ArrayList<Finding> findings;
+        private final JSONObject profile;
+        private final Properties measurement;
+
+        private Result(int exitCode, ArrayList<Finding> findings, JSONObject profile, Properties measurement) {
+            this.exitCode = exitCode;
+            this.findings = findings;
+            this.profile = profile;
+            this.measurement = measurement;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        public ArrayList<Finding> getFindings() {
+            return findings;
+        }
+
+        public double getWallTime() { // of the whole JVM, measured by EngineLauncher
+            return Double.parseDouble(measurement.getProperty(EngineLauncher.WALL_TIME, "0"));
+        }
+
+        public JSONObject getPhases() { // phase name to its stats
+            JSONObject phases = profile.optJSONObject(PHASES);
+
+            return (phases == null) ? new JSONObject() : phases;
+        }
+
+        public long getPeakHeap() {
+            return Long.parseLong(measurement.getProperty(EngineLauncher.PEAK_HEAP, "0"));
+        }
+
+        public long getCount(String name) {
+            JSONObject counts = profile.optJSONObject(COUNTS);
+
+            return (counts == null) ? 0 : counts.optLong(name);
+        }
+    }
+}
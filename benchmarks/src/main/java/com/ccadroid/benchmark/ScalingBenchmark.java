@@ -0,0 +1,155 @@
+package com.ccadroid.benchmark;
+
+import com.opencsv.CSVWriter;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static com.ccadroid.benchmark.WorkloadGenerator.*;
+import static com.ccadroid.report.ReportConstant.*;
+import static com.ccadroid.util.Common.printf;
+
+public class ScalingBenchmark { // sweeps one parameter of the synthetic workload at a time through the whole pipeline
+    private static final String DEFAULT_SWEEPS = "classes=1,4,16,64;depth=1,2,4,8;fanIn=1,2,4,8;fanOut=1,2,4,8;fieldFlows=0,50,100;switches=0,1,2,4;loops=0,1,2,4;methodSize=10,100,1000";
+    private static final List<String> PHASES = List.of(LOAD_APK, PRUNE_CLASSES, LOAD_CLASSES, BUILD_CALL_GRAPH, CREATE_SLICING_CRITERIA, SLICE_STATEMENTS, MERGE_SLICES, CHECK_RULES);
+    private static final List<String> COUNTS = List.of(CRITERION_COUNT, INSERT_COUNT, MERGE_COUNT, TRUNCATE_COUNT, FOLD_COUNT, FOUND_COUNT);
+
+    public ScalingBenchmark() throws InstantiationException {
+        throw new InstantiationException();
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("ScalingBenchmark").build();
+        parser.addArgument("-p", "--PLATFORMS_PATH").type(String.class); // JARs without the SDK
+        parser.addArgument("-r", "--RULE_PATH").type(String.class).setDefault("rule");
+        parser.addArgument("-o", "--OUTPUT_PATH").type(String.class).setDefault("build/scaling.csv");
+        parser.addArgument("-bp", "--BASE_PARAMETERS").type(String.class).setDefault(""); // e.g. classes=10,depth=3
+        parser.addArgument("-s", "--SWEEPS").type(String.class).setDefault(DEFAULT_SWEEPS); // e.g. depth=1,2,4;fanIn=1,2
+        parser.addArgument("-e", "--ENGINE_OPTIONS").type(String.class).setDefault(""); // e.g. "-ul 10 -t 4"
+
+        Namespace namespace;
+        try {
+            namespace = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(2);
+            return;
+        }
+
+        String platformDir = namespace.getString("PLATFORMS_PATH");
+        String rulePath = namespace.getString("RULE_PATH");
+        Path outputPath = Paths.get(namespace.getString("OUTPUT_PATH"));
+        String engineOptions = namespace.getString("ENGINE_OPTIONS").trim();
+        List<String> options = engineOptions.isEmpty() ? List.of() : Arrays.asList(engineOptions.split("\\s+"));
+
+        try {
+            Parameters baseParameters = getDefaultParameters();
+            for (Map.Entry<String, List<Integer>> e : parseValues(namespace.getString("BASE_PARAMETERS"), ",").entrySet()) {
+                baseParameters = baseParameters.with(e.getKey(), e.getValue().get(0));
+            }
+
+            LinkedHashMap<String, List<Integer>> sweeps = parseValues(namespace.getString("SWEEPS"), ";");
+            Files.createDirectories(outputPath.toAbsolutePath().getParent());
+
+            try (CSVWriter writer = new CSVWriter(Files.newBufferedWriter(outputPath))) {
+                writer.writeNext(getHeader(baseParameters));
+
+                for (Map.Entry<String, List<Integer>> e : sweeps.entrySet()) {
+                    String name = e.getKey();
+                    double lastWallTime = 0;
+                    int lastLineCount = 0;
+
+                    for (int value : e.getValue()) {
+                        Parameters parameters = baseParameters.with(name, value);
+                        Path workDir = Files.createTempDirectory("cca-droid-workload-");
+                        int lineCount = generate(parameters, workDir.resolve("src"));
+                        Path inputPath = (platformDir == null) ? ApkBuilder.buildJar(workDir.resolve("src"), workDir.resolve("workload.jar")) : new ApkBuilder(platformDir).build(workDir.resolve("src"), PACKAGE_NAME, workDir.resolve("workload.apk"));
+                        EngineRunner.Result result = EngineRunner.run(inputPath, platformDir, rulePath, options);
+
+                        double wallTime = result.getWallTime();
+                        String exponent = getExponent(lastWallTime, wallTime, lastLineCount, lineCount);
+                        writer.writeNext(getRow(name, value, parameters, lineCount, result, exponent));
+                        writer.flush();
+                        printf(ScalingBenchmark.class, String.format("%s=%d: %d lines, %.0f ms, %d MB, exponent %s", name, value, lineCount, wallTime, result.getPeakHeap() >> 20, exponent.isEmpty() ? "-" : exponent));
+
+                        lastWallTime = wallTime;
+                        lastLineCount = lineCount;
+                    }
+                }
+            }
+
+            printf(ScalingBenchmark.class, String.format("Results: %s", outputPath));
+        } catch (IOException | InterruptedException | IllegalArgumentException e) {
+            printf(ScalingBenchmark.class, e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static LinkedHashMap<String, List<Integer>> parseValues(String str, String delimiter) {
+        LinkedHashMap<String, List<Integer>> map = new LinkedHashMap<>();
+
+        for (String s : str.split(delimiter)) {
+            String token = s.trim();
+            if (token.isEmpty()) {
+                continue;
+            }
+
+            int index = token.indexOf('=');
+            if (index == -1) {
+                throw new IllegalArgumentException(String.format("Not name=values: %s", token));
+            }
+
+            ArrayList<Integer> values = new ArrayList<>();
+            for (String v : token.substring(index + 1).split(",")) {
+                values.add(Integer.parseInt(v.trim()));
+            }
+
+            map.put(token.substring(0, index).trim(), values);
+        }
+
+        return map;
+    }
+
+    private static String getExponent(double lastWallTime, double wallTime, int lastLineCount, int lineCount) { // of time against program size
+        if (lastWallTime <= 0 || wallTime <= 0 || lastLineCount <= 0 || lineCount == lastLineCount) {
+            return "";
+        }
+
+        double exponent = Math.log(wallTime / lastWallTime) / Math.log((double) lineCount / lastLineCount);
+
+        return String.format(Locale.ENGLISH, "%.2f", exponent);
+    }
+
+    private static String[] getHeader(Parameters parameters) {
+        ArrayList<String> header = new ArrayList<>(List.of("parameter", "value"));
+        header.addAll(parameters.getNames());
+        header.addAll(List.of("lines", "exitCode", WALL_TIME, PEAK_HEAP, "timeExponent"));
+        PHASES.forEach(s -> header.add(s + "Ms"));
+        header.addAll(COUNTS);
+
+        return header.toArray(new String[0]);
+    }
+
+    private static String[] getRow(String name, int value, Parameters parameters, int lineCount, EngineRunner.Result result, String exponent) {
+        ArrayList<String> row = new ArrayList<>(List.of(name, String.valueOf(value)));
+        parameters.getNames().forEach(s -> row.add(String.valueOf(parameters.get(s))));
+        row.addAll(List.of(String.valueOf(lineCount), String.valueOf(result.getExitCode()), String.valueOf(result.getWallTime()), String.valueOf(result.getPeakHeap()), exponent));
+        JSONObject phases = result.getPhases();
+        for (String s : PHASES) {
+            JSONObject phase = phases.optJSONObject(s);
+            row.add(String.valueOf((phase == null) ? 0 : phase.getDouble(WALL_TIME)));
+        }
+
+        COUNTS.forEach(s -> row.add(String.valueOf(result.getCount(s))));
+
+        return row.toArray(new String[0]);
+    }
+}
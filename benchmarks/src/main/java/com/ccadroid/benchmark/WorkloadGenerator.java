@@ -0,0 +1,214 @@
+package com.ccadroid.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class WorkloadGenerator { // Java programs whose call chains end in javax.crypto sinks, scaled by the parameters
+    public static final String PACKAGE_NAME = "com.ccadroid.synthetic";
+    public static final String CLASSES = "classes";
+    public static final String DEPTH = "depth"; // levels of callers above the sinks and of key helpers below the entries
+    public static final String FAN_IN = "fanIn"; // callers of each method one level down
+    public static final String FAN_OUT = "fanOut"; // sinks called by each method of the last level
+    public static final String FIELD_FLOWS = "fieldFlows"; // percentage of entries whose key comes from a field
+    public static final String SWITCHES = "switches"; // per method
+    public static final String LOOPS = "loops"; // per method
+    public static final String METHOD_SIZE = "methodSize"; // filler statements per method
+    private static final String[] TRANSFORMATIONS = {"AES/CBC/PKCS5Padding", "DES/CBC/PKCS5Padding", "AES/CTR/NoPadding"};
+    private static final String KEY = "0123456789abcdef";
+    private static final String IV = "fedcba9876543210";
+
+    public WorkloadGenerator() throws InstantiationException {
+        throw new InstantiationException();
+    }
+
+    public static Parameters getDefaultParameters() {
+        LinkedHashMap<String, Integer> map = new LinkedHashMap<>();
+        map.put(CLASSES, 10);
+        map.put(DEPTH, 3);
+        map.put(FAN_IN, 2);
+        map.put(FAN_OUT, 2);
+        map.put(FIELD_FLOWS, 50);
+        map.put(SWITCHES, 1);
+        map.put(LOOPS, 1);
+        map.put(METHOD_SIZE, 10);
+
+        return new Parameters(map);
+    }
+
+    public static int generate(Parameters parameters, Path sourceDir) throws IOException { // returns the number of lines
+        Path packageDir = Files.createDirectories(sourceDir.resolve(PACKAGE_NAME.replace('.', '/')));
+        int classCount = parameters.get(CLASSES);
+        int lineCount = 0;
+
+        for (int i = 0; i < classCount; i++) {
+            String source = generateClass(parameters, i);
+            Files.writeString(packageDir.resolve(getClassName(i) + ".java"), source);
+            lineCount += source.split("\n").length;
+        }
+
+        return lineCount;
+    }
+
+    private static String generateClass(Parameters parameters, int index) {
+        int classCount = parameters.get(CLASSES);
+        int depth = Math.max(1, parameters.get(DEPTH));
+        int fanIn = Math.max(1, parameters.get(FAN_IN));
+        int fanOut = parameters.get(FAN_OUT);
+        String className = getClassName(index);
+        String sinkClassName = getClassName((index + 1) % classCount); // one class boundary per chain
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("package %s;\n\n", PACKAGE_NAME));
+        builder.append("import javax.crypto.Cipher;\n");
+        builder.append("import javax.crypto.spec.IvParameterSpec;\n");
+        builder.append("import javax.crypto.spec.SecretKeySpec;\n\n");
+        builder.append(String.format("public class %s {\n", className));
+        builder.append(String.format("    private static final byte[] STATIC_KEY = \"%s\".getBytes();\n", KEY));
+        builder.append("    private byte[] key;\n\n");
+        builder.append(String.format("    public %s() {\n", className));
+        builder.append(String.format("        key = \"%s\".getBytes();\n", KEY));
+        builder.append("    }\n");
+
+        for (int k = 0; k < fanIn; k++) { // level 0
+            String keySource;
+            if (k * 100 < parameters.get(FIELD_FLOWS) * fanIn) {
+                keySource = (k % 2 == 0) ? "this.key" : "STATIC_KEY";
+            } else {
+                keySource = "newKey0(n)";
+            }
+
+            builder.append(String.format("\n    public void entry%d(int n) throws Exception {\n", k));
+            builder.append(String.format("        byte[] key = %s;\n", keySource));
+            builder.append(String.format("        byte[] iv = \"%s\".getBytes();\n", IV));
+            appendBody(builder, parameters);
+            appendCalls(builder, 1, depth, fanIn, fanOut, sinkClassName);
+            builder.append("    }\n");
+        }
+
+        for (int d = 1; d < depth; d++) {
+            for (int k = 0; k < fanIn; k++) {
+                builder.append(String.format("\n    static void call%d_%d(byte[] key, byte[] iv, int n) throws Exception {\n", d, k));
+                appendBody(builder, parameters);
+                appendCalls(builder, d + 1, depth, fanIn, fanOut, sinkClassName);
+                builder.append("    }\n");
+            }
+        }
+
+        for (int h = 0; h < depth; h++) { // lower levels of the key
+            builder.append(String.format("\n    static byte[] newKey%d(int n) {\n", h));
+            builder.append("        int acc = n;\n");
+            appendFiller(builder, parameters);
+            if (h < depth - 1) {
+                builder.append(String.format("        return newKey%d(acc);\n", h + 1));
+            } else {
+                builder.append(String.format("        return \"%s\".getBytes();\n", KEY));
+            }
+
+            builder.append("    }\n");
+        }
+
+        for (int j = 0; j < fanOut; j++) {
+            String transformation = TRANSFORMATIONS[j % TRANSFORMATIONS.length];
+            String algorithm = transformation.substring(0, transformation.indexOf('/'));
+            builder.append(String.format("\n    static void sink%d(byte[] key, byte[] iv, int n) throws Exception {\n", j));
+            builder.append(String.format("        Cipher cipher = Cipher.getInstance(\"%s\");\n", transformation));
+            builder.append(String.format("        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, \"%s\"), new IvParameterSpec(iv));\n", algorithm));
+            builder.append("        cipher.doFinal(new byte[n]);\n");
+            builder.append("    }\n");
+        }
+
+        builder.append("}\n");
+
+        return builder.toString();
+    }
+
+    private static void appendBody(StringBuilder builder, Parameters parameters) {
+        builder.append("        int acc = n;\n");
+        appendFiller(builder, parameters);
+
+        for (int s = 0; s < parameters.get(SWITCHES); s++) {
+            builder.append("        switch (acc % 3) {\n");
+            builder.append("            case 0:\n");
+            builder.append(String.format("                iv = \"%s\".getBytes();\n", IV));
+            builder.append("                break;\n");
+            builder.append("            case 1:\n");
+            builder.append(String.format("                acc += %d;\n", s + 1));
+            builder.append("                break;\n");
+            builder.append("            default:\n");
+            builder.append("                break;\n");
+            builder.append("        }\n");
+        }
+
+        for (int l = 0; l < parameters.get(LOOPS); l++) {
+            builder.append(String.format("        for (int i%d = 0; i%d < acc %% 16; i%d++) {\n", l, l, l));
+            builder.append(String.format("            key[i%d] ^= (byte) i%d;\n", l, l));
+            builder.append("        }\n");
+        }
+
+        builder.append("        n = acc;\n");
+    }
+
+    private static void appendFiller(StringBuilder builder, Parameters parameters) {
+        for (int x = 0; x < parameters.get(METHOD_SIZE); x++) {
+            builder.append(String.format("        acc = acc * 31 + %d;\n", x));
+        }
+    }
+
+    private static void appendCalls(StringBuilder builder, int level, int depth, int fanIn, int fanOut, String sinkClassName) {
+        if (level < depth) {
+            for (int k = 0; k < fanIn; k++) {
+                builder.append(String.format("        call%d_%d(key, iv, n);\n", level, k));
+            }
+        } else {
+            for (int j = 0; j < fanOut; j++) {
+                builder.append(String.format("        %s.sink%d(key, iv, n);\n", sinkClassName, j));
+            }
+        }
+    }
+
+    private static String getClassName(int index) {
+        return String.format("Workload%d", index);
+    }
+
+    public static class Parameters {
+        private final LinkedHashMap<String, Integer> map;
+
+        private Parameters(LinkedHashMap<String, Integer> map) {
+            this.map = map;
+        }
+
+        public int get(String name) {
+            return map.get(name);
+        }
+
+        public List<String> getNames() {
+            return new ArrayList<>(map.keySet());
+        }
+
+        public Parameters with(String name, int value) {
+            if (!map.containsKey(name)) {
+                throw new IllegalArgumentException(String.format("Unknown parameter: %s", name));
+            }
+
+            LinkedHashMap<String, Integer> newMap = new LinkedHashMap<>(map);
+            newMap.put(name, value);
+
+            return new Parameters(newMap);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            for (Map.Entry<String, Integer> e : map.entrySet()) {
+                builder.append((builder.length() == 0) ? "" : ",").append(e.getKey()).append('=').append(e.getValue());
+            }
+
+            return builder.toString();
+        }
+    }
+}
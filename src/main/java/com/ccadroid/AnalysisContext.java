@@ -0,0 +1,115 @@
+package com.ccadroid;
+
+import com.ccadroid.check.RuleChecker;
+import com.ccadroid.inspect.ApkParser;
+import com.ccadroid.inspect.CodeInspector;
+import com.ccadroid.inspect.SlicingCriteriaGenerator;
+import com.ccadroid.report.Profiler;
+import com.ccadroid.report.ResultSink;
+import com.ccadroid.slice.CodeOptimizer;
+import com.ccadroid.slice.ProgramSlicer;
+import com.ccadroid.slice.SliceDatabase;
+import com.ccadroid.slice.SliceMerger;
+import com.ccadroid.slice.SliceScheduler;
+
+public class AnalysisContext {
+    private final ApkParser apkParser;
+    private final CodeInspector codeInspector;
+    private final SlicingCriteriaGenerator slicingCriteriaGenerator;
+    private final ProgramSlicer programSlicer;
+    private final SliceMerger sliceMerger;
+    private final SliceDatabase sliceDatabase;
+    private final CodeOptimizer codeOptimizer;
+    private final RuleChecker ruleChecker;
+    private final ResultSink resultSink;
+    private final Profiler profiler;
+    private SliceScheduler sliceScheduler; // only in a fork
+    private int criterionIndex;
+
+    public AnalysisContext(ResultSink resultSink) {
+        apkParser = new ApkParser();
+        codeInspector = new CodeInspector(this);
+        slicingCriteriaGenerator = new SlicingCriteriaGenerator(this);
+        programSlicer = new ProgramSlicer(this);
+        sliceMerger = new SliceMerger(this);
+        sliceDatabase = new SliceDatabase();
+        codeOptimizer = new CodeOptimizer(this);
+        ruleChecker = new RuleChecker(this);
+        this.resultSink = resultSink;
+        profiler = new Profiler();
+    }
+
+    public AnalysisContext(AnalysisContext parent) { // for slicing the criteria of one call graph component on a worker thread
+        apkParser = parent.getApkParser();
+        codeInspector = parent.getCodeInspector();
+        slicingCriteriaGenerator = new SlicingCriteriaGenerator(this, parent.getSlicingCriteriaGenerator());
+        programSlicer = new ProgramSlicer(this);
+        sliceMerger = new SliceMerger(this);
+        sliceDatabase = new SliceDatabase();
+        codeOptimizer = new CodeOptimizer(this, parent.getCodeOptimizer());
+        ruleChecker = parent.getRuleChecker(); // rules are checked on the main thread
+        resultSink = parent.getResultSink();
+        profiler = parent.getProfiler();
+
+        programSlicer.recordChanges();
+        sliceDatabase.recordChanges();
+    }
+
+    public ApkParser getApkParser() {
+        return apkParser;
+    }
+
+    public CodeInspector getCodeInspector() {
+        return codeInspector;
+    }
+
+    public SlicingCriteriaGenerator getSlicingCriteriaGenerator() {
+        return slicingCriteriaGenerator;
+    }
+
+    public ProgramSlicer getProgramSlicer() {
+        return programSlicer;
+    }
+
+    public SliceMerger getSliceMerger() {
+        return sliceMerger;
+    }
+
+    public SliceDatabase getSliceDatabase() {
+        return sliceDatabase;
+    }
+
+    public CodeOptimizer getCodeOptimizer() {
+        return codeOptimizer;
+    }
+
+    public RuleChecker getRuleChecker() {
+        return ruleChecker;
+    }
+
+    public ResultSink getResultSink() {
+        return resultSink;
+    }
+
+    public Profiler getProfiler() {
+        return profiler;
+    }
+
+    public void setSliceScheduler(SliceScheduler sliceScheduler) {
+        this.sliceScheduler = sliceScheduler;
+    }
+
+    public void setCriterionIndex(int criterionIndex) {
+        this.criterionIndex = criterionIndex;
+    }
+
+    public void awaitTurn() { // the pointer analysis state is shared, so a fork changes it in criterion order like a sequential run
+        if (sliceScheduler != null) {
+            sliceScheduler.awaitTurn(criterionIndex);
+        }
+    }
+
+    public void close() {
+        apkParser.close();
+    }
+}
\ No newline at end of file
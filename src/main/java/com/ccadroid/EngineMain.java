@@ -1,45 +1,626 @@
 package com.ccadroid;
 
+import com.ccadroid.check.Rule;
 import com.ccadroid.check.RuleChecker;
 import com.ccadroid.inspect.ApkParser;
+import com.ccadroid.inspect.ClassPruner;
 import com.ccadroid.inspect.CodeInspector;
 import com.ccadroid.inspect.SlicingCriteriaGenerator;
 import com.ccadroid.inspect.SlicingCriterion;
+import com.ccadroid.report.Finding;
+import com.ccadroid.report.Profiler;
+import com.ccadroid.report.ReportConstant;
+import com.ccadroid.report.ResultFormat;
+import com.ccadroid.report.ResultSink;
+import com.ccadroid.slice.CodeOptimizer;
 import com.ccadroid.slice.ProgramSlicer;
+import com.ccadroid.slice.SliceChange;
+import com.ccadroid.slice.SliceDatabase;
 import com.ccadroid.slice.SliceMerger;
+import com.ccadroid.slice.SliceScheduler;
 import com.ccadroid.util.Argparse4j;
 import com.ccadroid.util.soot.Soot;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.ccadroid.report.ReportConstant.*;
+import static com.ccadroid.util.Common.printf;
 
 public class EngineMain {
+    private static final String PROFILE_SUFFIX = ".profile.json";
+    private static final JSONArray profiles = new JSONArray();
+    private static ResultSink resultSink;
 
     public static void main(String[] args) {
         Argparse4j.setArguments(args);
         String apkPath = Argparse4j.getString(Argparse4j.INPUT_PATH);
+        String batchPath = Argparse4j.getString(Argparse4j.BATCH_PATH);
         String platformDir = Argparse4j.getString(Argparse4j.PLATFORMS_PATH);
+        String outputPath = Argparse4j.getString(Argparse4j.OUTPUT_PATH);
+        String outputFormat = Argparse4j.getString(Argparse4j.OUTPUT_FORMAT);
+        resultSink = new ResultSink(outputPath, ResultFormat.create(outputFormat, batchPath != null));
+        if (outputPath == null && !outputFormat.equals(ReportConstant.TEXT)) { // the sink keeps stdout for the results, the logs of the tool and Soot go to stderr
+            System.setOut(System.err);
+        }
+
+        int exitCode = 0;
+
+        try {
+            if (batchPath == null) {
+                if (analyzeApk(apkPath, platformDir) == -1) {
+                    exitCode = 1;
+                }
+            } else {
+                analyzeApks(batchPath, platformDir, args);
+            }
+        } finally {
+            resultSink.close();
+        }
+
+        String profilePath = Argparse4j.getString(Argparse4j.PROFILE_PATH);
+        if (profilePath == null && outputPath != null) {
+            profilePath = outputPath + PROFILE_SUFFIX; // next to the results
+        }
+
+        if (profilePath != null) {
+            writeProfiles(profilePath);
+        }
+
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+
+    private static int analyzeApk(String apkPath, String platformDir) {
+        AnalysisContext context = new AnalysisContext(resultSink);
+        resultSink.beginApk(apkPath);
+
+        try {
+            return analyzeApk(context, apkPath, platformDir);
+        } finally {
+            resultSink.endApk(); // flushed and synced per APK
+            context.close();
+            addProfile(apkPath, context.getProfiler());
+        }
+    }
+
+    private static int analyzeApk(AnalysisContext context, String apkPath, String platformDir) {
+        Profiler profiler = context.getProfiler();
+        ApkParser apkParser = context.getApkParser();
+        boolean isClassInput = ApkParser.isClassInput(apkPath);
+        if (!isClassInput && platformDir == null) {
+            printf(EngineMain.class, String.format("Cannot analyze %s without -p!", apkPath));
+            return -1;
+        }
+
+        Profiler.Sample sample1 = profiler.start();
+        ClassPruner classPruner = null;
+        if (isClassInput) {
+            if (!apkParser.loadClassFiles(apkPath)) {
+                return -1;
+            }
+        } else {
+            classPruner = new ClassPruner();
+            if (!classPruner.loadDexFiles(apkPath)) { // left to the APK parser, with all classes
+                classPruner = null;
+            }
+
+            if (classPruner != null && !classPruner.hasCandidateSinks(getSlicingSignatures(context), apkParser)) { // before Soot and the APK parser
+                printf(EngineMain.class, String.format("No candidate sinks in %s", apkPath));
+                profiler.stop(LOAD_APK, sample1);
+                profiler.setCount(CRITERION_COUNT, 0);
+                profiler.setCount(FOUND_COUNT, 0);
+                return 0;
+            }
+
+            if (!apkParser.loadAPKFile(apkPath)) {
+                return -1;
+            }
+
+            apkParser.parseManifest();
+        }
+
+        String entryComponents = Argparse4j.getString(Argparse4j.ENTRY_COMPONENTS);
+        if (entryComponents != null) {
+            apkParser.addAppComponents(Arrays.asList(entryComponents.split("\\s*,\\s*")));
+        }
 
-        ApkParser apkParser = ApkParser.getInstance();
-        apkParser.loadAPKFile(apkPath);
-        apkParser.parseManifest();
         ArrayList<String> dexClassNames = apkParser.getDexClassNames();
+        profiler.stop(LOAD_APK, sample1);
+
+        if (classPruner != null && Argparse4j.getBoolean(Argparse4j.PRUNE_CLASSES)) {
+            Profiler.Sample sample = profiler.start();
+            pruneClasses(context, classPruner);
+            profiler.stop(PRUNE_CLASSES, sample);
+        }
+
+        classPruner = null; // the dex files are not read after this
+
+        Profiler.Sample sample2 = profiler.start();
+        if (isClassInput) {
+            Soot.initialize(apkParser.getClassPath());
+        } else {
+            Soot.initialize(apkPath, platformDir);
+        }
 
-        Soot.initialize(apkPath, platformDir);
+        Soot.setMaxBodyUnits(Argparse4j.getInt(Argparse4j.MAX_BODY_UNITS));
         Soot.loadDexClasses(dexClassNames);
+        profiler.stop(LOAD_CLASSES, sample2);
 
-        CodeInspector codeInspector = CodeInspector.getInstance();
+        CodeInspector codeInspector = context.getCodeInspector();
+        Profiler.Sample sample3 = profiler.start();
         codeInspector.buildCallGraph();
+        profiler.stop(BUILD_CALL_GRAPH, sample3);
 
-        SlicingCriteriaGenerator slicingCriteriaGenerator = SlicingCriteriaGenerator.getInstance();
-        ProgramSlicer programSlicer = ProgramSlicer.getInstance();
-        SliceMerger sliceMerger = SliceMerger.getInstance();
-        RuleChecker ruleChecker = RuleChecker.getInstance();
-
+        SlicingCriteriaGenerator slicingCriteriaGenerator = context.getSlicingCriteriaGenerator();
+        Profiler.Sample sample4 = profiler.start();
         ArrayList<SlicingCriterion> slicingCriteria = slicingCriteriaGenerator.createSlicingCriteria();
-        for (SlicingCriterion sc : slicingCriteria) {
-            programSlicer.sliceStatements(sc);
-            sliceMerger.mergeSlices(sc);
+        profiler.stop(CREATE_SLICING_CRITERIA, sample4);
+
+        Profiler.Sample sample5 = profiler.start();
+        int foundCount = analyzeSlicingCriteria(context, slicingCriteria);
+        profiler.stop(ANALYZE_SLICING_CRITERIA, sample5);
+
+        profiler.setCount(CRITERION_COUNT, slicingCriteria.size());
+        profiler.setCount(FOUND_COUNT, foundCount);
+        profiler.setCount(RELEASE_COUNT, Soot.getReleaseCount());
+
+        return foundCount;
+    }
+
+    private static void pruneClasses(AnalysisContext context, ClassPruner classPruner) {
+        Profiler profiler = context.getProfiler();
+        ApkParser apkParser = context.getApkParser();
+
+        HashSet<String> signatures = getSlicingSignatures(context);
+        HashSet<String> classNames = classPruner.getReachableClassNames(signatures);
+        if (classNames == null) { // keep all classes
+            return;
+        }
+
+        ArrayList<String> dexClassNames = apkParser.getDexClassNames();
+        classNames.retainAll(new HashSet<>(dexClassNames));
+        apkParser.setReachableClassNames(classNames);
+        printf(EngineMain.class, String.format("%d of %d classes can reach the rules", classNames.size(), dexClassNames.size()));
+        profiler.setCount(REACHABLE_CLASS_COUNT, classNames.size());
+    }
+
+    private static HashSet<String> getSlicingSignatures(AnalysisContext context) {
+        RuleChecker ruleChecker = context.getRuleChecker();
+
+        HashSet<String> signatures = new HashSet<>();
+        for (Rule r : ruleChecker.getRules()) {
+            signatures.addAll(r.getSlicingSignatures().keySet());
+        }
+
+        return signatures;
+    }
+
+    private static int analyzeSlicingCriteria(AnalysisContext context, ArrayList<SlicingCriterion> slicingCriteria) {
+        int threadCount = Argparse4j.getInt(Argparse4j.THREADS);
+        if (threadCount > 1) {
+            return analyzeSlicingCriteria(context, slicingCriteria, threadCount);
+        }
+
+        Profiler profiler = context.getProfiler();
+        SliceMerger sliceMerger = context.getSliceMerger();
+        RuleChecker ruleChecker = context.getRuleChecker();
+        CodeInspector codeInspector = context.getCodeInspector();
+
+        HashMap<Integer, Integer> lastIndexMap = new HashMap<>();
+        for (int i = 0; i < slicingCriteria.size(); i++) {
+            SlicingCriterion sc = slicingCriteria.get(i);
+            lastIndexMap.put(codeInspector.getComponent(sc.getCallerName()), i);
+        }
+
+        for (int i = 0; i < slicingCriteria.size(); i++) {
+            SlicingCriterion sc = slicingCriteria.get(i);
+            sliceStatements(context, sc);
+
+            Profiler.Sample sample = profiler.start();
             ruleChecker.checkRules(sc);
+            profiler.stop(CHECK_RULES, sc.getId(), sample);
+
+            releaseComponent(context, sc, i, lastIndexMap);
+        }
+
+        setSliceCounts(context, sliceMerger.getMergeCount(), sliceMerger.getTruncatedCount());
+        setFoldCount(context);
+
+        return ruleChecker.getFoundCount();
+    }
+
+    private static int analyzeSlicingCriteria(AnalysisContext context, ArrayList<SlicingCriterion> slicingCriteria, int threadCount) { // each call graph component is sliced on its own fork, and the slices are published in criterion order
+        CodeInspector codeInspector = context.getCodeInspector();
+        ProgramSlicer programSlicer = context.getProgramSlicer();
+        SliceDatabase sliceDatabase = context.getSliceDatabase();
+        RuleChecker ruleChecker = context.getRuleChecker();
+        Profiler profiler = context.getProfiler();
+
+        int criterionCount = slicingCriteria.size();
+        AnalysisContext[] forks = new AnalysisContext[criterionCount];
+        int[] nextIndexes = new int[criterionCount];
+        ArrayList<Integer> firstIndexes = new ArrayList<>();
+        HashMap<Integer, Integer> lastIndexMap = new HashMap<>();
+        for (int i = 0; i < criterionCount; i++) {
+            SlicingCriterion sc = slicingCriteria.get(i);
+            int component = codeInspector.getComponent(sc.getCallerName());
+            Integer lastIndex = lastIndexMap.put(component, i);
+            nextIndexes[i] = -1;
+            if (lastIndex == null) {
+                forks[i] = new AnalysisContext(context); // forked before any slicing, so every fork starts from the same state
+                firstIndexes.add(i);
+            } else {
+                forks[i] = forks[lastIndex];
+                nextIndexes[lastIndex] = i;
+            }
+        }
+
+        SliceResult[] results = new SliceResult[criterionCount];
+        SliceScheduler sliceScheduler = new SliceScheduler(nextIndexes, firstIndexes, i -> results[i] = sliceStatements(forks[i], slicingCriteria.get(i), i), threadCount);
+        for (int i : firstIndexes) {
+            forks[i].setSliceScheduler(sliceScheduler);
+        }
+
+        sliceScheduler.start();
+
+        int mergeCount = 0;
+        int truncatedCount = 0;
+
+        try {
+            for (int i = 0; i < criterionCount; i++) {
+                sliceScheduler.awaitSliced(i);
+                SliceResult result = results[i];
+                results[i] = null;
+
+                sliceDatabase.applyChanges(result.sliceChanges); // the same database as a sequential run
+                programSlicer.putRetainParamNumbers(result.retainParamNumbers);
+
+                SlicingCriterion sc = slicingCriteria.get(i);
+                Profiler.Sample sample = profiler.start();
+                ruleChecker.checkRules(sc);
+                profiler.stop(CHECK_RULES, sc.getId(), sample);
+
+                int component = codeInspector.getComponent(sc.getCallerName());
+                if (lastIndexMap.get(component) == i) { // the fork of the component is done
+                    SliceMerger sliceMerger = forks[i].getSliceMerger();
+                    mergeCount += sliceMerger.getMergeCount();
+                    truncatedCount += sliceMerger.getTruncatedCount();
+                }
+
+                forks[i] = null;
+                releaseComponent(context, sc, i, lastIndexMap);
+            }
+        } finally {
+            sliceScheduler.shutdown();
+        }
+
+        setSliceCounts(context, mergeCount, truncatedCount);
+        setFoldCount(context);
+
+        return ruleChecker.getFoundCount();
+    }
+
+    private static void releaseComponent(AnalysisContext context, SlicingCriterion slicingCriterion, int criterionIndex, HashMap<Integer, Integer> lastIndexMap) { // after the last criterion of its component
+        CodeInspector codeInspector = context.getCodeInspector();
+        SlicingCriteriaGenerator slicingCriteriaGenerator = context.getSlicingCriteriaGenerator();
+
+        int component = codeInspector.getComponent(slicingCriterion.getCallerName());
+        if (component == -1 || lastIndexMap.get(component) != criterionIndex) {
+            return;
+        }
+
+        ArrayList<String> callerNames = codeInspector.releaseComponent(component);
+        slicingCriteriaGenerator.releaseTargetUnits(callerNames);
+    }
+
+    private static void setSliceCounts(AnalysisContext context, int mergeCount, int truncatedCount) { // not printed, stdout is for the results
+        Profiler profiler = context.getProfiler();
+        SliceDatabase sliceDatabase = context.getSliceDatabase();
+        CodeInspector codeInspector = context.getCodeInspector();
+
+        profiler.setCount(INSERT_COUNT, sliceDatabase.getInsertCount());
+        profiler.setCount(OVERWRITE_COUNT, sliceDatabase.getOverwriteCount());
+        profiler.setCount(MERGE_COUNT, mergeCount);
+        profiler.setCount(TRUNCATE_COUNT, truncatedCount + codeInspector.getTruncatedCount());
+    }
+
+    private static void setFoldCount(AnalysisContext context) {
+        Profiler profiler = context.getProfiler();
+        CodeOptimizer codeOptimizer = context.getCodeOptimizer();
+
+        profiler.setCount(FOLD_COUNT, codeOptimizer.getFoldCount());
+    }
+
+    private static void addProfile(String apkPath, Profiler profiler) {
+        JSONObject profile = profiler.toJSONObject();
+        profile.put(APK, apkPath);
+        addProfile(profile);
+    }
+
+    private static synchronized void addProfile(JSONObject profile) { // shared by the worker threads
+        profiles.put(profile);
+    }
+
+    private static void writeProfiles(String profilePath) {
+        JSONObject root = new JSONObject();
+        root.put(PROFILES, profiles);
+
+        try {
+            Files.writeString(Paths.get(profilePath), root.toString());
+        } catch (IOException ignored) {
+            printf(EngineMain.class, String.format("Cannot write %s!", profilePath));
+        }
+    }
+
+    private static SliceResult sliceStatements(AnalysisContext fork, SlicingCriterion slicingCriterion, int criterionIndex) {
+        ProgramSlicer programSlicer = fork.getProgramSlicer();
+        SliceDatabase sliceDatabase = fork.getSliceDatabase();
+
+        fork.setCriterionIndex(criterionIndex);
+        sliceStatements(fork, slicingCriterion);
+
+        return new SliceResult(sliceDatabase.takeChanges(), programSlicer.takeRetainParamNumbers());
+    }
+
+    private static void sliceStatements(AnalysisContext context, SlicingCriterion slicingCriterion) {
+        Profiler profiler = context.getProfiler();
+        ProgramSlicer programSlicer = context.getProgramSlicer();
+        Profiler.Sample sample1 = profiler.start();
+        programSlicer.sliceStatements(slicingCriterion);
+        profiler.stop(SLICE_STATEMENTS, slicingCriterion.getId(), sample1);
+
+        SliceMerger sliceMerger = context.getSliceMerger();
+        Profiler.Sample sample2 = profiler.start();
+        sliceMerger.mergeSlices(slicingCriterion);
+        profiler.stop(MERGE_SLICES, slicingCriterion.getId(), sample2);
+    }
+
+    private static void analyzeApks(String batchPath, String platformDir, String[] args) {
+        ArrayList<String> apkPaths = getApkPaths(batchPath);
+        int workerCount = Argparse4j.getInt(Argparse4j.WORKERS);
+        int apkCount = apkPaths.size();
+        int failedCount = 0;
+        long batchStartTime = System.currentTimeMillis();
+
+        if (workerCount > 1) {
+            failedCount = analyzeApksInWorkers(apkPaths, workerCount, args);
+        } else {
+            for (int i = 0; i < apkCount; i++) {
+                String apkPath = apkPaths.get(i);
+                long startTime = System.currentTimeMillis();
+                int foundCount;
+
+                try {
+                    foundCount = analyzeApk(apkPath, platformDir);
+                } catch (RuntimeException | StackOverflowError | OutOfMemoryError e) { // keep the batch alive
+                    printf(EngineMain.class, String.format("Cannot analyze %s: %s", apkPath, e));
+                    foundCount = -1;
+                } finally {
+                    Soot.reset();
+                }
+
+                long elapsedTime = System.currentTimeMillis() - startTime;
+                if (foundCount == -1) {
+                    failedCount++;
+                }
+
+                printApkResult(i, apkCount, apkPath, foundCount, elapsedTime);
+            }
+        }
+
+        long batchElapsedTime = System.currentTimeMillis() - batchStartTime;
+        double apksPerHour = (batchElapsedTime == 0) ? 0 : apkCount * 3600000.0 / batchElapsedTime;
+        printf(EngineMain.class, String.format("%d APKs (%d failed) in %d ms, %.1f APKs/hour", apkCount, failedCount, batchElapsedTime, apksPerHour));
+    }
+
+    private static int analyzeApksInWorkers(ArrayList<String> apkPaths, int workerCount, String[] args) {
+        int apkCount = apkPaths.size();
+        int failedCount = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+        ArrayList<Future<WorkerResult>> futures = new ArrayList<>();
+        for (String p : apkPaths) {
+            futures.add(executor.submit(() -> runWorker(p, args)));
+        }
+
+        for (int i = 0; i < apkCount; i++) { // report in input order
+            String apkPath = apkPaths.get(i);
+            WorkerResult result;
+
+            try {
+                result = futures.get(i).get();
+            } catch (InterruptedException | ExecutionException e) {
+                printf(EngineMain.class, String.format("Cannot analyze %s: %s", apkPath, e));
+                result = new WorkerResult(new ArrayList<>(), -1, 0);
+            }
+
+            resultSink.beginApk(apkPath);
+            result.findings.forEach(resultSink::write);
+            resultSink.endApk();
+
+            if (result.foundCount == -1) {
+                failedCount++;
+            }
+
+            printApkResult(i, apkCount, apkPath, result.foundCount, result.elapsedTime);
+        }
+
+        executor.shutdown();
+
+        return failedCount;
+    }
+
+    private static WorkerResult runWorker(String apkPath, String[] args) throws IOException, InterruptedException {
+        Path outputPath = Files.createTempFile("cca-droid-", ".jsonl");
+        Path profilePath = Paths.get(outputPath + PROFILE_SUFFIX); // written by the worker
+        Path logPath = Files.createTempFile("cca-droid-", ".log");
+        ArrayList<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments()); // for same heap settings
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(EngineMain.class.getName());
+        command.addAll(getWorkerArguments(args));
+        command.add("-i");
+        command.add(apkPath);
+        command.add("-o");
+        command.add(outputPath.toString());
+        command.add("-f");
+        command.add(ReportConstant.JSON_LINES); // read back as findings
+
+        long startTime = System.currentTimeMillis();
+
+        try {
+            ProcessBuilder builder = new ProcessBuilder(command);
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(logPath.toFile());
+            Process process = builder.start();
+            int exitCode = process.waitFor();
+            long elapsedTime = System.currentTimeMillis() - startTime;
+
+            ArrayList<Finding> findings = readFindings(outputPath);
+            readProfiles(profilePath);
+            if (exitCode != 0) {
+                printf(EngineMain.class, String.format("Cannot analyze %s: exit code %d, see %s", apkPath, exitCode, logPath));
+                return new WorkerResult(findings, -1, elapsedTime);
+            }
+
+            Files.deleteIfExists(logPath);
+
+            return new WorkerResult(findings, findings.size(), elapsedTime);
+        } finally {
+            Files.deleteIfExists(outputPath);
+            Files.deleteIfExists(profilePath);
+        }
+    }
+
+    private static ArrayList<Finding> readFindings(Path outputPath) throws IOException {
+        ArrayList<Finding> findings = new ArrayList<>();
+
+        for (String l : Files.readAllLines(outputPath)) {
+            if (l.isEmpty()) {
+                continue;
+            }
+
+            try {
+                findings.add(new Finding(new JSONObject(l)));
+            } catch (JSONException ignored) { // cut off by a crashed worker
+                break;
+            }
+        }
+
+        return findings;
+    }
+
+    private static void readProfiles(Path profilePath) throws IOException {
+        if (!Files.exists(profilePath)) {
+            return;
+        }
+
+        try {
+            JSONObject root = new JSONObject(Files.readString(profilePath));
+            JSONArray arr = root.getJSONArray(PROFILES);
+            for (int i = 0; i < arr.length(); i++) {
+                addProfile(arr.getJSONObject(i));
+            }
+        } catch (JSONException ignored) {
+            printf(EngineMain.class, String.format("Cannot read %s!", profilePath));
+        }
+    }
+
+    private static ArrayList<String> getWorkerArguments(String[] args) {
+        List<String> excludedOptions = List.of("-b", "--" + Argparse4j.BATCH_PATH, "-w", "--" + Argparse4j.WORKERS, "-o", "--" + Argparse4j.OUTPUT_PATH, "-f", "--" + Argparse4j.OUTPUT_FORMAT, "-po", "--" + Argparse4j.PROFILE_PATH);
+        ArrayList<String> arguments = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String option = arg.contains("=") ? arg.substring(0, arg.indexOf('=')) : arg;
+            if (!excludedOptions.contains(option)) {
+                arguments.add(arg);
+            } else if (!arg.contains("=")) {
+                i++; // skip option value
+            }
+        }
+
+        return arguments;
+    }
+
+    private static void printApkResult(int index, int apkCount, String apkPath, int foundCount, long elapsedTime) {
+        if (foundCount == -1) {
+            printf(EngineMain.class, String.format("[%d/%d] %s: failed, %d ms", index + 1, apkCount, apkPath, elapsedTime));
+        } else {
+            printf(EngineMain.class, String.format("[%d/%d] %s: %d findings, %d ms", index + 1, apkCount, apkPath, foundCount, elapsedTime));
+        }
+    }
+
+    private static ArrayList<String> getApkPaths(String batchPath) {
+        ArrayList<String> apkPaths = new ArrayList<>();
+        Path path = Paths.get(batchPath);
+
+        try {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> stream = Files.walk(path)) {
+                    List<String> paths = stream.filter(p -> Files.isRegularFile(p) && (p.toString().endsWith(".apk") || p.toString().endsWith(".jar") || p.toString().endsWith(".aar"))).map(Path::toString).sorted().collect(Collectors.toList());
+                    apkPaths.addAll(paths);
+                }
+            } else {
+                Path parent = path.toAbsolutePath().getParent();
+                List<String> lines = Files.readAllLines(path);
+                for (String l : lines) {
+                    String line = l.trim();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+
+                    File file = new File(line);
+                    apkPaths.add(file.isAbsolute() ? line : parent.resolve(line).toString());
+                }
+            }
+        } catch (IOException ignored) {
+            printf(EngineMain.class, String.format("Cannot read %s!", batchPath));
+        }
+
+        return apkPaths;
+    }
+
+    private static class SliceResult {
+        private final ArrayList<SliceChange> sliceChanges;
+        private final HashMap<String, ArrayList<Integer>> retainParamNumbers;
+
+        private SliceResult(ArrayList<SliceChange> sliceChanges, HashMap<String, ArrayList<Integer>> retainParamNumbers) {
+            this.sliceChanges = sliceChanges;
+            this.retainParamNumbers = retainParamNumbers;
+        }
+    }
+
+    private static class WorkerResult {
+        private final ArrayList<Finding> findings;
+        private final int foundCount;
+        private final long elapsedTime;
+
+        private WorkerResult(ArrayList<Finding> findings, int foundCount, long elapsedTime) {
+            this.findings = findings;
+            this.foundCount = foundCount;
+            this.elapsedTime = elapsedTime;
         }
     }
 }
\ No newline at end of file
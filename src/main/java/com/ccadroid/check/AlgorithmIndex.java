@@ -0,0 +1,36 @@
+package com.ccadroid.check;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+class AlgorithmIndex {
+    private final List<AlgorithmMatcher> matchers;
+    private final ConcurrentHashMap<String, Set<AlgorithmMatcher>> matcherMap;
+
+    AlgorithmIndex(List<AlgorithmMatcher> matchers) {
+        this.matchers = matchers;
+        matcherMap = new ConcurrentHashMap<>();
+    }
+
+    Set<AlgorithmMatcher> getMatchers(String str) { // every rule's algorithm condition which str satisfies
+        if (!AlgorithmLexicon.isAlgorithm(str)) {
+            return Collections.emptySet();
+        }
+
+        return matcherMap.computeIfAbsent(str, this::findMatchers);
+    }
+
+    private Set<AlgorithmMatcher> findMatchers(String str) {
+        HashSet<AlgorithmMatcher> set = new HashSet<>();
+        for (AlgorithmMatcher m : matchers) {
+            if (m.matches(str)) {
+                set.add(m);
+            }
+        }
+
+        return set.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(set);
+    }
+}
@@ -0,0 +1,110 @@
+package com.ccadroid.check;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.Security;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class AlgorithmLexicon {
+    private static final List<String> SERVICE_TYPES = List.of("Cipher", "SecretKeyFactory", "SecureRandom", "KeyAgreement", "MessageDigest", "Mac");
+    private static final String[] ANDROID_ALGORITHMS = { // AndroidOpenSSL and BC names which the desktop providers do not register
+            "AES/GCM-SIV/NOPADDING", "AES_128/CBC/NOPADDING", "AES_128/CBC/PKCS5PADDING", "AES_128/ECB/NOPADDING", "AES_128/ECB/PKCS5PADDING", "AES_128/GCM/NOPADDING", "AES_128/GCM-SIV/NOPADDING",
+            "AES_256/CBC/NOPADDING", "AES_256/CBC/PKCS5PADDING", "AES_256/ECB/NOPADDING", "AES_256/ECB/PKCS5PADDING", "AES_256/GCM/NOPADDING", "AES_256/GCM-SIV/NOPADDING",
+            "ARC4", "ARC4/ECB/NOPADDING", "ARC4/NONE/NOPADDING", "CHACHA20/NONE/NOPADDING", "CHACHA20/POLY1305/NOPADDING", "DESEDE/CBC/ISO10126PADDING", "DESEDE/ECB/ISO10126PADDING",
+            "RSA/NONE/NOPADDING", "RSA/NONE/OAEPPADDING", "RSA/NONE/OAEPWITHSHA-1ANDMGF1PADDING", "RSA/NONE/OAEPWITHSHA-224ANDMGF1PADDING", "RSA/NONE/OAEPWITHSHA-256ANDMGF1PADDING",
+            "RSA/NONE/OAEPWITHSHA-384ANDMGF1PADDING", "RSA/NONE/OAEPWITHSHA-512ANDMGF1PADDING", "RSA/NONE/PKCS1PADDING",
+            "PBEWITHMD5AND128BITAES-CBC-OPENSSL", "PBEWITHMD5AND192BITAES-CBC-OPENSSL", "PBEWITHMD5AND256BITAES-CBC-OPENSSL", "PBEWITHMD5ANDRC2", "PBEWITHSHA1ANDDES", "PBEWITHSHA1ANDRC2",
+            "PBEWITHSHA256AND128BITAES-CBC-BC", "PBEWITHSHA256AND192BITAES-CBC-BC", "PBEWITHSHA256AND256BITAES-CBC-BC", "PBEWITHSHAAND128BITAES-CBC-BC", "PBEWITHSHAAND192BITAES-CBC-BC",
+            "PBEWITHSHAAND256BITAES-CBC-BC", "PBEWITHSHAAND128BITRC2-CBC", "PBEWITHSHAAND128BITRC4", "PBEWITHSHAAND2-KEYTRIPLEDES-CBC", "PBEWITHSHAAND3-KEYTRIPLEDES-CBC",
+            "PBEWITHSHAAND40BITRC2-CBC", "PBEWITHSHAAND40BITRC4", "PBKDF2WITHHMACSHA1AND8BIT", "PBEWITHHMACSHA", "PBEWITHHMACSHA1", "PBEWITHHMACSHA224", "PBEWITHHMACSHA256",
+            "PBEWITHHMACSHA384", "PBEWITHHMACSHA512", "DESEDEMAC", "DESMAC", "AESCMAC", "X25519", "XDH"
+    };
+    private static final HashSet<String> algorithmSet = new HashSet<>();
+    private static final HashSet<String> cipherSet = new HashSet<>();
+    private static final ConcurrentHashMap<String, Boolean> transformationMap = new ConcurrentHashMap<>();
+
+    static {
+        for (Provider p : Security.getProviders()) {
+            for (Provider.Service s : p.getServices()) {
+                addAlgorithm(s.getType(), s.getAlgorithm());
+            }
+
+            for (String key : p.stringPropertyNames()) {
+                if (!key.startsWith("Alg.Alias.")) {
+                    continue;
+                }
+
+                String[] strArr = key.split("\\.", 4); // e.g., Alg.Alias.Cipher.RC4
+                if (strArr.length == 4) {
+                    addAlgorithm(strArr[2], strArr[3]);
+                }
+            }
+        }
+
+        algorithmSet.addAll(Arrays.asList(ANDROID_ALGORITHMS));
+    }
+
+    public AlgorithmLexicon() throws InstantiationException {
+        throw new InstantiationException();
+    }
+
+    public static boolean isAlgorithm(String str) {
+        String s = normalize(str);
+        if (algorithmSet.contains(s)) {
+            return true;
+        }
+
+        ArrayList<String> tokens = tokenize(s);
+        int count = tokens.size();
+        if (count == 1) { // e.g., "AES/", which Cipher reads as AES
+            return cipherSet.contains(tokens.get(0));
+        } else if (count < 3) {
+            return false;
+        }
+
+        String algorithm = tokens.get(0);
+        if (!cipherSet.contains(algorithm) && !cipherSet.contains(algorithm + "/" + tokens.get(1)) && !cipherSet.contains(algorithm + "//" + tokens.get(2))) {
+            return false;
+        }
+
+        return transformationMap.computeIfAbsent(s, AlgorithmLexicon::isTransformation); // mode and padding support is up to each provider
+    }
+
+    private static void addAlgorithm(String type, String algorithm) {
+        if (!SERVICE_TYPES.contains(type)) {
+            return;
+        }
+
+        String s = normalize(algorithm);
+        algorithmSet.add(s);
+        if (type.equals("Cipher")) {
+            cipherSet.add(s);
+        }
+    }
+
+    private static String normalize(String str) {
+        return str.toUpperCase(Locale.ENGLISH); // as the providers compare names
+    }
+
+    private static ArrayList<String> tokenize(String str) { // as Cipher splits a transformation, skipping empty parts
+        ArrayList<String> tokens = new ArrayList<>();
+        StringTokenizer tokenizer = new StringTokenizer(str, "/");
+        while (tokenizer.hasMoreTokens()) {
+            tokens.add(tokenizer.nextToken().trim());
+        }
+
+        return tokens;
+    }
+
+    private static boolean isTransformation(String str) {
+        try {
+            Cipher.getInstance(str);
+            return true;
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException ignored) {
+            return false;
+        }
+    }
+}
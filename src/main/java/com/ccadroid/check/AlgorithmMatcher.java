@@ -0,0 +1,45 @@
+package com.ccadroid.check;
+
+import org.json.JSONArray;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+class AlgorithmMatcher {
+    private final String[] algorithms;
+    private final Pattern[] patterns;
+    private final String[] excludedNames;
+
+    AlgorithmMatcher(JSONArray algorithms) {
+        int count = algorithms.length();
+        this.algorithms = new String[count];
+        patterns = new Pattern[count];
+        excludedNames = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            String algorithm = algorithms.getString(i);
+            String[] strArr = algorithm.split("-"); // e.g., RSA-OAEP, AES-GCM
+            boolean hasExcludedName = algorithm.contains("-");
+
+            this.algorithms[i] = algorithm;
+            patterns[i] = Pattern.compile("(?i)^(" + (hasExcludedName ? strArr[0] : algorithm) + ")?(/.*)?$");
+            excludedNames[i] = hasExcludedName ? strArr[1].toLowerCase() : null;
+        }
+    }
+
+    boolean matches(String str) {
+        String upperStr = str.toUpperCase();
+        String lowerStr = str.toLowerCase();
+
+        for (int i = 0; i < algorithms.length; i++) {
+            String algorithm = algorithms[i];
+            String excludedName = excludedNames[i];
+            Matcher matcher = patterns[i].matcher(upperStr);
+            if ((matcher.matches() && (excludedName == null || !lowerStr.contains(excludedName))) || (upperStr.contains("PBE") && upperStr.contains(algorithm))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
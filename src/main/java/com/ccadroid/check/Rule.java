@@ -0,0 +1,50 @@
+package com.ccadroid.check;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.*;
+
+import static com.ccadroid.check.RuleConstant.*;
+
+public class Rule {
+    private final int number;
+    private final Map<String, List<Integer>> slicingSignatures;
+    private final RuleMatcher insecureMatcher;
+    private final RuleMatcher secureMatcher;
+
+    public Rule(JSONObject root) {
+        JSONObject signatures = root.getJSONObject(SLICING_SIGNATURES);
+        HashMap<String, List<Integer>> map = new HashMap<>();
+        for (String s : signatures.keySet()) {
+            ArrayList<Integer> paramNumbers = new ArrayList<>();
+            JSONArray jsonArr = signatures.getJSONArray(s);
+            for (int i = 0; i < jsonArr.length(); i++) {
+                paramNumbers.add(jsonArr.getInt(i));
+            }
+
+            map.put(s, Collections.unmodifiableList(paramNumbers));
+        }
+
+        slicingSignatures = Collections.unmodifiableMap(map);
+        insecureMatcher = new RuleMatcher(root.getJSONObject(INSECURE_RULE));
+        secureMatcher = root.has(SECURE_RULE) ? new RuleMatcher(root.getJSONObject(SECURE_RULE)) : null;
+        number = Integer.parseInt(insecureMatcher.getRuleNumber());
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public Map<String, List<Integer>> getSlicingSignatures() {
+        return slicingSignatures;
+    }
+
+    RuleMatcher getInsecureMatcher() {
+        return insecureMatcher;
+    }
+
+    RuleMatcher getSecureMatcher() {
+        return secureMatcher;
+    }
+}
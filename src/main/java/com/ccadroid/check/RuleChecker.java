@@ -1,17 +1,22 @@
 package com.ccadroid.check;
 
+import com.ccadroid.AnalysisContext;
 import com.ccadroid.inspect.ApkParser;
 import com.ccadroid.inspect.SlicingCriterion;
+import com.ccadroid.report.Finding;
+import com.ccadroid.report.ResultSink;
 import com.ccadroid.slice.ProgramSlicer;
+import com.ccadroid.slice.Slice;
 import com.ccadroid.slice.SliceDatabase;
+import com.ccadroid.slice.SliceLine;
+import com.ccadroid.slice.SliceQuery;
 import com.ccadroid.util.Argparse4j;
+import com.ccadroid.util.NumericPredicate;
 import jakarta.xml.bind.DatatypeConverter;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 
-import javax.crypto.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -30,106 +35,61 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.ccadroid.check.RuleConstant.*;
-import static com.ccadroid.slice.SliceConstant.*;
 import static com.ccadroid.util.Common.*;
-import static com.ccadroid.util.MathParser.calculateExpression;
 import static com.ccadroid.util.soot.SootUnit.*;
 
 public class RuleChecker {
-    private static final ApkParser apkParser;
-    private static final ProgramSlicer programSlicer;
-    private static final SliceDatabase sliceDatabase;
     private static final Pattern BASE64_PATTERN = Pattern.compile("^([A-Za-z\\d+/]{4})*([A-Za-z\\d+/]{3}=|[A-Za-z\\d+/]{2}==)?$");
     private static final Pattern HEX_PATTERN = Pattern.compile("^[\\da-fA-F]+$");
-
-    static {
-        apkParser = ApkParser.getInstance();
-        programSlicer = ProgramSlicer.getInstance();
-        sliceDatabase = SliceDatabase.getInstance();
-    }
-
-    private final ArrayList<JSONObject> rules;
-    private final HashMap<String, HashMap<JSONObject, JSONObject>> foundLineMap;
-    private final HashMap<String, ArrayList<JSONObject>> sliceMap;
-    private Object secureAlgorithms;
-    private Object randomSignatures;
-
-    public RuleChecker() {
+    private static final Set<String> CIPHER_SIGNATURES = Set.of("<javax.crypto.Cipher: byte[] doFinal(byte[])>", "<javax.crypto.Cipher: byte[] doFinal(byte[],int,int)>", "<javax.crypto.Cipher: int doFinal(byte[],int)>", "<javax.crypto.Cipher: int doFinal(byte[],int,int,byte[])>", "<javax.crypto.Cipher: int doFinal(byte[],int,int,byte[],int)>");
+    private static final Set<String> MAC_SIGNATURES = Set.of("<javax.crypto.Mac: void update(byte[])>", "<javax.crypto.Mac: void update(byte[],int,int)>", "<javax.crypto.Mac: void update(java.nio.ByteBuffer)>", "<javax.crypto.Mac: byte[] doFinal(byte[])>", "<javax.crypto.Mac: void doFinal(byte[],int)");
+
+    private final AnalysisContext context;
+    private final ArrayList<Rule> rules;
+    private final HashMap<String, ArrayList<Rule>> ruleMap;
+    private final AlgorithmIndex algorithmIndex;
+    private final HashMap<String, HashMap<SliceLine, SliceLine>> foundLineMap;
+    private final HashMap<String, ArrayList<Slice>> sliceMap;
+    private final IdentityHashMap<List<SliceLine>, SliceTokens> tokenMap;
+    private int foundCount;
+
+    public RuleChecker(AnalysisContext context) {
+        this.context = context;
         rules = new ArrayList<>();
+        ruleMap = new HashMap<>();
         foundLineMap = new HashMap<>();
         sliceMap = new HashMap<>();
+        tokenMap = new IdentityHashMap<>();
 
         loadRuleFiles();
+        algorithmIndex = new AlgorithmIndex(getAlgorithmMatchers());
     }
 
-    public static RuleChecker getInstance() {
-        return SingletonHolder.instance;
+    public ArrayList<Rule> getRules() {
+        return rules;
     }
 
-    public ArrayList<JSONObject> getRules() {
-        return rules;
+    public int getFoundCount() {
+        return foundCount;
     }
 
     public void checkRules(SlicingCriterion slicingCriterion) {
-        ArrayList<JSONObject> targetRules = findTargetRules(slicingCriterion);
+        ArrayList<Rule> targetRules = findTargetRules(slicingCriterion);
+        tokenMap.clear(); // slices are tokenized once for all target rules
 
-        for (JSONObject root : targetRules) {
-            setSecureValues(root);
+        for (Rule rule : targetRules) {
+            RuleMatcher secureMatcher = rule.getSecureMatcher();
 
-            ArrayList<JSONObject> slices = findCombinedSlices(slicingCriterion);
-            for (JSONObject s : slices) {
-                checkRules(slicingCriterion, root, INSECURE_RULE, s);
-                checkRules(slicingCriterion, root, SECURE_RULE, s);
+            ArrayList<Slice> slices = findCombinedSlices(slicingCriterion);
+            for (Slice s : slices) {
+                checkRules(slicingCriterion, rule.getInsecureMatcher(), INSECURE_RULE, secureMatcher, s);
+                checkRules(slicingCriterion, secureMatcher, SECURE_RULE, secureMatcher, s);
             }
         }
     }
 
     public boolean isAlgorithm(String str) {
-        String s = str.toLowerCase();
-
-        try {
-            Cipher.getInstance(s);
-            return true;
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException ignored) {
-
-        }
-
-        try {
-            SecretKeyFactory.getInstance(s);
-            return true;
-        } catch (NoSuchAlgorithmException ignored) {
-
-        }
-
-        try {
-            SecureRandom.getInstance(s);
-            return true;
-        } catch (NoSuchAlgorithmException ignored) {
-
-        }
-
-        try {
-            KeyAgreement.getInstance(s);
-            return true;
-        } catch (NoSuchAlgorithmException ignored) {
-
-        }
-
-        try {
-            MessageDigest.getInstance(s);
-            return true;
-        } catch (NoSuchAlgorithmException ignored) {
-
-        }
-
-        try {
-            Mac.getInstance(s);
-            return true;
-        } catch (NoSuchAlgorithmException ignored) {
-
-        }
-
-        return false;
+        return AlgorithmLexicon.isAlgorithm(str);
     }
 
     private void loadRuleFiles() {
@@ -149,204 +109,160 @@ public class RuleChecker {
                 InputStream inputStream = Files.newInputStream(Paths.get(path));
                 JSONTokener tokenizer = new JSONTokener(inputStream);
                 JSONObject root = new JSONObject(tokenizer);
-                rules.add(root);
+                rules.add(new Rule(root)); // compiled once, shared by every slice
 
                 inputStream.close();
-            } catch (IOException | JSONException ignored) {
+            } catch (IOException | JSONException | IllegalArgumentException ignored) { // including PatternSyntaxException
                 printf(getClass(), String.format("Cannot import rule file: %s", f.getName()));
             }
         }
 
-        rules.sort((o1, o2) -> {
-            JSONObject rule1 = o1.getJSONObject(INSECURE_RULE);
-            JSONObject rule2 = o2.getJSONObject(INSECURE_RULE);
-            String ruleNum1 = rule1.getString(RULE_ID).split("-")[0];
-            String ruleNum2 = rule2.getString(RULE_ID).split("-")[0];
+        rules.sort(Comparator.comparingInt(Rule::getNumber));
+
+        for (Rule rule : rules) {
+            Map<String, List<Integer>> signatures = rule.getSlicingSignatures();
+            signatures.keySet().forEach(s -> ruleMap.computeIfAbsent(s, k -> new ArrayList<>()).add(rule));
+        }
+    }
+
+    private ArrayList<AlgorithmMatcher> getAlgorithmMatchers() {
+        ArrayList<AlgorithmMatcher> matchers = new ArrayList<>();
+
+        for (Rule rule : rules) {
+            for (RuleMatcher m : Arrays.asList(rule.getInsecureMatcher(), rule.getSecureMatcher())) {
+                AlgorithmMatcher algorithmMatcher = (m == null) ? null : m.getAlgorithmMatcher();
+                if (algorithmMatcher != null) {
+                    matchers.add(algorithmMatcher);
+                }
+            }
+        }
+
+        return matchers;
+    }
 
-            return Integer.compare(Integer.parseInt(ruleNum1), Integer.parseInt(ruleNum2));
-        });
+    private SliceTokens getSliceTokens(List<SliceLine> contents) {
+        return tokenMap.computeIfAbsent(contents, k -> new SliceTokens(k, algorithmIndex));
     }
 
-    private ArrayList<JSONObject> findTargetRules(SlicingCriterion slicingCriterion) {
+    private ArrayList<Rule> findTargetRules(SlicingCriterion slicingCriterion) {
         String targetStatement = slicingCriterion.getTargetStatement();
         ArrayList<Integer> targetParamNumbers = slicingCriterion.getTargetParamNumbers();
-        ArrayList<JSONObject> targetRules = new ArrayList<>();
+        ArrayList<Rule> targetRules = new ArrayList<>();
 
-        for (JSONObject root : rules) {
-            JSONObject signatures = root.getJSONObject(SLICING_SIGNATURES);
-            Map<String, Object> map = signatures.toMap();
-            Object o = map.get(targetStatement);
-            if (o == null) {
-                continue;
-            }
+        ArrayList<Rule> candidates = ruleMap.get(targetStatement);
+        if (candidates == null) {
+            return targetRules;
+        }
 
-            if (targetParamNumbers.toString().equals(o.toString())) {
-                targetRules.add(root);
+        for (Rule rule : candidates) {
+            Map<String, List<Integer>> signatures = rule.getSlicingSignatures();
+            List<Integer> paramNumbers = signatures.get(targetStatement);
+            if (targetParamNumbers.equals(paramNumbers)) {
+                targetRules.add(rule);
             }
         }
 
         return targetRules;
     }
 
-    private void setSecureValues(JSONObject root) {
-        if (root != null && root.has(SECURE_RULE)) {
-            JSONObject rule = root.getJSONObject(SECURE_RULE);
-            secureAlgorithms = getJsonValue(rule, TARGET_ALGORITHMS);
-            randomSignatures = getJsonValue(rule, TARGET_SIGNATURES);
-        }
-    }
+    private ArrayList<Slice> findCombinedSlices(SlicingCriterion slicingCriterion) {
+        SliceDatabase sliceDatabase = context.getSliceDatabase();
 
-    private ArrayList<JSONObject> findCombinedSlices(SlicingCriterion slicingCriterion) {
         String id = slicingCriterion.getId();
-        List<String> query = List.of(String.format("%s==%s", NODE_ID, id), String.format("%s==null", CALLER_NAME), String.format("%s!=null", CONTENTS));
+        SliceQuery query = new SliceQuery().nodeId(id).hasCallerName(false).hasContents(true);
 
         return sliceDatabase.selectAll(query);
     }
 
-    private void checkRules(SlicingCriterion slicingCriterion, JSONObject root, String ruleName, JSONObject combinedSlice) {
-        if (root == null) {
+    private void checkRules(SlicingCriterion slicingCriterion, RuleMatcher matcher, String ruleName, RuleMatcher secureMatcher, Slice combinedSlice) {
+        if (matcher == null) {
             return;
         }
 
         String callerName = slicingCriterion.getCallerName();
-        JSONObject rule = root.getJSONObject(ruleName);
-        String ruleId = rule.getString(RULE_ID);
-        Object conditions = rule.get(CONDITIONS);
-        JSONArray contents = combinedSlice.getJSONArray(CONTENTS);
-        String ruleNumber = ruleId.split("-")[0];
+        String ruleId = matcher.getRuleId();
+        List<SliceLine> contents = combinedSlice.getContents();
+        String ruleNumber = matcher.getRuleNumber();
         String key = String.format("%s-%s", callerName, ruleNumber);
 
-        HashMap<JSONObject, JSONObject> map = foundLineMap.getOrDefault(key, new HashMap<>());
+        HashMap<SliceLine, SliceLine> map = foundLineMap.getOrDefault(key, new HashMap<>());
         if (hasIntersection(contents, map)) {
             return;
         }
 
-        LinkedHashSet<JSONObject> lines = findTargetLines(callerName, ruleName, conditions, contents, map);
+        LinkedHashSet<SliceLine> lines = findTargetLines(callerName, ruleName, matcher, secureMatcher, contents, map);
         if (lines.isEmpty()) {
             return;
         }
 
         foundLineMap.put(key, map);
 
-        String description = rule.getString(DESCRIPTION);
-        String targetStatement = combinedSlice.getString(TARGET_STATEMENT);
+        String description = matcher.getDescription();
+        String targetStatement = combinedSlice.getTargetStatement();
+        foundCount++;
 
         printResult(ruleId, description, callerName, targetStatement, lines);
     }
 
-    private Object getJsonValue(Object object, String key) {
-        if (object instanceof JSONObject) {
-            JSONObject obj = (JSONObject) object;
-            Set<String> keys = obj.keySet();
-
-            if (keys.contains(key)) {
-                return obj.get(key);
-            }
-
-            for (String k : keys) {
-                Object value = getJsonValue(obj.get(k), key);
-                if (value == null) {
-                    continue;
-                }
-
-                return value;
-            }
-        } else if (object instanceof JSONArray) {
-            JSONArray arr = (JSONArray) object;
-
-            for (Object o : arr) {
-                Object value = getJsonValue(o, key);
-                if (value == null) {
-                    continue;
-                }
-
-                return value;
-            }
-        }
-
-        return null;
-    }
-
-    private LinkedHashSet<JSONObject> findTargetLines(String callerName, String ruleName, Object conditions, JSONArray combinedContents, HashMap<JSONObject, JSONObject> foundLineMap) {
-        LinkedHashSet<JSONObject> foundLines = new LinkedHashSet<>();
+    private LinkedHashSet<SliceLine> findTargetLines(String callerName, String ruleName, RuleMatcher matcher, RuleMatcher secureMatcher, List<SliceLine> combinedContents, HashMap<SliceLine, SliceLine> foundLineMap) {
+        LinkedHashSet<SliceLine> foundLines = new LinkedHashSet<>();
         HashSet<String> foundKeys = new HashSet<>();
+        AlgorithmMatcher secureAlgorithms = (secureMatcher == null) ? null : secureMatcher.getAlgorithmMatcher();
+        Set<String> randomSignatures = (secureMatcher == null) ? null : secureMatcher.getSignatures();
 
-        Object targetSchemeTypes = getJsonValue(conditions, TARGET_SCHEME_TYPES);
-        ArrayList<JSONObject> lines1 = checkSchemeTypes(callerName, combinedContents, targetSchemeTypes, foundLineMap);
+        Set<String> targetSchemeTypes = matcher.getSchemeTypes();
+        ArrayList<SliceLine> lines1 = checkSchemeTypes(callerName, combinedContents, targetSchemeTypes, foundLineMap);
         if (lines1 != null) {
             foundLines.addAll(lines1);
             foundKeys.add(TARGET_SCHEME_TYPES);
         }
 
-        Object targetAlgorithms = getJsonValue(conditions, TARGET_ALGORITHMS);
-        JSONObject line2 = checkAlgorithms(ruleName, combinedContents, targetAlgorithms, foundLineMap);
+        AlgorithmMatcher targetAlgorithms = matcher.getAlgorithmMatcher();
+        SliceLine line2 = checkAlgorithms(ruleName, combinedContents, targetAlgorithms, secureAlgorithms, foundLineMap);
         if (line2 != null) {
             foundLines.add(line2);
             foundKeys.add(TARGET_ALGORITHMS);
         }
 
-        Object targetSignatures = getJsonValue(conditions, TARGET_SIGNATURES);
-        JSONObject line3 = checkSignatures(ruleName, combinedContents, targetSignatures, foundLineMap);
+        Set<String> targetSignatures = matcher.getSignatures();
+        SliceLine line3 = checkSignatures(ruleName, combinedContents, targetSignatures, randomSignatures, foundLineMap);
         if (line3 != null) {
             foundLines.add(line3);
             foundKeys.add(TARGET_SIGNATURES);
         }
 
-        Object targetConstRegex = getJsonValue(conditions, TARGET_CONSTANT_REGEX);
-        Object targetConstLen = getJsonValue(conditions, TARGET_CONSTANT_LENGTH);
-        Object targetConstSize = getJsonValue(conditions, TARGET_CONSTANT_SIZE);
-        JSONObject line4 = checkConstant(ruleName, combinedContents, targetConstRegex, targetConstLen, targetConstSize, foundLineMap);
+        SliceLine line4 = checkConstant(ruleName, combinedContents, matcher, randomSignatures, foundLineMap);
         if (line4 != null) {
             foundLines.add(line4);
             foundKeys.add(TARGET_CONSTANT_REGEX);
         }
 
-        JSONObject line5 = checkArray(ruleName, combinedContents, targetConstRegex, targetConstLen, targetConstSize, foundLineMap);
+        SliceLine line5 = checkArray(ruleName, combinedContents, matcher, randomSignatures, foundLineMap);
         if (line5 != null) {
             foundLines.add(line5);
             foundKeys.add(TARGET_CONSTANT_REGEX);
         }
 
-        if (conditions instanceof JSONObject) {
-            JSONObject obj = (JSONObject) conditions;
-            HashSet<String> targetKeys = getTargetKeys(obj);
-            if (!foundKeys.containsAll(targetKeys) || !targetKeys.containsAll(foundKeys)) {
-                foundLines.clear();
-            }
-        } else {
-            boolean flag = false;
-
-            JSONArray arr = (JSONArray) conditions;
-            for (int i = 0; i < arr.length(); i++) {
-                JSONObject obj = arr.getJSONObject(i);
-                HashSet<String> targetKeys = getTargetKeys(obj);
-                if (foundKeys.containsAll(targetKeys) && (foundKeys.containsAll(obj.keySet()) || obj.keySet().containsAll(foundKeys))) {
-                    flag = true;
-                    break;
-                }
-            }
-
-            if (!flag) {
-                foundLines.clear();
-            }
+        if (!matcher.matches(foundKeys)) {
+            foundLines.clear();
         }
 
         return foundLines;
     }
 
-    private boolean hasIntersection(JSONArray contents, HashMap<JSONObject, JSONObject> foundLineMap) {
+    private boolean hasIntersection(List<SliceLine> contents, HashMap<SliceLine, SliceLine> foundLineMap) {
         HashMap<String, String> map = new HashMap<>();
 
-        for (int i = 0; i < contents.length(); i++) {
-            JSONObject line = contents.getJSONObject(i);
-            map.put(line.getString(UNIT_STRING), line.getString(CALLER_NAME));
+        for (int i = 0; i < contents.size(); i++) {
+            SliceLine line = contents.get(i);
+            map.put(line.getUnitString(), line.getCallerName());
         }
 
-        Set<Map.Entry<JSONObject, JSONObject>> entries = foundLineMap.entrySet();
-        for (Map.Entry<JSONObject, JSONObject> e : entries) {
-            JSONObject foundLine = e.getValue();
-            String unitString = foundLine.getString(UNIT_STRING);
-            if (map.containsKey(unitString) && map.get(unitString).equals(foundLine.getString(CALLER_NAME))) {
+        Set<Map.Entry<SliceLine, SliceLine>> entries = foundLineMap.entrySet();
+        for (Map.Entry<SliceLine, SliceLine> e : entries) {
+            SliceLine foundLine = e.getValue();
+            String unitString = foundLine.getUnitString();
+            if (map.containsKey(unitString) && map.get(unitString).equals(foundLine.getCallerName())) {
                 return true;
             }
         }
@@ -354,43 +270,21 @@ public class RuleChecker {
         return false;
     }
 
-    private void printResult(String ruleId, String description, String callerName, String targetStatement, LinkedHashSet<JSONObject> foundLines) {
-        ArrayList<String> strings = new ArrayList<>();
-        strings.add("=======================================\n");
-        strings.add(String.format("[*] Rule ID: %s\n", ruleId));
-        strings.add(String.format("[*] Description: %s\n", description));
-        strings.add(String.format("[*] Caller name: %s\n", callerName));
-        strings.add(String.format("[*] Target statement: %s\n", targetStatement));
-        strings.add("[*] Target lines:\n");
-        foundLines.forEach(l -> {
-            String signature = l.getString(CALLER_NAME);
-            strings.add(String.format("%s, callerName=%s", l.getString(UNIT_STRING), signature));
-            strings.add("\n");
-        });
-        strings.add("=======================================\n");
-        strings.add("\n");
-
-        String outputPath = Argparse4j.getString(Argparse4j.OUTPUT_PATH);
-        if (outputPath == null) {
-            for (String s : strings) {
-                System.out.printf(s);
-            }
-        } else {
-            printToFile(outputPath, strings);
-        }
+    private void printResult(String ruleId, String description, String callerName, String targetStatement, LinkedHashSet<SliceLine> foundLines) {
+        ResultSink resultSink = context.getResultSink();
+        Finding finding = new Finding(ruleId, description, callerName, targetStatement, new ArrayList<>(foundLines));
+        resultSink.write(finding);
     }
 
-    private ArrayList<JSONObject> checkSchemeTypes(String callerName, JSONArray combinedContents, Object targetSchemeTypes, HashMap<JSONObject, JSONObject> foundLineMap) {
-        JSONArray cipherSignatures = new JSONArray(Arrays.asList("<javax.crypto.Cipher: byte[] doFinal(byte[])>", "<javax.crypto.Cipher: byte[] doFinal(byte[],int,int)>", "<javax.crypto.Cipher: int doFinal(byte[],int)>", "<javax.crypto.Cipher: int doFinal(byte[],int,int,byte[])>", "<javax.crypto.Cipher: int doFinal(byte[],int,int,byte[],int)>"));
-        JSONArray macSignatures = new JSONArray(Arrays.asList("<javax.crypto.Mac: void update(byte[])>", "<javax.crypto.Mac: void update(byte[],int,int)>", "<javax.crypto.Mac: void update(java.nio.ByteBuffer)>", "<javax.crypto.Mac: byte[] doFinal(byte[])>", "<javax.crypto.Mac: void doFinal(byte[],int)"));
-        HashMap<JSONObject, JSONObject> foundLineMap1 = checkSignatures(combinedContents, cipherSignatures);
-        HashMap<JSONObject, JSONObject> foundLineMap2 = checkSignatures(combinedContents, macSignatures);
+    private ArrayList<SliceLine> checkSchemeTypes(String callerName, List<SliceLine> combinedContents, Set<String> targetSchemeTypes, HashMap<SliceLine, SliceLine> foundLineMap) {
+        HashMap<SliceLine, SliceLine> foundLineMap1 = checkSignatures(combinedContents, CIPHER_SIGNATURES);
+        HashMap<SliceLine, SliceLine> foundLineMap2 = checkSignatures(combinedContents, MAC_SIGNATURES);
         if (!foundLineMap1.isEmpty() && !foundLineMap2.isEmpty()) {
             foundLineMap.putAll(foundLineMap1);
             foundLineMap.putAll(foundLineMap2);
         }
 
-        ArrayList<JSONObject> foundLines = new ArrayList<>();
+        ArrayList<SliceLine> foundLines = new ArrayList<>();
         foundLines.addAll(foundLineMap1.keySet());
         foundLines.addAll(foundLineMap2.keySet());
 
@@ -399,88 +293,88 @@ public class RuleChecker {
         }
 
         ArrayList<String> callerParameters = findCallerParameters(callerName, combinedContents);
-        List<Object> schemeTypes = arrayToList(targetSchemeTypes);
         String schemeType = checkSchemeTypes(foundLineMap1, foundLineMap2, callerParameters);
 
-        return schemeTypes.contains(schemeType) ? foundLines : null;
+        return (schemeType != null && targetSchemeTypes.contains(schemeType)) ? foundLines : null;
     }
 
-    private JSONObject checkAlgorithms(String ruleName, JSONArray combinedContents, Object targetAlgorithms, HashMap<JSONObject, JSONObject> foundLineMap) {
+    private SliceLine checkAlgorithms(String ruleName, List<SliceLine> combinedContents, AlgorithmMatcher targetAlgorithms, AlgorithmMatcher secureAlgorithms, HashMap<SliceLine, SliceLine> foundLineMap) {
         if (targetAlgorithms == null) {
             return null;
         }
 
-        HashMap<JSONObject, JSONObject> foundLineMap1 = checkAlgorithms(combinedContents, targetAlgorithms);
-        HashMap<JSONObject, JSONObject> foundLineMap2 = checkAlgorithms(combinedContents, secureAlgorithms);
+        HashMap<SliceLine, SliceLine> foundLineMap1 = checkAlgorithms(combinedContents, targetAlgorithms);
+        HashMap<SliceLine, SliceLine> foundLineMap2 = checkAlgorithms(combinedContents, secureAlgorithms);
         foundLineMap.putAll(foundLineMap1);
         foundLineMap.putAll(foundLineMap2);
 
-        JSONObject lastLine = findLastLine(foundLineMap1, foundLineMap2);
+        SliceLine lastLine = findLastLine(foundLineMap1, foundLineMap2);
 
         return getResultLine(ruleName, foundLineMap1, foundLineMap2, lastLine);
     }
 
-    private JSONObject checkSignatures(String ruleName, JSONArray combinedContents, Object targetSignatures, HashMap<JSONObject, JSONObject> foundLineMap) {
+    private SliceLine checkSignatures(String ruleName, List<SliceLine> combinedContents, Set<String> targetSignatures, Set<String> randomSignatures, HashMap<SliceLine, SliceLine> foundLineMap) {
         if (targetSignatures == null) {
             return null;
         }
 
-        HashMap<JSONObject, JSONObject> foundLineMap1 = checkSignatures(combinedContents, targetSignatures);
-        HashMap<JSONObject, JSONObject> foundLineMap2 = checkSignatures(combinedContents, randomSignatures);
+        HashMap<SliceLine, SliceLine> foundLineMap1 = checkSignatures(combinedContents, targetSignatures);
+        HashMap<SliceLine, SliceLine> foundLineMap2 = checkSignatures(combinedContents, randomSignatures);
         foundLineMap.putAll(foundLineMap1);
         foundLineMap.putAll(foundLineMap2);
 
-        JSONObject lastLine = findLastLine(foundLineMap1, foundLineMap2);
+        SliceLine lastLine = findLastLine(foundLineMap1, foundLineMap2);
 
         return getResultLine(ruleName, foundLineMap1, foundLineMap2, lastLine);
     }
 
-    private JSONObject checkConstant(String ruleName, JSONArray combinedContents, Object targetConstRegex, Object targetConstLen, Object targetConstSize, HashMap<JSONObject, JSONObject> foundLineMap) {
-        if (targetConstRegex == null) {
+    private SliceLine checkConstant(String ruleName, List<SliceLine> combinedContents, RuleMatcher matcher, Set<String> randomSignatures, HashMap<SliceLine, SliceLine> foundLineMap) {
+        if (matcher.getConstantRegex() == null) {
             return null;
         }
 
-        HashMap<JSONObject, JSONObject> foundLineMap1 = checkConstant(combinedContents, targetConstRegex, targetConstLen, targetConstSize);
-        HashMap<JSONObject, JSONObject> foundLineMap2 = checkSignatures(combinedContents, randomSignatures);
+        HashMap<SliceLine, SliceLine> foundLineMap1 = checkConstant(combinedContents, matcher);
+        HashMap<SliceLine, SliceLine> foundLineMap2 = checkSignatures(combinedContents, randomSignatures);
         foundLineMap.putAll(foundLineMap1);
         foundLineMap.putAll(foundLineMap2);
 
-        JSONObject lastLine = findLastLine(foundLineMap1, foundLineMap2);
+        SliceLine lastLine = findLastLine(foundLineMap1, foundLineMap2);
 
         return getResultLine(ruleName, foundLineMap1, foundLineMap2, lastLine);
     }
 
-    private JSONObject checkArray(String ruleName, JSONArray combinedContents, Object targetConstRegex, Object targetConstLen, Object targetConstSize, HashMap<JSONObject, JSONObject> foundLineMap) {
+    private SliceLine checkArray(String ruleName, List<SliceLine> combinedContents, RuleMatcher matcher, Set<String> randomSignatures, HashMap<SliceLine, SliceLine> foundLineMap) {
+        String targetConstRegex = matcher.getConstantRegex();
         if (targetConstRegex == null || !targetConstRegex.equals(".*")) {
             return null;
         }
 
-        HashMap<JSONObject, JSONObject> foundLineMap1 = checkArray(combinedContents, targetConstLen, targetConstSize);
-        HashMap<JSONObject, JSONObject> foundLineMap2 = checkSignatures(combinedContents, randomSignatures);
+        HashMap<SliceLine, SliceLine> foundLineMap1 = checkArray(combinedContents, matcher.getConstantLength(), matcher.getConstantSize());
+        HashMap<SliceLine, SliceLine> foundLineMap2 = checkSignatures(combinedContents, randomSignatures);
         foundLineMap.putAll(foundLineMap1);
         foundLineMap.putAll(foundLineMap2);
 
-        JSONObject lastLine = findLastLine(foundLineMap1, foundLineMap2);
+        SliceLine lastLine = findLastLine(foundLineMap1, foundLineMap2);
 
         return getResultLine(ruleName, foundLineMap1, foundLineMap2, lastLine);
     }
 
-    private ArrayList<String> findCallerParameters(String targetCallerName, JSONArray combinedContents) {
+    private ArrayList<String> findCallerParameters(String targetCallerName, List<SliceLine> combinedContents) {
         ArrayList<String> parameters = new ArrayList<>();
 
-        for (int i = combinedContents.length() - 1; i > 0; i--) {
-            JSONObject line = combinedContents.getJSONObject(i);
-            String callerName = line.getString(CALLER_NAME);
+        for (int i = combinedContents.size() - 1; i > 0; i--) {
+            SliceLine line = combinedContents.get(i);
+            String callerName = line.getCallerName();
             if (!targetCallerName.equals(callerName)) {
                 continue;
             }
 
-            int unitType = line.getInt(UNIT_TYPE);
+            int unitType = line.getUnitType();
             if (unitType != PARAMETER) {
                 continue;
             }
 
-            String unitString = line.getString(UNIT_STRING);
+            String unitString = line.getUnitString();
             String leftOpStr = getLeftOpStr(unitString, unitType);
             parameters.add(leftOpStr);
         }
@@ -488,20 +382,20 @@ public class RuleChecker {
         return parameters;
     }
 
-    private String checkSchemeTypes(HashMap<JSONObject, JSONObject> foundLineMap1, HashMap<JSONObject, JSONObject> foundLineMap2, ArrayList<String> callerParameters) {
+    private String checkSchemeTypes(HashMap<SliceLine, SliceLine> foundLineMap1, HashMap<SliceLine, SliceLine> foundLineMap2, ArrayList<String> callerParameters) {
         if (foundLineMap1.isEmpty() || foundLineMap2.isEmpty()) {
             return null;
         }
 
-        JSONObject line1 = getJSONObject(foundLineMap1.keySet());
-        String unitString1 = line1.getString(UNIT_STRING);
+        SliceLine line1 = getSliceLine(foundLineMap1.keySet());
+        String unitString1 = line1.getUnitString();
         String signature1 = getSignature(unitString1);
         String className1 = getClassName(signature1);
         ArrayList<String> parameters1 = getParameters(unitString1);
-        int unitType1 = line1.getInt(UNIT_TYPE);
+        int unitType1 = line1.getUnitType();
 
-        JSONObject line2 = getJSONObject(foundLineMap2.keySet());
-        String unitString2 = line2.getString(UNIT_STRING);
+        SliceLine line2 = getSliceLine(foundLineMap2.keySet());
+        String unitString2 = line2.getUnitString();
         ArrayList<String> parameters2 = getParameters(unitString2);
 
         String leftOpStr = getLeftOpStr(unitString1, unitType1);
@@ -515,53 +409,52 @@ public class RuleChecker {
         return (callerParameters.isEmpty() && parameters1.isEmpty()) ? null : ENCRYPT_AND_MAC;
     }
 
-    private HashMap<JSONObject, JSONObject> checkAlgorithms(JSONArray combinedContents, Object targetAlgorithms) {
-        HashMap<JSONObject, JSONObject> foundLineMap = new HashMap<>();
-        if (targetAlgorithms == null) {
+    private HashMap<SliceLine, SliceLine> checkAlgorithms(List<SliceLine> combinedContents, AlgorithmMatcher algorithms) {
+        SliceDatabase sliceDatabase = context.getSliceDatabase();
+
+        HashMap<SliceLine, SliceLine> foundLineMap = new HashMap<>();
+        if (algorithms == null) {
             return foundLineMap;
         }
 
-        JSONArray algorithms = (targetAlgorithms instanceof JSONObject) ? ((JSONObject) targetAlgorithms).getJSONArray(TARGET_ALGORITHMS) : (JSONArray) targetAlgorithms;
+        SliceTokens tokens = getSliceTokens(combinedContents);
+        for (int i = combinedContents.size() - 1; i > -1; i--) {
+            SliceLine line = combinedContents.get(i);
+            int unitType = line.getUnitType();
 
-        for (int i = combinedContents.length() - 1; i > -1; i--) {
-            JSONObject line = combinedContents.getJSONObject(i);
-            String unitString = line.getString(UNIT_STRING);
-            int unitType = line.getInt(UNIT_TYPE);
-
-            LinkedHashSet<JSONObject> slices = new LinkedHashSet<>();
+            LinkedHashSet<Slice> slices = new LinkedHashSet<>();
 
             if ((unitType & INVOKE) == INVOKE) {
-                String signature = getSignature(unitString);
+                String signature = tokens.getSignature(i);
 
-                List<String> query = List.of(String.format("%s==%s", CALLER_NAME, signature), String.format("%s==%s", TARGET_STATEMENT, "return"));
-                for (JSONObject s : sliceDatabase.selectAll(query)) {
-                    String nodeId = s.getString(NODE_ID);
+                SliceQuery query = new SliceQuery().callerName(signature).targetStatement("return");
+                for (Slice s : sliceDatabase.selectAll(query)) {
+                    String nodeId = s.getNodeId();
                     slices.addAll(getSlices(nodeId));
                 }
             } else if (unitType == ASSIGN_VARIABLE_SIGNATURE) {
-                String signature = getSignature(unitString);
-                List<String> query = List.of(String.format("%s==%s", TARGET_STATEMENT, signature));
-                for (JSONObject s : sliceDatabase.selectAll(query)) {
-                    String nodeId = s.getString(NODE_ID);
+                String signature = tokens.getSignature(i);
+                SliceQuery query = new SliceQuery().targetStatement(signature);
+                for (Slice s : sliceDatabase.selectAll(query)) {
+                    String nodeId = s.getNodeId();
                     slices.addAll(getSlices(nodeId));
                 }
             }
 
-            for (JSONObject s : slices) {
-                JSONArray contents = s.getJSONArray(CONTENTS);
-                if (isJSONArrayARetainsAll(combinedContents, contents)) {
+            for (Slice s : slices) {
+                List<SliceLine> contents = s.getContents();
+                if (isContentsARetainsAll(combinedContents, contents)) {
                     continue;
                 }
 
-                JSONObject foundLine = checkAlgorithms(contents, algorithms);
+                SliceLine foundLine = findAlgorithmLine(contents, algorithms);
                 if (foundLine != null) {
                     foundLineMap.put(foundLine, line);
                     return foundLineMap;
                 }
             }
 
-            ArrayList<String> strings = getStrings(unitString, unitType);
-            if (hasTargetAlgorithm(strings, algorithms)) {
+            if (tokens.hasAlgorithm(i, algorithms)) {
                 foundLineMap.put(line, line);
                 return foundLineMap;
             }
@@ -570,49 +463,51 @@ public class RuleChecker {
         return foundLineMap;
     }
 
-    private HashMap<JSONObject, JSONObject> checkSignatures(JSONArray combinedContents, Object targetSignatures) {
-        HashMap<JSONObject, JSONObject> foundLineMap = new HashMap<>();
-        if (targetSignatures == null) {
+    private HashMap<SliceLine, SliceLine> checkSignatures(List<SliceLine> combinedContents, Set<String> signatures) {
+        ProgramSlicer programSlicer = context.getProgramSlicer();
+        SliceDatabase sliceDatabase = context.getSliceDatabase();
+
+        HashMap<SliceLine, SliceLine> foundLineMap = new HashMap<>();
+        if (signatures == null) {
             return foundLineMap;
         }
 
-        List<Object> signatures = arrayToList(targetSignatures);
-
-        for (int i = combinedContents.length() - 1; i > -1; i--) {
-            JSONObject line = combinedContents.getJSONObject(i);
-            String unitString = line.getString(UNIT_STRING);
-            int unitType = line.getInt(UNIT_TYPE);
-            LinkedHashSet<JSONObject> slices = new LinkedHashSet<>();
+        SliceTokens tokens = getSliceTokens(combinedContents);
+        for (int i = combinedContents.size() - 1; i > -1; i--) {
+            SliceLine line = combinedContents.get(i);
+            String unitString = line.getUnitString();
+            int unitType = line.getUnitType();
+            LinkedHashSet<Slice> slices = new LinkedHashSet<>();
 
             if ((unitType & INVOKE) == INVOKE) {
-                String signature = getSignature(unitString);
+                String signature = tokens.getSignature(i);
                 ArrayList<Integer> targetParamNumbers = programSlicer.getRetainParamNumbers(unitString);
                 if (signatures.contains(signature) && targetParamNumbers != null) {
                     foundLineMap.put(line, line);
                     return foundLineMap;
                 }
 
-                List<String> query = List.of(String.format("%s==%s", CALLER_NAME, signature), String.format("%s==%s", TARGET_STATEMENT, "return"));
-                for (JSONObject s : sliceDatabase.selectAll(query)) {
-                    String nodeId = s.getString(NODE_ID);
+                SliceQuery query = new SliceQuery().callerName(signature).targetStatement("return");
+                for (Slice s : sliceDatabase.selectAll(query)) {
+                    String nodeId = s.getNodeId();
                     slices.addAll(getSlices(nodeId));
                 }
             } else if (unitType == ASSIGN_VARIABLE_SIGNATURE) {
-                String signature = getSignature(unitString);
-                List<String> query = List.of(String.format("%s==%s", TARGET_STATEMENT, signature));
-                for (JSONObject s : sliceDatabase.selectAll(query)) {
-                    String nodeId = s.getString(NODE_ID);
+                String signature = tokens.getSignature(i);
+                SliceQuery query = new SliceQuery().targetStatement(signature);
+                for (Slice s : sliceDatabase.selectAll(query)) {
+                    String nodeId = s.getNodeId();
                     slices.addAll(getSlices(nodeId));
                 }
             }
 
-            for (JSONObject s : slices) {
-                JSONArray contents = s.getJSONArray(CONTENTS);
-                if (isJSONArrayARetainsAll(combinedContents, contents)) {
+            for (Slice s : slices) {
+                List<SliceLine> contents = s.getContents();
+                if (isContentsARetainsAll(combinedContents, contents)) {
                     continue;
                 }
 
-                JSONObject lowerLine1 = checkSignatures(contents, signatures);
+                SliceLine lowerLine1 = findSignatureLine(contents, signatures);
                 if (lowerLine1 != null) {
                     foundLineMap.put(lowerLine1, line);
                     return foundLineMap;
@@ -623,61 +518,59 @@ public class RuleChecker {
         return foundLineMap;
     }
 
-    private HashMap<JSONObject, JSONObject> checkConstant(JSONArray combinedContents, Object targetConstRegex, Object targetConstLen, Object targetConstSize) {
-        HashMap<JSONObject, JSONObject> foundLineMap = new HashMap<>();
-        if (targetConstRegex == null) {
-            return foundLineMap;
-        }
+    private HashMap<SliceLine, SliceLine> checkConstant(List<SliceLine> combinedContents, RuleMatcher matcher) {
+        ApkParser apkParser = context.getApkParser();
+        SliceDatabase sliceDatabase = context.getSliceDatabase();
 
-        String regex = (String) targetConstRegex;
-        String lenExpr = (targetConstLen == null) ? null : (String) targetConstLen;
-        String sizeExpr = (targetConstSize == null) ? null : (String) targetConstSize;
+        HashMap<SliceLine, SliceLine> foundLineMap = new HashMap<>();
+        NumericPredicate lenExpr = matcher.getConstantLength();
+        NumericPredicate sizeExpr = matcher.getConstantSize();
 
-        for (int i = combinedContents.length() - 1; i > -1; i--) {
-            JSONObject line = combinedContents.getJSONObject(i);
-            String unitString = line.getString(UNIT_STRING);
-            int unitType = line.getInt(UNIT_TYPE);
+        for (int i = combinedContents.size() - 1; i > -1; i--) {
+            SliceLine line = combinedContents.get(i);
+            String unitString = line.getUnitString();
+            int unitType = line.getUnitType();
 
-            LinkedHashSet<JSONObject> slices = new LinkedHashSet<>();
+            LinkedHashSet<Slice> slices = new LinkedHashSet<>();
             if ((unitType & INVOKE) == INVOKE) {
                 String signature = getSignature(unitString);
                 String className = getClassName(signature);
                 String returnType = getReturnType(signature);
 
-                List<String> query = List.of(String.format("%s==%s", CALLER_NAME, signature));
-                for (JSONObject s : sliceDatabase.selectAll(query)) {
-                    String nodeId = s.getString(NODE_ID);
+                SliceQuery query = new SliceQuery().callerName(signature);
+                for (Slice s : sliceDatabase.selectAll(query)) {
+                    String nodeId = s.getNodeId();
                     slices.addAll(getSlices(nodeId));
                 }
 
                 if (lenExpr == null && sizeExpr == null && slices.isEmpty() && !apkParser.isBuiltInClassName(className) && (returnType.equals("int") || returnType.equals("java.lang.String"))) {
                     foundLineMap.put(line, line);
                     return foundLineMap;
-                } else if (checkConstant(line, regex, lenExpr, sizeExpr)) {
+                } else if (checkConstant(line, matcher)) {
                     foundLineMap.put(line, line);
                     return foundLineMap;
                 }
             } else if (unitType == ASSIGN_VARIABLE_CONSTANT) {
-                if (checkConstant(line, regex, lenExpr, sizeExpr)) {
+                if (checkConstant(line, matcher)) {
                     foundLineMap.put(line, line);
                     return foundLineMap;
                 }
             } else if (unitType == ASSIGN_VARIABLE_SIGNATURE) {
                 String signature = getSignature(unitString);
-                List<String> query = List.of(String.format("%s==%s", TARGET_STATEMENT, signature));
-                for (JSONObject s : sliceDatabase.selectAll(query)) {
-                    String nodeId = s.getString(NODE_ID);
+                SliceQuery query = new SliceQuery().targetStatement(signature);
+                for (Slice s : sliceDatabase.selectAll(query)) {
+                    String nodeId = s.getNodeId();
                     slices.addAll(getSlices(nodeId));
                 }
             }
 
-            for (JSONObject s : slices) {
-                JSONArray contents = s.getJSONArray(CONTENTS);
-                if (isJSONArrayARetainsAll(combinedContents, contents)) {
+            for (Slice s : slices) {
+                List<SliceLine> contents = s.getContents();
+                if (isContentsARetainsAll(combinedContents, contents)) {
                     continue;
                 }
 
-                JSONObject lowerLine = checkConstant(contents, regex, lenExpr, sizeExpr);
+                SliceLine lowerLine = findConstantLine(contents, matcher);
                 if (lowerLine != null) {
                     foundLineMap.put(lowerLine, line);
                     return foundLineMap;
@@ -688,21 +581,23 @@ public class RuleChecker {
         return foundLineMap;
     }
 
-    private HashMap<JSONObject, JSONObject> checkArray(JSONArray combinedContents, Object targetConstLen, Object targetConstSize) {
-        String lenExpr = (targetConstLen == null) ? (targetConstSize == null) ? null : (String) targetConstSize : (String) targetConstLen;
-        HashMap<JSONObject, JSONObject> foundLineMap = new HashMap<>();
+    private HashMap<SliceLine, SliceLine> checkArray(List<SliceLine> combinedContents, NumericPredicate targetConstLen, NumericPredicate targetConstSize) {
+        SliceDatabase sliceDatabase = context.getSliceDatabase();
+
+        NumericPredicate lenExpr = (targetConstLen == null) ? targetConstSize : targetConstLen;
+        HashMap<SliceLine, SliceLine> foundLineMap = new HashMap<>();
 
-        for (int i = combinedContents.length() - 1; i > -1; i--) {
-            JSONObject line = combinedContents.getJSONObject(i);
-            String unitString = line.getString(UNIT_STRING);
-            int unitType = line.getInt(UNIT_TYPE);
+        for (int i = combinedContents.size() - 1; i > -1; i--) {
+            SliceLine line = combinedContents.get(i);
+            String unitString = line.getUnitString();
+            int unitType = line.getUnitType();
 
-            LinkedHashSet<JSONObject> slices = new LinkedHashSet<>();
+            LinkedHashSet<Slice> slices = new LinkedHashSet<>();
             if ((unitType & INVOKE) == INVOKE) {
                 String signature = getSignature(unitString);
-                List<String> query = List.of(String.format("%s==%s", CALLER_NAME, signature), String.format("%s==%s", TARGET_STATEMENT, "return"));
-                for (JSONObject s : sliceDatabase.selectAll(query)) {
-                    String nodeId = s.getString(NODE_ID);
+                SliceQuery query = new SliceQuery().callerName(signature).targetStatement("return");
+                for (Slice s : sliceDatabase.selectAll(query)) {
+                    String nodeId = s.getNodeId();
                     slices.addAll(getSlices(nodeId));
                 }
             } else if (unitType == NEW_ARRAY) {
@@ -712,25 +607,25 @@ public class RuleChecker {
                 }
             } else if (unitType == ASSIGN_VARIABLE_SIGNATURE) {
                 String signature = getSignature(unitString);
-                List<String> query = List.of(String.format("%s==%s", TARGET_STATEMENT, signature));
-                for (JSONObject s : sliceDatabase.selectAll(query)) {
-                    String nodeId = s.getString(NODE_ID);
+                SliceQuery query = new SliceQuery().targetStatement(signature);
+                for (Slice s : sliceDatabase.selectAll(query)) {
+                    String nodeId = s.getNodeId();
                     slices.addAll(getSlices(nodeId));
                 }
             }
 
-            for (JSONObject s : slices) {
-                JSONArray contents = s.getJSONArray(CONTENTS);
-                if (isJSONArrayARetainsAll(combinedContents, contents)) {
+            for (Slice s : slices) {
+                List<SliceLine> contents = s.getContents();
+                if (isContentsARetainsAll(combinedContents, contents)) {
                     continue;
                 }
 
                 if (isTargetArrayLines(contents, lenExpr)) {
-                    foundLineMap.put(contents.getJSONObject(0), line);
+                    foundLineMap.put(contents.get(0), line);
                     return foundLineMap;
                 }
 
-                JSONObject lowerLine = findArrayLine(contents, lenExpr);
+                SliceLine lowerLine = findArrayLine(contents, lenExpr);
                 if (lowerLine != null) {
                     foundLineMap.put(lowerLine, line);
                     return foundLineMap;
@@ -741,14 +636,14 @@ public class RuleChecker {
         return foundLineMap;
     }
 
-    private JSONObject checkAlgorithms(JSONArray contents, JSONArray algorithms) {
-        for (int i = contents.length() - 1; i > -1; i--) {
-            JSONObject line = contents.getJSONObject(i);
-            String unitString = line.getString(UNIT_STRING);
-            int unitType = line.getInt(UNIT_TYPE);
+    private SliceLine findAlgorithmLine(List<SliceLine> contents, AlgorithmMatcher algorithms) {
+        SliceTokens tokens = getSliceTokens(contents);
+        for (int i = contents.size() - 1; i > -1; i--) {
+            SliceLine line = contents.get(i);
+            int unitType = line.getUnitType();
 
             if ((unitType & INVOKE) == INVOKE) {
-                String signature = getSignature(unitString);
+                String signature = tokens.getSignature(i);
                 String className = getClassName(signature);
                 String methodName = getMethodName(signature);
                 if (className.equals("javax.crypto.spec.SecretKeySpec") && methodName.equals("<init>")) {
@@ -756,9 +651,7 @@ public class RuleChecker {
                 }
             }
 
-            ArrayList<String> strings = getStrings(unitString, unitType);
-
-            if (hasTargetAlgorithm(strings, algorithms)) {
+            if (tokens.hasAlgorithm(i, algorithms)) {
                 return line;
             }
         }
@@ -766,18 +659,18 @@ public class RuleChecker {
         return null;
     }
 
-    private JSONObject checkSignatures(JSONArray contents, List<Object> targetSignatures) {
-        JSONObject result = null;
+    private SliceLine findSignatureLine(List<SliceLine> contents, Set<String> targetSignatures) {
+        SliceTokens tokens = getSliceTokens(contents);
+        SliceLine result = null;
 
-        for (int i = contents.length() - 1; i >= 0; i--) {
-            JSONObject line = contents.getJSONObject(i);
-            int unitType = line.getInt(UNIT_TYPE);
+        for (int i = contents.size() - 1; i >= 0; i--) {
+            SliceLine line = contents.get(i);
+            int unitType = line.getUnitType();
             if ((unitType & INVOKE) != INVOKE) {
                 continue;
             }
 
-            String unitString = line.getString(UNIT_STRING);
-            String signature = getSignature(unitString);
+            String signature = tokens.getSignature(i);
             if (targetSignatures.contains(signature)) {
                 result = line;
                 break;
@@ -787,10 +680,10 @@ public class RuleChecker {
         return result;
     }
 
-    private JSONObject checkConstant(JSONArray contents, String regex, String lenExpr, String sizeExpr) {
-        for (int i = contents.length() - 1; i > -1; i--) {
-            JSONObject line = contents.getJSONObject(i);
-            if (checkConstant(line, regex, lenExpr, sizeExpr)) {
+    private SliceLine findConstantLine(List<SliceLine> contents, RuleMatcher matcher) {
+        for (int i = contents.size() - 1; i > -1; i--) {
+            SliceLine line = contents.get(i);
+            if (checkConstant(line, matcher)) {
                 return line;
             }
         }
@@ -798,10 +691,11 @@ public class RuleChecker {
         return null;
     }
 
-    private boolean checkConstant(JSONObject line, String regex, String lenExpr, String sizeExpr) {
-        Pattern targetPattern = Pattern.compile(regex);
-        int unitType = line.getInt(UNIT_TYPE);
-        String unitString = line.getString(UNIT_STRING);
+    private boolean checkConstant(SliceLine line, RuleMatcher matcher) {
+        ProgramSlicer programSlicer = context.getProgramSlicer();
+
+        int unitType = line.getUnitType();
+        String unitString = line.getUnitString();
 
         ArrayList<String> strings = new ArrayList<>();
         if ((unitType & INVOKE) == INVOKE) {
@@ -824,52 +718,7 @@ public class RuleChecker {
         }
 
         for (String s : strings) {
-            if (isVariableStr(s)) {
-                continue;
-            }
-
-            boolean isNumber = isNumber(s);
-            if (s.toLowerCase().endsWith("f") && isNumber) {
-                s = String.valueOf((int) Double.parseDouble(s));
-            }
-
-            if (s.isEmpty() || s.equals("null")) {
-                continue;
-            }
-
-            Matcher matcher = targetPattern.matcher(s);
-            if (!matcher.matches()) {
-                continue;
-            }
-
-            if (isAlgorithm(s)) {
-                continue;
-            }
-
-            if (regex.equals(".*") && sizeExpr == null && isNumber) {
-                continue;
-            }
-
-            if (lenExpr == null && sizeExpr == null) {
-                return true;
-            }
-
-            if (lenExpr != null) {
-                s = String.valueOf(s.length());
-            } else {
-                RSAKey rsaKey = convertToRSAKey(s);
-
-                if (rsaKey == null) {
-                    s = (isNumber) ? s : String.valueOf(s.length());
-                } else {
-                    BigInteger modulus = rsaKey.getModulus();
-                    int bitLength = modulus.bitLength();
-                    s = String.valueOf(bitLength);
-                }
-            }
-
-            String expressionString = (lenExpr == null) ? sizeExpr : lenExpr;
-            if (calculateExpression("x=" + s, expressionString) == 1) {
+            if (isTargetConstant(s, matcher)) {
                 return true;
             }
         }
@@ -877,54 +726,62 @@ public class RuleChecker {
         return false;
     }
 
-    private List<Object> arrayToList(Object o) {
-        return ((JSONArray) o).toList();
-    }
+    boolean isTargetConstant(String str, RuleMatcher matcher) {
+        String regex = matcher.getConstantRegex();
+        NumericPredicate lenExpr = matcher.getConstantLength();
+        NumericPredicate sizeExpr = matcher.getConstantSize();
+        Pattern targetPattern = matcher.getConstantPattern();
 
-    private ArrayList<String> getStrings(String unitString, int unitType) {
-        ArrayList<String> strings = new ArrayList<>();
+        String s = str;
+        if (isVariableStr(s)) {
+            return false;
+        }
 
-        if ((unitType & INVOKE) == INVOKE) {
-            ArrayList<String> parameters = getParameters(unitString);
-            strings.addAll(parameters);
-        } else if (unitType == ASSIGN_VARIABLE_CONSTANT) {
-            String rightOpStr = getRightOpStr(unitString, unitType);
-            strings.add(rightOpStr);
-        } else if (unitType == RETURN_VALUE) {
-            String rightOpStr = getRightOpStr(unitString, unitType);
-            strings.add(rightOpStr);
+        boolean isNumber = isNumber(s);
+        if (s.toLowerCase().endsWith("f") && isNumber) {
+            s = String.valueOf((int) Double.parseDouble(s));
         }
 
-        return strings;
-    }
+        if (s.isEmpty() || s.equals("null")) {
+            return false;
+        }
 
-    private boolean hasTargetAlgorithm(ArrayList<String> strings, JSONArray targetAlgorithms) {
-        int count = targetAlgorithms.length();
+        Matcher m = targetPattern.matcher(s);
+        if (!m.matches()) {
+            return false;
+        }
 
-        for (String s : strings) {
-            String str = s.toUpperCase();
-            if (!isAlgorithm(str)) {
-                continue;
-            }
+        if (isAlgorithm(s)) {
+            return false;
+        }
 
-            for (int j = 0; j < count; j++) {
-                String algorithm = targetAlgorithms.getString(j);
-                String[] strArr = algorithm.split("-");
-                Pattern pattern = Pattern.compile("(?i)^(" + (algorithm.contains("-") ? strArr[0] : algorithm) + ")?(/.*)?$");
-                Matcher matcher = pattern.matcher(str);
-                if ((matcher.matches() && (!algorithm.contains("-") || !s.toLowerCase().contains(strArr[1].toLowerCase()))) || (str.contains("PBE") && str.contains(algorithm))) {
-                    return true;
-                }
-            }
+        if (regex.equals(".*") && sizeExpr == null && isNumber) {
+            return false;
         }
 
-        return false;
+        if (lenExpr == null && sizeExpr == null) {
+            return true;
+        }
+
+        if (lenExpr != null) {
+            return lenExpr.test(s.length());
+        }
+
+        RSAKey rsaKey = convertToRSAKey(s);
+        if (rsaKey == null) {
+            return (isNumber) ? sizeExpr.test(s) : sizeExpr.test(s.length());
+        }
+
+        BigInteger modulus = rsaKey.getModulus();
+        int bitLength = modulus.bitLength();
+
+        return sizeExpr.test(bitLength);
     }
 
-    private JSONObject findArrayLine(JSONArray contents, String lenExpr) {
-        for (int i = contents.length() - 1; i > -1; i--) {
-            JSONObject line = contents.getJSONObject(i);
-            int unitType = line.getInt(UNIT_TYPE);
+    private SliceLine findArrayLine(List<SliceLine> contents, NumericPredicate lenExpr) {
+        for (int i = contents.size() - 1; i > -1; i--) {
+            SliceLine line = contents.get(i);
+            int unitType = line.getUnitType();
             if (unitType != NEW_ARRAY) {
                 continue;
             }
@@ -937,61 +794,39 @@ public class RuleChecker {
         return null;
     }
 
-    private boolean isTargetArrayLine(JSONObject line, String lenExpr) {
-        String unitString = line.getString(UNIT_STRING);
-        int unitType = line.getInt(UNIT_TYPE);
+    private boolean isTargetArrayLine(SliceLine line, NumericPredicate lenExpr) {
+        String unitString = line.getUnitString();
+        int unitType = line.getUnitType();
         String arraySize = getArraySize(unitString, unitType);
         if (isVariableStr(arraySize)) {
             return false;
         }
 
-        return (lenExpr == null && isNumber(arraySize)) || (lenExpr != null && calculateExpression("x=" + arraySize, lenExpr) == 1);
+        return (lenExpr == null && isNumber(arraySize)) || (lenExpr != null && lenExpr.test(arraySize));
     }
 
-    private boolean isTargetArrayLines(JSONArray content, String lenExpr) {
-        JSONObject line1 = content.getJSONObject(0);
-        int unitType1 = line1.getInt(UNIT_TYPE);
+    private boolean isTargetArrayLines(List<SliceLine> content, NumericPredicate lenExpr) {
+        SliceLine line1 = content.get(0);
+        int unitType1 = line1.getUnitType();
         if (unitType1 != NEW_ARRAY) {
             return false;
         }
 
-        JSONObject line2 = content.getJSONObject(1);
-        JSONObject line3 = content.getJSONObject(content.length() - 1);
-        int unitType2 = line2.getInt(UNIT_TYPE);
-        int unitType3 = line3.getInt(UNIT_TYPE);
+        SliceLine line2 = content.get(1);
+        SliceLine line3 = content.get(content.size() - 1);
+        int unitType2 = line2.getUnitType();
+        int unitType3 = line3.getUnitType();
 
         return isTargetArrayLine(line1, lenExpr) && (unitType2 & ASSIGN_ARRAY) == ASSIGN_ARRAY && unitType3 == ASSIGN_SIGNATURE_VARIABLE;
     }
 
-    private HashSet<String> getTargetKeys(JSONObject condition) {
-        HashSet<String> keys = new HashSet<>();
-
-        if (condition.has(TARGET_SCHEME_TYPES) || condition.has(REQUIRED_SCHEME_TYPES)) {
-            keys.add(TARGET_SCHEME_TYPES);
-        }
-
-        if (condition.has(TARGET_ALGORITHMS)) {
-            keys.add(TARGET_ALGORITHMS);
-        }
-
-        if (condition.has(TARGET_SIGNATURES)) {
-            keys.add(TARGET_SIGNATURES);
-        }
-
-        if (condition.has(TARGET_CONSTANT_REGEX)) {
-            keys.add(TARGET_CONSTANT_REGEX);
-        }
-
-        return keys;
-    }
-
-    private JSONObject getJSONObject(Set<JSONObject> set) {
-        ArrayList<JSONObject> objects = new ArrayList<>(set);
+    private SliceLine getSliceLine(Set<SliceLine> set) {
+        ArrayList<SliceLine> objects = new ArrayList<>(set);
 
         return objects.get(0);
     }
 
-    private JSONObject getResultLine(String ruleName, HashMap<JSONObject, JSONObject> foundLineMap1, HashMap<JSONObject, JSONObject> foundLineMap2, JSONObject line) {
+    private SliceLine getResultLine(String ruleName, HashMap<SliceLine, SliceLine> foundLineMap1, HashMap<SliceLine, SliceLine> foundLineMap2, SliceLine line) {
         if (ruleName.equals(INSECURE_RULE) && foundLineMap1 != null && (foundLineMap1.containsKey(line) || foundLineMap1.containsValue(line))) {
             return line;
         } else if (ruleName.equals(SECURE_RULE) && (foundLineMap1 != null || (foundLineMap2 != null && (foundLineMap2.containsKey(line) || foundLineMap2.containsValue(line))))) {
@@ -1001,8 +836,10 @@ public class RuleChecker {
         }
     }
 
-    private ArrayList<JSONObject> getSlices(String nodeId) {
-        ArrayList<JSONObject> slices = sliceMap.get(nodeId);
+    private ArrayList<Slice> getSlices(String nodeId) {
+        SliceDatabase sliceDatabase = context.getSliceDatabase();
+
+        ArrayList<Slice> slices = sliceMap.get(nodeId);
         if (slices == null) {
             slices = new ArrayList<>();
         } else {
@@ -1014,8 +851,8 @@ public class RuleChecker {
 
         while (!queue.isEmpty()) {
             String id = queue.remove(0);
-            List<String> query = List.of(String.format("%s==%s", NODE_ID, id), String.format("%s!=null", CALLER_NAME));
-            JSONObject slice = sliceDatabase.selectOne(query);
+            SliceQuery query = new SliceQuery().nodeId(id).hasCallerName(true);
+            Slice slice = sliceDatabase.selectOne(query);
             if (slice == null) {
                 continue;
             }
@@ -1026,29 +863,29 @@ public class RuleChecker {
                 slices.add(slice);
             }
 
-            JSONArray content = slice.getJSONArray(CONTENTS);
-            for (int i = content.length() - 1; i > -1; i--) {
-                JSONObject line = content.getJSONObject(i);
-                String unitString = line.getString(UNIT_STRING);
-                int unitType = line.getInt(UNIT_TYPE);
+            List<SliceLine> content = slice.getContents();
+            for (int i = content.size() - 1; i > -1; i--) {
+                SliceLine line = content.get(i);
+                String unitString = line.getUnitString();
+                int unitType = line.getUnitType();
 
                 if ((unitType & INVOKE) == INVOKE) {
                     String signature = getSignature(unitString);
-                    List<String> query2 = List.of(String.format("%s==%s", CALLER_NAME, signature), String.format("%s==%s", TARGET_STATEMENT, "return"));
-                    for (JSONObject s : sliceDatabase.selectAll(query2)) {
-                        queue.add(s.getString(NODE_ID));
+                    SliceQuery query2 = new SliceQuery().callerName(signature).targetStatement("return");
+                    for (Slice s : sliceDatabase.selectAll(query2)) {
+                        queue.add(s.getNodeId());
                     }
                 } else if (unitType == ASSIGN_VARIABLE_SIGNATURE) {
                     String signature = getSignature(unitString);
-                    List<String> query2 = List.of(String.format("%s==%s", TARGET_STATEMENT, signature));
-                    for (JSONObject s : sliceDatabase.selectAll(query2)) {
-                        queue.add(s.getString(NODE_ID));
+                    SliceQuery query2 = new SliceQuery().targetStatement(signature);
+                    for (Slice s : sliceDatabase.selectAll(query2)) {
+                        queue.add(s.getNodeId());
                     }
                 } else if (unitType == PARAMETER) {
-                    String callerName = line.getString(CALLER_NAME);
-                    List<String> query2 = List.of(String.format("%s==%s", TARGET_STATEMENT, callerName));
-                    for (JSONObject s : sliceDatabase.selectAll(query2)) {
-                        queue.add(s.getString(NODE_ID));
+                    String callerName = line.getCallerName();
+                    SliceQuery query2 = new SliceQuery().targetStatement(callerName);
+                    for (Slice s : sliceDatabase.selectAll(query2)) {
+                        queue.add(s.getNodeId());
                     }
                 }
             }
@@ -1059,16 +896,16 @@ public class RuleChecker {
         return slices;
     }
 
-    private boolean isJSONArrayARetainsAll(JSONArray array1, JSONArray array2) {
-        for (int i = 0; i < array1.length(); i++) {
-            JSONObject obj1 = array1.getJSONObject(i);
-            String unitString1 = obj1.getString(UNIT_STRING);
-            int lineNumber1 = obj1.getInt(LINE_NUMBER);
+    private boolean isContentsARetainsAll(List<SliceLine> array1, List<SliceLine> array2) {
+        for (int i = 0; i < array1.size(); i++) {
+            SliceLine obj1 = array1.get(i);
+            String unitString1 = obj1.getUnitString();
+            int lineNumber1 = obj1.getLineNumber();
 
-            for (int j = 0; j < array2.length(); j++) {
-                JSONObject obj2 = array2.getJSONObject(j);
-                String unitString2 = obj2.getString(UNIT_STRING);
-                int lineNumber2 = obj2.getInt(LINE_NUMBER);
+            for (int j = 0; j < array2.size(); j++) {
+                SliceLine obj2 = array2.get(j);
+                String unitString2 = obj2.getUnitString();
+                int lineNumber2 = obj2.getLineNumber();
                 if (unitString1.equals(unitString2) && lineNumber1 == lineNumber2) {
                     return true;
                 }
@@ -1078,24 +915,24 @@ public class RuleChecker {
         return false;
     }
 
-    private JSONObject findLastLine(HashMap<JSONObject, JSONObject> foundLineMap1, HashMap<JSONObject, JSONObject> foundLineMap2) {
+    private SliceLine findLastLine(HashMap<SliceLine, SliceLine> foundLineMap1, HashMap<SliceLine, SliceLine> foundLineMap2) {
         if (foundLineMap1 == null || foundLineMap1.isEmpty()) {
             return null;
         }
 
-        JSONObject lowerLine1 = getJSONObject(foundLineMap1.keySet());
+        SliceLine lowerLine1 = getSliceLine(foundLineMap1.keySet());
         if (foundLineMap2 == null || foundLineMap2.isEmpty()) {
             return lowerLine1;
         }
 
-        JSONObject upperLine1 = foundLineMap1.get(lowerLine1);
-        JSONObject lowerLine2 = getJSONObject(foundLineMap2.keySet());
-        JSONObject upperLine2 = foundLineMap2.get(lowerLine2);
+        SliceLine upperLine1 = foundLineMap1.get(lowerLine1);
+        SliceLine lowerLine2 = getSliceLine(foundLineMap2.keySet());
+        SliceLine upperLine2 = foundLineMap2.get(lowerLine2);
 
-        if (lowerLine1.getString(CALLER_NAME).equals(lowerLine2.getString(CALLER_NAME))) {
-            return (lowerLine1.getInt(LINE_NUMBER) > lowerLine2.getInt(LINE_NUMBER)) ? lowerLine1 : lowerLine2;
-        } else if (upperLine1.getString(CALLER_NAME).equals(upperLine2.getString(CALLER_NAME))) {
-            return (upperLine1.getInt(LINE_NUMBER) > upperLine2.getInt(LINE_NUMBER)) ? upperLine1 : upperLine2;
+        if (lowerLine1.getCallerName().equals(lowerLine2.getCallerName())) {
+            return (lowerLine1.getLineNumber() > lowerLine2.getLineNumber()) ? lowerLine1 : lowerLine2;
+        } else if (upperLine1.getCallerName().equals(upperLine2.getCallerName())) {
+            return (upperLine1.getLineNumber() > upperLine2.getLineNumber()) ? upperLine1 : upperLine2;
         }
 
         return null;
@@ -1148,8 +985,4 @@ public class RuleChecker {
 
         return matcher.matches();
     }
-
-    private static class SingletonHolder {
-        private static final RuleChecker instance = new RuleChecker();
-    }
 }
\ No newline at end of file
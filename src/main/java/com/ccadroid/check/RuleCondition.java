@@ -0,0 +1,45 @@
+package com.ccadroid.check;
+
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.ccadroid.check.RuleConstant.*;
+
+class RuleCondition {
+    private final Set<String> keys;
+    private final Set<String> targetKeys;
+
+    RuleCondition(JSONObject condition) {
+        keys = Collections.unmodifiableSet(new HashSet<>(condition.keySet()));
+
+        HashSet<String> set = new HashSet<>();
+        if (condition.has(TARGET_SCHEME_TYPES) || condition.has(REQUIRED_SCHEME_TYPES)) {
+            set.add(TARGET_SCHEME_TYPES);
+        }
+
+        if (condition.has(TARGET_ALGORITHMS)) {
+            set.add(TARGET_ALGORITHMS);
+        }
+
+        if (condition.has(TARGET_SIGNATURES)) {
+            set.add(TARGET_SIGNATURES);
+        }
+
+        if (condition.has(TARGET_CONSTANT_REGEX)) {
+            set.add(TARGET_CONSTANT_REGEX);
+        }
+
+        targetKeys = Collections.unmodifiableSet(set);
+    }
+
+    boolean equalsTargetKeys(Set<String> foundKeys) {
+        return foundKeys.containsAll(targetKeys) && targetKeys.containsAll(foundKeys);
+    }
+
+    boolean containsTargetKeys(Set<String> foundKeys) {
+        return foundKeys.containsAll(targetKeys) && (foundKeys.containsAll(keys) || keys.containsAll(foundKeys));
+    }
+}
@@ -0,0 +1,161 @@
+package com.ccadroid.check;
+
+import com.ccadroid.util.NumericPredicate;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static com.ccadroid.check.RuleConstant.*;
+
+class RuleMatcher {
+    private final String ruleId;
+    private final String ruleNumber;
+    private final String description;
+    private final List<RuleCondition> conditions;
+    private final boolean isAnyCondition;
+    private final Set<String> schemeTypes;
+    private final AlgorithmMatcher algorithmMatcher;
+    private final Set<String> signatures;
+    private final String constantRegex;
+    private final Pattern constantPattern;
+    private final NumericPredicate constantLength;
+    private final NumericPredicate constantSize;
+
+    RuleMatcher(JSONObject rule) {
+        ruleId = rule.getString(RULE_ID);
+        ruleNumber = ruleId.split("-")[0];
+        description = rule.getString(DESCRIPTION);
+
+        Object obj = rule.get(CONDITIONS);
+        ArrayList<RuleCondition> list = new ArrayList<>();
+        if (obj instanceof JSONObject) {
+            list.add(new RuleCondition((JSONObject) obj));
+            isAnyCondition = false;
+        } else {
+            JSONArray arr = (JSONArray) obj;
+            for (int i = 0; i < arr.length(); i++) {
+                list.add(new RuleCondition(arr.getJSONObject(i)));
+            }
+
+            isAnyCondition = true;
+        }
+
+        conditions = Collections.unmodifiableList(list);
+
+        Object targetSchemeTypes = getJsonValue(obj, TARGET_SCHEME_TYPES);
+        schemeTypes = (targetSchemeTypes == null) ? null : toSet((JSONArray) targetSchemeTypes);
+
+        Object targetAlgorithms = getJsonValue(obj, TARGET_ALGORITHMS);
+        algorithmMatcher = (targetAlgorithms == null) ? null : new AlgorithmMatcher((targetAlgorithms instanceof JSONObject) ? ((JSONObject) targetAlgorithms).getJSONArray(TARGET_ALGORITHMS) : (JSONArray) targetAlgorithms);
+
+        Object targetSignatures = getJsonValue(obj, TARGET_SIGNATURES);
+        signatures = (targetSignatures == null) ? null : toSet((JSONArray) targetSignatures);
+
+        constantRegex = (String) getJsonValue(obj, TARGET_CONSTANT_REGEX);
+        constantPattern = (constantRegex == null) ? null : Pattern.compile(constantRegex);
+        constantLength = compilePredicate((String) getJsonValue(obj, TARGET_CONSTANT_LENGTH));
+        constantSize = compilePredicate((String) getJsonValue(obj, TARGET_CONSTANT_SIZE));
+    }
+
+    String getRuleId() {
+        return ruleId;
+    }
+
+    String getRuleNumber() {
+        return ruleNumber;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    Set<String> getSchemeTypes() {
+        return schemeTypes;
+    }
+
+    AlgorithmMatcher getAlgorithmMatcher() {
+        return algorithmMatcher;
+    }
+
+    Set<String> getSignatures() {
+        return signatures;
+    }
+
+    String getConstantRegex() {
+        return constantRegex;
+    }
+
+    Pattern getConstantPattern() {
+        return constantPattern;
+    }
+
+    NumericPredicate getConstantLength() {
+        return constantLength;
+    }
+
+    NumericPredicate getConstantSize() {
+        return constantSize;
+    }
+
+    boolean matches(Set<String> foundKeys) {
+        if (!isAnyCondition) {
+            return conditions.get(0).equalsTargetKeys(foundKeys);
+        }
+
+        for (RuleCondition c : conditions) {
+            if (c.containsTargetKeys(foundKeys)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static Set<String> toSet(JSONArray arr) {
+        HashSet<String> set = new HashSet<>();
+        for (int i = 0; i < arr.length(); i++) {
+            set.add(arr.getString(i));
+        }
+
+        return Collections.unmodifiableSet(set);
+    }
+
+    private static NumericPredicate compilePredicate(String expression) {
+        return (expression == null) ? null : new NumericPredicate(expression);
+    }
+
+    private static Object getJsonValue(Object object, String key) { // first value of key, as the rule files are read
+        if (object instanceof JSONObject) {
+            JSONObject obj = (JSONObject) object;
+            Set<String> keys = obj.keySet();
+
+            if (keys.contains(key)) {
+                return obj.get(key);
+            }
+
+            for (String k : keys) {
+                Object value = getJsonValue(obj.get(k), key);
+                if (value == null) {
+                    continue;
+                }
+
+                return value;
+            }
+        } else if (object instanceof JSONArray) {
+            JSONArray arr = (JSONArray) object;
+
+            for (Object o : arr) {
+                Object value = getJsonValue(o, key);
+                if (value == null) {
+                    continue;
+                }
+
+                return value;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ccadroid.check;
+
+import com.ccadroid.slice.SliceLine;
+import com.ccadroid.util.soot.SootUnit;
+
+import java.util.*;
+
+import static com.ccadroid.util.soot.SootUnit.*;
+
+class SliceTokens {
+    private final String[] signatures;
+    private final ArrayList<Set<AlgorithmMatcher>> algorithmMatchers;
+
+    SliceTokens(List<SliceLine> contents, AlgorithmIndex algorithmIndex) {
+        int size = contents.size();
+        signatures = new String[size];
+        algorithmMatchers = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            SliceLine line = contents.get(i);
+            String unitString = line.getUnitString();
+            int unitType = line.getUnitType();
+
+            if ((unitType & INVOKE) == INVOKE || unitType == ASSIGN_VARIABLE_SIGNATURE) {
+                signatures[i] = SootUnit.getSignature(unitString); // shadowed by getSignature(int)
+            }
+
+            Set<AlgorithmMatcher> set = Collections.emptySet();
+            for (String s : getStrings(unitString, unitType)) {
+                Set<AlgorithmMatcher> matchers = algorithmIndex.getMatchers(s);
+                if (matchers.isEmpty()) {
+                    continue;
+                }
+
+                if (set.isEmpty()) {
+                    set = matchers;
+                } else {
+                    set = new HashSet<>(set);
+                    set.addAll(matchers);
+                }
+            }
+
+            algorithmMatchers.add(set);
+        }
+    }
+
+    String getSignature(int index) {
+        return signatures[index];
+    }
+
+    boolean hasAlgorithm(int index, AlgorithmMatcher matcher) {
+        return algorithmMatchers.get(index).contains(matcher);
+    }
+
+    private static ArrayList<String> getStrings(String unitString, int unitType) {
+        ArrayList<String> strings = new ArrayList<>();
+
+        if ((unitType & INVOKE) == INVOKE) {
+            ArrayList<String> parameters = getParameters(unitString);
+            strings.addAll(parameters);
+        } else if (unitType == ASSIGN_VARIABLE_CONSTANT) {
+            String rightOpStr = getRightOpStr(unitString, unitType);
+            strings.add(rightOpStr);
+        } else if (unitType == RETURN_VALUE) {
+            String rightOpStr = getRightOpStr(unitString, unitType);
+            strings.add(rightOpStr);
+        }
+
+        return strings;
+    }
+}
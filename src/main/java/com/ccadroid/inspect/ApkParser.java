@@ -10,34 +10,75 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
-import java.util.ArrayList;
-import java.util.StringTokenizer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import static com.ccadroid.util.Common.printf;
 
 public class ApkParser {
-    private static final ArrayList<String> appComponents = new ArrayList<>();
-    private static final ArrayList<String> dexClassNames = new ArrayList<>();
+    private static final String CLASS_SUFFIX = ".class";
+    private final ArrayList<String> appComponents;
+    private final ArrayList<String> dexClassNames;
+    private final HashSet<String> devClassNames;
+    private Set<String> reachableClassNames; // null for all classes
     private ApkFile apkFile;
+    private String classPath;
+    private Path extractedPath;
     private String packageName;
     private String appClassName;
 
-    public static ApkParser getInstance() {
-        return SingletonHolder.instance;
+    public ApkParser() {
+        appComponents = new ArrayList<>();
+        dexClassNames = new ArrayList<>();
+        devClassNames = new HashSet<>();
     }
 
-    public void loadAPKFile(String apkPath) {
+    public static boolean isClassInput(String inputPath) {
+        return inputPath.endsWith(".jar") || inputPath.endsWith(".aar") || new File(inputPath).isDirectory();
+    }
+
+    public boolean loadAPKFile(String apkPath) {
         try {
             apkFile = new ApkFile(apkPath);
             printf(getClass(), apkPath);
         } catch (IOException ignored) {
             printf(getClass(), String.format("%s does not exist!", apkPath));
-            System.exit(1);
+            return false;
         }
 
         setDexClassNames();
+
+        return true;
+    }
+
+    public boolean loadClassFiles(String inputPath) { // JAR, classes.jar of AAR or class directory
+        try {
+            if (inputPath.endsWith(".aar")) {
+                extractedPath = extractClassesJar(inputPath);
+                classPath = extractedPath.toString();
+            } else {
+                classPath = inputPath;
+            }
+
+            setClassNames();
+            printf(getClass(), inputPath);
+        } catch (IOException ignored) {
+            printf(getClass(), String.format("%s does not exist!", inputPath));
+            return false;
+        }
+
+        return true;
     }
 
     public void parseManifest() {
@@ -112,6 +153,28 @@ public class ApkParser {
         }
     }
 
+    public void addAppComponents(List<String> components) {
+        appComponents.addAll(components);
+    }
+
+    public void close() {
+        try {
+            if (apkFile != null) {
+                apkFile.close();
+            }
+
+            if (extractedPath != null) {
+                Files.deleteIfExists(extractedPath);
+            }
+        } catch (IOException ignored) {
+
+        }
+    }
+
+    public String getClassPath() {
+        return classPath;
+    }
+
     public ArrayList<String> getDexClassNames() {
         return dexClassNames;
     }
@@ -127,8 +190,16 @@ public class ApkParser {
         return appComponents.contains(str);
     }
 
+    public void setReachableClassNames(Set<String> classNames) {
+        reachableClassNames = classNames;
+    }
+
+    public boolean isReachableClassName(String className) {
+        return reachableClassNames == null || reachableClassNames.contains(className);
+    }
+
     public boolean isDevClassName(String className) {
-        return (packageName != null && className.startsWith(packageName)) || className.equals(appClassName) || isAppComponents(className);
+        return (packageName != null && className.startsWith(packageName)) || className.equals(appClassName) || isAppComponents(className) || devClassNames.contains(className);
     }
 
     private void setDexClassNames() {
@@ -150,7 +221,43 @@ public class ApkParser {
         }
     }
 
-    private static class SingletonHolder {
-        private static final ApkParser instance = new ApkParser();
+    private Path extractClassesJar(String aarPath) throws IOException {
+        try (ZipFile zipFile = new ZipFile(aarPath)) {
+            ZipEntry entry = zipFile.getEntry("classes.jar");
+            if (entry == null) {
+                throw new IOException(String.format("No classes.jar in %s", aarPath));
+            }
+
+            Path jarPath = Files.createTempFile("cca-droid-", ".jar");
+            try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                Files.copy(inputStream, jarPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            return jarPath;
+        }
+    }
+
+    private void setClassNames() throws IOException {
+        List<String> names;
+        Path path = Paths.get(classPath);
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> stream = Files.walk(path)) {
+                names = stream.filter(p -> p.toString().endsWith(CLASS_SUFFIX)).map(p -> path.relativize(p).toString().replace(File.separatorChar, '/')).collect(Collectors.toList());
+            }
+        } else {
+            try (ZipFile zipFile = new ZipFile(classPath)) {
+                names = zipFile.stream().map(ZipEntry::getName).filter(s -> s.endsWith(CLASS_SUFFIX)).collect(Collectors.toList());
+            }
+        }
+
+        for (String s : names) {
+            if (s.startsWith("META-INF/") || s.endsWith("module-info.class") || s.endsWith("package-info.class")) {
+                continue;
+            }
+
+            String className = s.substring(0, s.length() - CLASS_SUFFIX.length()).replace('/', '.');
+            dexClassNames.add(className);
+            devClassNames.add(className); // no manifest, so every input class is developer code
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,332 @@
+package com.ccadroid.inspect;
+
+import org.jf.dexlib2.DexFileFactory;
+import org.jf.dexlib2.Opcodes;
+import org.jf.dexlib2.ReferenceType;
+import org.jf.dexlib2.dexbacked.DexBackedDexFile;
+import org.jf.dexlib2.iface.*;
+import org.jf.dexlib2.iface.instruction.Instruction;
+import org.jf.dexlib2.iface.instruction.ReferenceInstruction;
+import org.jf.dexlib2.iface.reference.FieldReference;
+import org.jf.dexlib2.iface.reference.MethodReference;
+import org.jf.dexlib2.iface.reference.Reference;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static com.ccadroid.util.Common.printf;
+
+public class ClassPruner { // finds the classes that can reach a slicing signature, from the method and field references of the dex files
+    private final ArrayList<DexBackedDexFile> dexFiles;
+    private final HashMap<String, String> methodClassMap; // method signature to its class name
+    private final HashMap<String, List<String>> interfaceMap; // class name to its interface names
+    private final HashMap<String, HashSet<String>> callerMap;
+    private final HashMap<String, HashSet<String>> calleeMap;
+    private final HashMap<String, HashSet<String>> readFieldMap; // method signature to the fields it reads
+    private final HashMap<String, HashSet<String>> fieldWriterMap; // field signature to the methods writing it
+
+    public ClassPruner() {
+        dexFiles = new ArrayList<>();
+        methodClassMap = new HashMap<>();
+        interfaceMap = new HashMap<>();
+        callerMap = new HashMap<>();
+        calleeMap = new HashMap<>();
+        readFieldMap = new HashMap<>();
+        fieldWriterMap = new HashMap<>();
+    }
+
+    public boolean loadDexFiles(String apkPath) { // read once, for the prefilter and the pruning
+        try {
+            MultiDexContainer<? extends DexBackedDexFile> container = DexFileFactory.loadDexContainer(new File(apkPath), Opcodes.getDefault());
+            for (String s : container.getDexEntryNames()) {
+                MultiDexContainer.DexEntry<? extends DexBackedDexFile> entry = container.getEntry(s);
+                if (entry == null) {
+                    continue;
+                }
+
+                dexFiles.add(entry.getDexFile());
+            }
+        } catch (IOException | RuntimeException e) { // for malformed dex files
+            printf(getClass(), String.format("Cannot read dex files: %s", e));
+            dexFiles.clear();
+            return false;
+        }
+
+        return true;
+    }
+
+    public boolean hasCandidateSinks(Collection<String> signatures, ApkParser apkParser) { // true if it cannot be decided
+        HashSet<String> classTypes = new HashSet<>();
+        for (String s : signatures) {
+            classTypes.add(String.format("L%s;", getClassName(s).replace('.', '/')));
+        }
+
+        try {
+            boolean isReferenced = false;
+            for (DexBackedDexFile f : dexFiles) {
+                for (Reference r : f.getReferences(ReferenceType.METHOD)) { // method id table only
+                    if (isSignature(r, classTypes, signatures)) {
+                        isReferenced = true;
+                        break;
+                    }
+                }
+            }
+
+            if (!isReferenced) {
+                return false;
+            }
+
+            for (DexBackedDexFile f : dexFiles) { // the code of the classes that can be callers
+                for (ClassDef c : f.getClasses()) {
+                    String className = toTypeName(c.getType());
+                    if (apkParser.isBuiltInClassName(className)) {
+                        continue;
+                    }
+
+                    for (Method m : c.getMethods()) {
+                        MethodImplementation implementation = m.getImplementation();
+                        if (implementation == null) {
+                            continue;
+                        }
+
+                        for (Instruction i : implementation.getInstructions()) {
+                            if (i instanceof ReferenceInstruction && isSignature(((ReferenceInstruction) i).getReference(), classTypes, signatures)) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException ignored) { // left to the APK parser
+            return true;
+        }
+
+        return false;
+    }
+
+    public HashSet<String> getReachableClassNames(Collection<String> signatures) { // null if the references cannot be read
+        if (methodClassMap.isEmpty() && !addClasses()) {
+            return null;
+        }
+
+        HashSet<String> upMethods = new HashSet<>(); // their callers are sliced as well
+        HashSet<String> downMethods = new HashSet<>(); // their callees are sliced as well
+        ArrayDeque<String> upDeque = new ArrayDeque<>();
+        ArrayDeque<String> downDeque = new ArrayDeque<>();
+
+        for (String s : signatures) {
+            for (String caller : callerMap.getOrDefault(s, new HashSet<>())) {
+                addMethod(caller, upMethods, upDeque, downMethods, downDeque);
+            }
+        }
+
+        while (!upDeque.isEmpty() || !downDeque.isEmpty()) {
+            if (!upDeque.isEmpty()) {
+                String signature = upDeque.poll();
+                for (String caller : getCallers(signature)) {
+                    addMethod(caller, upMethods, upDeque, downMethods, downDeque);
+                }
+
+                continue;
+            }
+
+            String signature = downDeque.poll();
+            for (String callee : calleeMap.getOrDefault(signature, new HashSet<>())) {
+                if (methodClassMap.containsKey(callee) && downMethods.add(callee)) {
+                    downDeque.add(callee);
+                }
+            }
+
+            for (String field : readFieldMap.getOrDefault(signature, new HashSet<>())) {
+                for (String writer : fieldWriterMap.getOrDefault(field, new HashSet<>())) {
+                    addMethod(writer, upMethods, upDeque, downMethods, downDeque);
+                }
+            }
+        }
+
+        HashSet<String> classNames = new HashSet<>();
+        for (String s : downMethods) {
+            classNames.add(methodClassMap.get(s));
+
+            for (String field : readFieldMap.getOrDefault(s, new HashSet<>())) { // for the static final values of their classes
+                classNames.add(getClassName(field));
+            }
+        }
+
+        return classNames;
+    }
+
+    private boolean addClasses() {
+        try {
+            for (DexBackedDexFile f : dexFiles) {
+                for (ClassDef c : f.getClasses()) {
+                    addClass(c);
+                }
+            }
+        } catch (RuntimeException e) { // for malformed dex files
+            printf(getClass(), String.format("Cannot read dex files: %s", e));
+            return false;
+        }
+
+        return true;
+    }
+
+    private void addClass(ClassDef classDef) {
+        String className = toTypeName(classDef.getType());
+        ArrayList<String> interfaceNames = new ArrayList<>();
+        for (String s : classDef.getInterfaces()) {
+            interfaceNames.add(toTypeName(s));
+        }
+
+        interfaceMap.put(className, interfaceNames);
+
+        for (Method m : classDef.getMethods()) {
+            String signature = toSignature(m);
+            methodClassMap.put(signature, className);
+
+            MethodImplementation implementation = m.getImplementation();
+            if (implementation == null) {
+                continue;
+            }
+
+            for (Instruction i : implementation.getInstructions()) {
+                if (!(i instanceof ReferenceInstruction)) {
+                    continue;
+                }
+
+                Reference reference = ((ReferenceInstruction) i).getReference();
+                if (reference instanceof MethodReference) {
+                    String calleeName = toSignature((MethodReference) reference);
+                    callerMap.computeIfAbsent(calleeName, k -> new HashSet<>()).add(signature);
+                    calleeMap.computeIfAbsent(signature, k -> new HashSet<>()).add(calleeName);
+                } else if (reference instanceof FieldReference) {
+                    String fieldName = toSignature((FieldReference) reference);
+                    if (i.getOpcode().setsRegister()) { // iget and sget
+                        readFieldMap.computeIfAbsent(signature, k -> new HashSet<>()).add(fieldName);
+                    } else {
+                        fieldWriterMap.computeIfAbsent(fieldName, k -> new HashSet<>()).add(signature);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addMethod(String signature, HashSet<String> upMethods, ArrayDeque<String> upDeque, HashSet<String> downMethods, ArrayDeque<String> downDeque) {
+        if (upMethods.add(signature)) {
+            upDeque.add(signature);
+        }
+
+        if (downMethods.add(signature)) {
+            downDeque.add(signature);
+        }
+    }
+
+    private HashSet<String> getCallers(String signature) { // including the callers of the interface methods it implements, as in the call graph
+        HashSet<String> callers = new HashSet<>(callerMap.getOrDefault(signature, new HashSet<>()));
+        String className = getClassName(signature);
+        String subSignature = signature.substring(signature.indexOf(':') + 2, signature.length() - 1);
+
+        for (String s : interfaceMap.getOrDefault(className, new ArrayList<>())) {
+            String interfaceMethodName = String.format("<%s: %s>", s, subSignature);
+            callers.addAll(callerMap.getOrDefault(interfaceMethodName, new HashSet<>()));
+        }
+
+        return callers;
+    }
+
+    private static boolean isSignature(Reference reference, Set<String> classTypes, Collection<String> signatures) {
+        if (!(reference instanceof MethodReference)) {
+            return false;
+        }
+
+        MethodReference methodReference = (MethodReference) reference;
+
+        return classTypes.contains(methodReference.getDefiningClass()) && signatures.contains(toSignature(methodReference));
+    }
+
+    private static String getClassName(String signature) {
+        return signature.substring(1, signature.indexOf(':'));
+    }
+
+    private static String toSignature(MethodReference reference) { // same as SootMethod.getSignature
+        StringJoiner joiner = new StringJoiner(",");
+        for (CharSequence s : reference.getParameterTypes()) {
+            joiner.add(toTypeName(s.toString()));
+        }
+
+        return String.format("<%s: %s %s(%s)>", toTypeName(reference.getDefiningClass()), toTypeName(reference.getReturnType()), reference.getName(), joiner);
+    }
+
+    private static String toSignature(FieldReference reference) { // same as SootField.getSignature
+        return String.format("<%s: %s %s>", toTypeName(reference.getDefiningClass()), toTypeName(reference.getType()), reference.getName());
+    }
+
+    private static String toTypeName(String descriptor) { // ex: [Ljava/lang/String; to java.lang.String[]
+        int dimension = 0;
+        while (descriptor.charAt(dimension) == '[') {
+            dimension++;
+        }
+
+        String name;
+        char c = descriptor.charAt(dimension);
+        switch (c) {
+            case 'Z': {
+                name = "boolean";
+                break;
+            }
+
+            case 'B': {
+                name = "byte";
+                break;
+            }
+
+            case 'S': {
+                name = "short";
+                break;
+            }
+
+            case 'C': {
+                name = "char";
+                break;
+            }
+
+            case 'I': {
+                name = "int";
+                break;
+            }
+
+            case 'J': {
+                name = "long";
+                break;
+            }
+
+            case 'F': {
+                name = "float";
+                break;
+            }
+
+            case 'D': {
+                name = "double";
+                break;
+            }
+
+            case 'V': {
+                name = "void";
+                break;
+            }
+
+            default: {
+                name = descriptor.substring(dimension + 1, descriptor.length() - 1).replace('/', '.');
+                break;
+            }
+        }
+
+        StringBuilder builder = new StringBuilder(name);
+        for (int i = 0; i < dimension; i++) {
+            builder.append("[]");
+        }
+
+        return builder.toString();
+    }
+}
@@ -1,8 +1,11 @@
 package com.ccadroid.inspect;
 
+import com.ccadroid.AnalysisContext;
+import com.ccadroid.util.Argparse4j;
 import com.ccadroid.util.graph.CallGraph;
-import org.graphstream.graph.Edge;
-import org.graphstream.graph.Node;
+import com.ccadroid.util.graph.Edge;
+import com.ccadroid.util.graph.Node;
+import com.ccadroid.util.soot.MethodUnits;
 import soot.SootClass;
 import soot.SootMethod;
 import soot.Unit;
@@ -11,32 +14,38 @@ import soot.Value;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.ccadroid.util.soot.Soot.*;
 import static com.ccadroid.util.soot.SootUnit.*;
 
 public class CodeInspector {
-    private static final ApkParser apkParser;
-
-    static {
-        apkParser = ApkParser.getInstance();
-    }
+    private static final int MAX_CALLER_CHAINS = Argparse4j.getInt(Argparse4j.MAX_CALLER_CHAINS);
+    private static final int MAX_CHAIN_DEPTH = Argparse4j.getInt(Argparse4j.MAX_CHAIN_DEPTH);
 
+    private final AnalysisContext context;
     private final CallGraph callGraph;
     private final HashMap<String, Value> constantValueMap;
-    private final HashMap<Unit, Unit> switchTargetUnitMap;
-
-    private CodeInspector() {
+    private final ConcurrentHashMap<Unit, Unit> switchTargetUnitMap; // written in getWholeUnit, read by the slicing threads without its lock
+    private final HashMap<String, MethodUnits> methodUnitsMap;
+    private final HashMap<String, HashMap<Integer, Value>> constantUnitMap; // unit indexes to constants, replayed on rebuilt bodies
+    private final HashMap<Integer, ArrayList<String>> componentMethodMap; // pinned methods by call graph component
+    private int[] components;
+
+    public CodeInspector(AnalysisContext context) {
+        this.context = context;
         callGraph = new CallGraph();
         constantValueMap = new HashMap<>();
-        switchTargetUnitMap = new HashMap<>();
-    }
-
-    public static CodeInspector getInstance() {
-        return SingletonHolder.instance;
+        switchTargetUnitMap = new ConcurrentHashMap<>();
+        methodUnitsMap = new HashMap<>();
+        constantUnitMap = new HashMap<>();
+        componentMethodMap = new HashMap<>();
     }
 
     public void buildCallGraph() {
+        ApkParser apkParser = context.getApkParser();
+
         ArrayList<String> dexClassNames = apkParser.getDexClassNames();
 
         for (String dexClassName : dexClassNames) {
@@ -46,7 +55,7 @@ public class CodeInspector {
 
             for (SootMethod m : tempMethods) {
                 String callerName = m.toString();
-                Node caller = addNode(callerName, callerName);
+                Node caller = addNode(callerName);
                 boolean isConcrete = m.isConcrete();
                 callGraph.setConcrete(caller, isConcrete);
 
@@ -54,6 +63,10 @@ public class CodeInspector {
                     continue;
                 }
 
+                if (!apkParser.isReachableClassName(dexClassName)) { // its body is never converted
+                    continue;
+                }
+
                 if (!isConcrete) {
                     continue;
                 }
@@ -72,8 +85,10 @@ public class CodeInspector {
                     }
 
                     ArrayList<Unit> wholeUnit = getUnits(m);
+                    int unitCount = wholeUnit.size();
 
-                    for (Unit u : wholeUnit) {
+                    for (int i = 0; i < unitCount; i++) {
+                        Unit u = wholeUnit.get(i);
                         int unitType = getUnitType(u);
 
                         switch (unitType) {
@@ -86,7 +101,7 @@ public class CodeInspector {
                             case ASSIGN_INTERFACE_INVOKE:
                             case ASSIGN_SPECIAL_INVOKE: {
                                 String calleeName = getSignature(u);
-                                Node callee = addNode(calleeName, calleeName);
+                                Node callee = addNode(calleeName);
                                 addEdge(caller, callee, true);
                                 break;
                             }
@@ -115,11 +130,12 @@ public class CodeInspector {
 
                                 Value constant = constantValueMap.get(signature);
                                 if (constant == null) {
-                                    Node memberVar = addNode(signature, signature);
+                                    Node memberVar = addNode(signature);
                                     addEdge(caller, memberVar, false);
                                 } else {
                                     Value leftOp = getLeftOp(u, unitType);
                                     setAssignUnit(u, leftOp, constant);
+                                    constantUnitMap.computeIfAbsent(callerName, k -> new HashMap<>()).put(i, constant);
                                 }
 
                                 break;
@@ -132,17 +148,11 @@ public class CodeInspector {
                                     break;
                                 }
 
-                                Node memberVar = addNode(signature, signature);
+                                Node memberVar = addNode(signature);
                                 addEdge(caller, memberVar, false);
                                 break;
                             }
 
-                            case SWITCH: {
-                                ArrayList<Unit> targetUnits = getSwitchTargetUnits(u, unitType);
-                                targetUnits.forEach(unit -> switchTargetUnitMap.put(unit, u));
-                                break;
-                            }
-
                             default: {
                                 break;
                             }
@@ -160,34 +170,112 @@ public class CodeInspector {
     }
 
     public Node getInterfaceNode(Node node) {
-        return node.getAttribute(CallGraph.INTERFACE_NAME) == null ? null : getNode(callGraph.getInterfaceName(node));
+        String interfaceName = callGraph.getInterfaceName(node);
+
+        return (interfaceName == null) ? null : getNode(interfaceName);
+    }
+
+    public boolean isConcrete(Node node) {
+        return callGraph.isConcrete(node);
     }
 
     public List<Edge> getEdges(Node node) {
         return callGraph.getEdges(node);
     }
 
+    public synchronized int getComponent(String signature) { // criteria in different components never reach the same method or field while slicing
+        ApkParser apkParser = context.getApkParser();
+
+        if (components == null) {
+            components = callGraph.getWeakComponents(s -> !apkParser.isBuiltInClassName(getClassName(s)));
+        }
+
+        Node node = getNode(signature);
+
+        return (node == null) ? -1 : components[node.getIndex()];
+    }
+
     public Unit getSwitchUnit(Unit unit) {
         return switchTargetUnitMap.getOrDefault(unit, null);
     }
 
-    public ArrayList<Unit> getWholeUnit(String callerName) {
-        return getUnits(callerName);
+    public synchronized MethodUnits getWholeUnit(String callerName) { // shared by the slicing threads
+        MethodUnits wholeUnit = methodUnitsMap.get(callerName);
+        if (wholeUnit == null) {
+            ArrayList<Unit> units = getUnits(callerName);
+            setConstantUnits(callerName, units);
+            putSwitchTargetUnits(units);
+            wholeUnit = new MethodUnits(units);
+            methodUnitsMap.put(callerName, wholeUnit);
+
+            int component = getComponent(callerName);
+            if (component != -1) {
+                componentMethodMap.computeIfAbsent(component, k -> new ArrayList<>()).add(callerName);
+            }
+        }
+
+        return wholeUnit;
+    }
+
+    public synchronized ArrayList<String> releaseComponent(int component) { // once its last criterion is checked, no other criterion reaches its methods
+        ArrayList<String> callerNames = componentMethodMap.remove(component);
+        if (callerNames == null) {
+            return new ArrayList<>();
+        }
+
+        for (String s : callerNames) {
+            MethodUnits wholeUnit = methodUnitsMap.remove(s);
+            wholeUnit.forEach(switchTargetUnitMap::remove);
+        }
+
+        unpinBodies(callerNames);
+
+        return callerNames;
     }
 
     public ArrayList<ArrayList<String>> traverseCallers(String signature) {
-        return callGraph.getListOfIds(signature);
+        return callGraph.getListOfIds(signature, MAX_CALLER_CHAINS, MAX_CHAIN_DEPTH);
     }
 
-    private Node addNode(String id, String label) {
-        return callGraph.addNode(id, label);
+    public int getTruncatedCount() {
+        return callGraph.getTruncatedCount();
     }
 
-    private void addEdge(Node node1, Node node2, boolean isDirected) {
-        callGraph.addEdge(node1, node2, isDirected);
+    private void setConstantUnits(String callerName, ArrayList<Unit> units) { // the body may have been released since the call graph was built
+        HashMap<Integer, Value> map = constantUnitMap.get(callerName);
+        if (map == null) {
+            return;
+        }
+
+        for (Map.Entry<Integer, Value> e : map.entrySet()) {
+            int index = e.getKey();
+            if (index >= units.size()) {
+                continue;
+            }
+
+            Unit unit = units.get(index);
+            Value leftOp = getLeftOp(unit, ASSIGN);
+            setAssignUnit(unit, leftOp, e.getValue());
+        }
     }
 
-    private static class SingletonHolder {
-        private static final CodeInspector instance = new CodeInspector();
+    private void putSwitchTargetUnits(ArrayList<Unit> units) {
+        for (Unit u : units) {
+            int unitType = getUnitType(u);
+            if (unitType != SWITCH) {
+                continue;
+            }
+
+            ArrayList<Unit> targetUnits = getSwitchTargetUnits(u, unitType);
+            targetUnits.forEach(unit -> switchTargetUnitMap.put(unit, u));
+        }
+    }
+
+    private Node addNode(String id) {
+        return callGraph.addNode(id);
+    }
+
+    private void addEdge(Node node1, Node node2, boolean isDirected) {
+        callGraph.addEdge(node1, node2, isDirected);
     }
 }
\ No newline at end of file
@@ -1,11 +1,12 @@
 package com.ccadroid.inspect;
 
+import com.ccadroid.AnalysisContext;
+import com.ccadroid.check.Rule;
 import com.ccadroid.check.RuleChecker;
 import com.ccadroid.slice.CodeOptimizer;
-import org.graphstream.graph.Edge;
-import org.graphstream.graph.Node;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.ccadroid.util.graph.Edge;
+import com.ccadroid.util.graph.Node;
+import com.ccadroid.util.soot.MethodUnits;
 import soot.SootClass;
 import soot.SootMethod;
 import soot.Unit;
@@ -13,42 +14,41 @@ import soot.Value;
 
 import java.util.*;
 
-import static com.ccadroid.check.RuleConstant.SLICING_SIGNATURES;
 import static com.ccadroid.util.soot.Soot.getSootClass;
 import static com.ccadroid.util.soot.Soot.hasInterface;
 import static com.ccadroid.util.soot.SootUnit.*;
 
 public class SlicingCriteriaGenerator {
-    private static final ApkParser apkParser;
-    private static final CodeInspector codeInspector;
-    private static final CodeOptimizer codeOptimizer;
-    private static final RuleChecker ruleChecker;
-
-    static {
-        apkParser = ApkParser.getInstance();
-        codeInspector = CodeInspector.getInstance();
-        codeOptimizer = CodeOptimizer.getInstance();
-        ruleChecker = RuleChecker.getInstance();
-    }
-
-    private final HashMap<String, ArrayList<Unit>> targetUnitMap;
+    private final AnalysisContext context;
+    private final SlicingCriteriaGenerator parent;
+    private final HashMap<String, MethodUnits> targetUnitMap;
     private final HashMap<String, SlicingCriterion> slicingCriterionMap;
     private final List<String> targetReturnTypes;
 
-    public SlicingCriteriaGenerator() {
+    public SlicingCriteriaGenerator(AnalysisContext context) {
+        this.context = context;
+        parent = null;
         targetUnitMap = new HashMap<>();
         slicingCriterionMap = new HashMap<>();
         targetReturnTypes = Arrays.asList("java.lang.String", "javax.crypto.SecretKey", "javax.crypto.Cipher", "javax.crypto.Mac");
     }
 
-    public static SlicingCriteriaGenerator getInstance() {
-        return SingletonHolder.instance;
+    public SlicingCriteriaGenerator(AnalysisContext context, SlicingCriteriaGenerator parent) {
+        this.context = context;
+        this.parent = parent;
+        targetUnitMap = parent.targetUnitMap;
+        slicingCriterionMap = new HashMap<>();
+        targetReturnTypes = parent.targetReturnTypes;
     }
 
     public ArrayList<SlicingCriterion> createSlicingCriteria() {
+        ApkParser apkParser = context.getApkParser();
+        CodeInspector codeInspector = context.getCodeInspector();
+        RuleChecker ruleChecker = context.getRuleChecker();
+
         ArrayList<SlicingCriterion> slicingCriteria = new ArrayList<>();
         HashMap<String, ArrayList<ArrayList<String>>> listOfCallersMap = new HashMap<>();
-        ArrayList<JSONObject> rules = ruleChecker.getRules();
+        ArrayList<Rule> rules = ruleChecker.getRules();
         ArrayList<SlicingCriterion> candidates = getSlicingCandidates(rules);
         for (SlicingCriterion c : candidates) {
             String targetSignature = c.getTargetStatement();
@@ -92,6 +92,9 @@ public class SlicingCriteriaGenerator {
     }
 
     public ArrayList<SlicingCriterion> createSlicingCriteria(String callerName, String targetStatement, int targetUnitType, ArrayList<Integer> targetParamNumbers) {
+        ApkParser apkParser = context.getApkParser();
+        CodeInspector codeInspector = context.getCodeInspector();
+
         ArrayList<SlicingCriterion> slicingCriteria = new ArrayList<>();
 
         String targetReturnType = ((!targetStatement.isEmpty() && targetUnitType == INVOKE) || targetUnitType == ASSIGN_VARIABLE_SIGNATURE) ? getReturnType(targetStatement) : (targetUnitType == RETURN_VALUE) ? getReturnType(callerName) : null;
@@ -99,20 +102,12 @@ public class SlicingCriteriaGenerator {
             return slicingCriteria;
         }
 
-        ArrayList<Unit> wholeUnit = codeInspector.getWholeUnit(callerName);
-        if (wholeUnit == null || wholeUnit.isEmpty()) {
+        MethodUnits wholeUnit = codeInspector.getWholeUnit(callerName);
+        if (wholeUnit.isEmpty()) {
             return slicingCriteria;
         }
 
-        ArrayList<Unit> targetUnits = targetUnitMap.getOrDefault(callerName, new ArrayList<>(wholeUnit));
-        if (wholeUnit.hashCode() == targetUnits.hashCode()) {
-            codeOptimizer.runPointerAnalysis(callerName, targetUnits);
-            codeOptimizer.removeUnreachableUnits(targetUnits);
-            codeOptimizer.preModifyUnits(targetUnits);
-            Collections.reverse(targetUnits);
-            targetUnitMap.put(callerName, targetUnits);
-        }
-
+        MethodUnits targetUnits = getTargetUnits(callerName, wholeUnit);
         int targetUnitCount = targetUnits.size();
         for (int i = targetUnitCount - 1; i > -1; i--) {
             Unit unit = targetUnits.get(i);
@@ -198,7 +193,15 @@ public class SlicingCriteriaGenerator {
     }
 
     public SlicingCriterion getSlicingCriterion(String id) {
-        return slicingCriterionMap.get(id);
+        SlicingCriterion slicingCriterion = slicingCriterionMap.get(id);
+
+        return (slicingCriterion == null && parent != null) ? parent.getSlicingCriterion(id) : slicingCriterion; // the parent is not changed while forks slice
+    }
+
+    public void releaseTargetUnits(List<String> callerNames) {
+        synchronized (targetUnitMap) {
+            callerNames.forEach(targetUnitMap::remove);
+        }
     }
 
     public SlicingCriterion updateSlicingCriterion(SlicingCriterion slicingCriterion, int targetUnitIndex, HashSet<Value> targetVariables) {
@@ -213,24 +216,40 @@ public class SlicingCriteriaGenerator {
         return criterion;
     }
 
-    private ArrayList<SlicingCriterion> getSlicingCandidates(ArrayList<JSONObject> rules) {
-        ArrayList<SlicingCriterion> candidates = new ArrayList<>();
+    private MethodUnits getTargetUnits(String callerName, MethodUnits wholeUnit) {
+        CodeOptimizer codeOptimizer = context.getCodeOptimizer();
 
-        for (JSONObject root : rules) {
-            JSONObject signatures = root.getJSONObject(SLICING_SIGNATURES);
-            if (signatures == null) {
-                continue;
+        MethodUnits targetUnits;
+        synchronized (targetUnitMap) { // shared with the forks, which preprocess the methods of their own component
+            targetUnits = targetUnitMap.get(callerName);
+        }
+
+        if (targetUnits == null) {
+            context.awaitTurn();
+
+            ArrayList<Unit> units = wholeUnit.toList();
+            codeOptimizer.runPointerAnalysis(callerName, wholeUnit);
+            codeOptimizer.removeUnreachableUnits(wholeUnit, units);
+            codeOptimizer.preModifyUnits(units);
+            Collections.reverse(units);
+            targetUnits = new MethodUnits(units);
+
+            synchronized (targetUnitMap) {
+                targetUnitMap.put(callerName, targetUnits);
             }
+        }
 
-            Iterator<String> keys = signatures.keys();
-            while (keys.hasNext()) {
-                String signature = keys.next();
-                ArrayList<Integer> paramNumbers = new ArrayList<>();
-                JSONArray jsonArr = signatures.getJSONArray(signature);
-                for (int i = 0; i < jsonArr.length(); i++) {
-                    int paramNum = jsonArr.getInt(i);
-                    paramNumbers.add(paramNum);
-                }
+        return targetUnits;
+    }
+
+    private ArrayList<SlicingCriterion> getSlicingCandidates(ArrayList<Rule> rules) {
+        ArrayList<SlicingCriterion> candidates = new ArrayList<>();
+
+        for (Rule rule : rules) {
+            Map<String, List<Integer>> signatures = rule.getSlicingSignatures();
+            for (Map.Entry<String, List<Integer>> e : signatures.entrySet()) {
+                String signature = e.getKey();
+                ArrayList<Integer> paramNumbers = new ArrayList<>(e.getValue());
 
                 SlicingCriterion slicingCriterion = new SlicingCriterion();
                 slicingCriterion.setTargetStatement(signature);
@@ -253,6 +272,8 @@ public class SlicingCriteriaGenerator {
     }
 
     private void removeUnreachableCallers(ArrayList<ArrayList<String>> listOfCallers) {
+        ApkParser apkParser = context.getApkParser();
+
         ArrayList<ArrayList<String>> callers = new ArrayList<>();
 
         for (ArrayList<String> l : listOfCallers) {
@@ -272,8 +293,4 @@ public class SlicingCriteriaGenerator {
 
         listOfCallers.removeAll(callers);
     }
-
-    private static class SingletonHolder {
-        private static final SlicingCriteriaGenerator instance = new SlicingCriteriaGenerator();
-    }
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package com.ccadroid.inspect;
 
-import soot.Unit;
+import com.ccadroid.util.soot.MethodUnits;
 import soot.Value;
 
 import java.util.ArrayList;
@@ -13,7 +13,7 @@ public class SlicingCriterion implements Cloneable {
     private int targetUnitIndex;
     private ArrayList<Integer> targetParamNumbers;
     private Collection<Value> targetVariables;
-    private ArrayList<Unit> targetUnits;
+    private MethodUnits targetUnits;
 
     public String getId() {
         return (id == null) ? String.valueOf(hashCode()) : id;
@@ -63,11 +63,11 @@ public class SlicingCriterion implements Cloneable {
         this.targetVariables = targetVariables;
     }
 
-    public ArrayList<Unit> getTargetUnits() {
+    public MethodUnits getTargetUnits() {
         return targetUnits;
     }
 
-    public void setTargetUnits(ArrayList<Unit> targetUnits) {
+    public void setTargetUnits(MethodUnits targetUnits) {
         this.targetUnits = targetUnits;
     }
 
@@ -0,0 +1,81 @@
+package com.ccadroid.report;
+
+import com.ccadroid.slice.SliceLine;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.ccadroid.report.ReportConstant.*;
+import static com.ccadroid.slice.SliceConstant.LINE_NUMBER;
+import static com.ccadroid.slice.SliceConstant.UNIT_STRING;
+import static com.ccadroid.slice.SliceConstant.UNIT_TYPE;
+
+public class Finding {
+    private final String ruleId;
+    private final String description;
+    private final String callerName;
+    private final String targetStatement;
+    private final List<SliceLine> targetLines;
+
+    public Finding(String ruleId, String description, String callerName, String targetStatement, List<SliceLine> targetLines) {
+        this.ruleId = ruleId;
+        this.description = description;
+        this.callerName = callerName;
+        this.targetStatement = targetStatement;
+        this.targetLines = Collections.unmodifiableList(new ArrayList<>(targetLines));
+    }
+
+    public Finding(JSONObject finding) { // as written by JsonLinesFormat
+        ruleId = finding.getString(RULE_ID);
+        description = finding.getString(DESCRIPTION);
+        callerName = finding.getString(CALLER_NAME);
+        targetStatement = finding.getString(TARGET_STATEMENT);
+
+        ArrayList<SliceLine> lines = new ArrayList<>();
+        JSONArray arr = finding.getJSONArray(TARGET_LINES);
+        for (int i = 0; i < arr.length(); i++) {
+            JSONObject line = arr.getJSONObject(i);
+            lines.add(new SliceLine(line.getString(UNIT_STRING), line.getInt(UNIT_TYPE), line.getString(CALLER_NAME), line.getInt(LINE_NUMBER)));
+        }
+
+        targetLines = Collections.unmodifiableList(lines);
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getCallerName() {
+        return callerName;
+    }
+
+    public String getTargetStatement() {
+        return targetStatement;
+    }
+
+    public List<SliceLine> getTargetLines() {
+        return targetLines;
+    }
+
+    public JSONObject toJSONObject() {
+        JSONObject finding = new JSONObject();
+
+        finding.put(RULE_ID, ruleId);
+        finding.put(DESCRIPTION, description);
+        finding.put(CALLER_NAME, callerName);
+        finding.put(TARGET_STATEMENT, targetStatement);
+
+        JSONArray lines = new JSONArray();
+        targetLines.forEach(l -> lines.put(l.toJSONObject()));
+        finding.put(TARGET_LINES, lines);
+
+        return finding;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ccadroid.report;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import static com.ccadroid.report.ReportConstant.APK;
+
+public class JsonLinesFormat implements ResultFormat {
+    private String apkPath;
+
+    @Override
+    public boolean isAppendable() {
+        return true;
+    }
+
+    @Override
+    public void begin(Writer writer) {
+
+    }
+
+    @Override
+    public void beginApk(Writer writer, String apkPath) {
+        this.apkPath = apkPath;
+    }
+
+    @Override
+    public void write(Writer writer, Finding finding) throws IOException {
+        JSONObject obj = finding.toJSONObject();
+        obj.put(APK, apkPath);
+
+        writer.write(obj.toString());
+        writer.write("\n");
+    }
+
+    @Override
+    public void endApk(Writer writer) {
+        apkPath = null;
+    }
+
+    @Override
+    public void end(Writer writer) {
+
+    }
+}
@@ -0,0 +1,159 @@
+package com.ccadroid.report;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.ccadroid.report.ReportConstant.*;
+
+public class Profiler {
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private static final List<MemoryPoolMXBean> memoryPoolMXBeans = ManagementFactory.getMemoryPoolMXBeans();
+    private final LinkedHashMap<String, PhaseStats> phaseMap;
+    private final LinkedHashMap<String, LinkedHashMap<String, PhaseStats>> criterionMap;
+    private final LinkedHashMap<String, Long> countMap;
+    private final long startTime;
+
+    public Profiler() {
+        phaseMap = new LinkedHashMap<>();
+        criterionMap = new LinkedHashMap<>();
+        countMap = new LinkedHashMap<>();
+        startTime = System.nanoTime();
+
+        resetPeakHeap();
+    }
+
+    public Sample start() {
+        return new Sample();
+    }
+
+    public synchronized void stop(String phase, Sample sample) { // top-level phases run one after another
+        PhaseStats stats = phaseMap.computeIfAbsent(phase, k -> new PhaseStats());
+        stats.add(sample, getPeakHeap());
+
+        resetPeakHeap();
+    }
+
+    public synchronized void stop(String phase, String criterionId, Sample sample) { // shared by the slicing threads
+        PhaseStats stats1 = phaseMap.computeIfAbsent(phase, k -> new PhaseStats());
+        stats1.add(sample, getPeakHeap()); // since the enclosing top-level phase started
+
+        LinkedHashMap<String, PhaseStats> map = criterionMap.computeIfAbsent(criterionId, k -> new LinkedHashMap<>());
+        PhaseStats stats2 = map.computeIfAbsent(phase, k -> new PhaseStats());
+        stats2.add(sample, -1); // the heap is shared by the concurrent criteria, so it has no peak of its own
+    }
+
+    public synchronized void setCount(String name, long value) {
+        countMap.put(name, value);
+    }
+
+    public synchronized JSONObject toJSONObject() {
+        JSONObject profile = new JSONObject();
+        profile.put(WALL_TIME, toMillis(System.nanoTime() - startTime));
+
+        JSONObject phases = new JSONObject();
+        phaseMap.forEach((k, v) -> phases.put(k, v.toJSONObject()));
+        profile.put(PHASES, phases);
+
+        JSONArray criteria = new JSONArray();
+        for (Map.Entry<String, LinkedHashMap<String, PhaseStats>> e : criterionMap.entrySet()) {
+            JSONObject criterion = new JSONObject();
+            criterion.put(CRITERION_ID, e.getKey());
+            e.getValue().forEach((k, v) -> criterion.put(k, v.toJSONObject()));
+            criteria.put(criterion);
+        }
+
+        profile.put(CRITERIA, criteria);
+        profile.put(COUNTS, new JSONObject(countMap));
+
+        return profile;
+    }
+
+    private static long getCpuTime() {
+        return threadMXBean.isCurrentThreadCpuTimeSupported() ? threadMXBean.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long getAllocatedBytes() {
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+
+        return bean.isThreadAllocatedMemorySupported() ? bean.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    private static long getPeakHeap() {
+        long peakHeap = 0;
+        for (MemoryPoolMXBean b : memoryPoolMXBeans) {
+            if (b.getType() == MemoryType.HEAP) {
+                peakHeap += b.getPeakUsage().getUsed();
+            }
+        }
+
+        return peakHeap;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean b : memoryPoolMXBeans) {
+            if (b.getType() == MemoryType.HEAP) {
+                b.resetPeakUsage();
+            }
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+
+    public static class Sample {
+        private final long wallTime;
+        private final long cpuTime;
+        private final long allocatedBytes;
+
+        private Sample() {
+            wallTime = System.nanoTime();
+            cpuTime = getCpuTime();
+            allocatedBytes = getAllocatedBytes();
+        }
+    }
+
+    private static class PhaseStats {
+        private int count;
+        private long wallTime;
+        private long cpuTime;
+        private long allocatedBytes;
+        private long peakHeap = -1;
+
+        private void add(Sample sample, long peakHeap) { // on the thread which took the sample
+            long cpuTime = getCpuTime();
+            long allocatedBytes = getAllocatedBytes();
+
+            count++;
+            wallTime += System.nanoTime() - sample.wallTime;
+            this.cpuTime += (cpuTime == -1 || sample.cpuTime == -1) ? 0 : cpuTime - sample.cpuTime;
+            this.allocatedBytes += (allocatedBytes == -1 || sample.allocatedBytes == -1) ? 0 : allocatedBytes - sample.allocatedBytes;
+            this.peakHeap = Math.max(this.peakHeap, peakHeap);
+        }
+
+        private JSONObject toJSONObject() {
+            JSONObject stats = new JSONObject();
+            stats.put(COUNT, count);
+            stats.put(WALL_TIME, toMillis(wallTime));
+            stats.put(CPU_TIME, toMillis(cpuTime));
+            stats.put(ALLOCATED_BYTES, allocatedBytes);
+            if (peakHeap != -1) {
+                stats.put(PEAK_HEAP, peakHeap);
+            }
+
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ccadroid.report;
+
+public class ReportConstant {
+    public static final String TEXT = "text";
+    public static final String JSON_LINES = "jsonl";
+    public static final String SARIF = "sarif";
+    public static final String LOAD_APK = "loadApk";
+    public static final String PRUNE_CLASSES = "pruneClasses";
+    public static final String LOAD_CLASSES = "loadClasses";
+    public static final String BUILD_CALL_GRAPH = "buildCallGraph";
+    public static final String CREATE_SLICING_CRITERIA = "createSlicingCriteria";
+    public static final String ANALYZE_SLICING_CRITERIA = "analyzeSlicingCriteria";
+    public static final String SLICE_STATEMENTS = "sliceStatements";
+    public static final String MERGE_SLICES = "mergeSlices";
+    public static final String CHECK_RULES = "checkRules";
+    public static final String CRITERION_COUNT = "criteria";
+    public static final String INSERT_COUNT = "slicesInserted";
+    public static final String OVERWRITE_COUNT = "slicesOverwritten";
+    public static final String MERGE_COUNT = "mergedPaths";
+    public static final String TRUNCATE_COUNT = "truncatedCallerChains";
+    public static final String FOLD_COUNT = "branchesFolded";
+    public static final String FOUND_COUNT = "findings";
+    public static final String RELEASE_COUNT = "bodiesReleased";
+    public static final String REACHABLE_CLASS_COUNT = "reachableClasses";
+    public static final String PROFILES = "apks";
+    public static final String APK = "apk";
+    public static final String PHASES = "phases";
+    public static final String COUNTS = "counts";
+    public static final String WALL_TIME = "wallTimeMs";
+    public static final String PEAK_HEAP = "peakHeapBytes";
+    protected static final String RULE_ID = "ruleId";
+    protected static final String DESCRIPTION = "description";
+    protected static final String CALLER_NAME = "callerName";
+    protected static final String TARGET_STATEMENT = "targetStatement";
+    protected static final String TARGET_LINES = "targetLines";
+    protected static final String CRITERIA = "criteria";
+    protected static final String CRITERION_ID = "criterionId";
+    protected static final String COUNT = "count";
+    protected static final String CPU_TIME = "cpuTimeMs";
+    protected static final String ALLOCATED_BYTES = "allocatedBytes";
+}
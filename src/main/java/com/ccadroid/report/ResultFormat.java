@@ -0,0 +1,35 @@
+package com.ccadroid.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public interface ResultFormat {
+
+    static ResultFormat create(String name, boolean isBatch) {
+        switch (name) {
+            case ReportConstant.JSON_LINES: {
+                return new JsonLinesFormat();
+            }
+
+            case ReportConstant.SARIF: {
+                return new SarifFormat();
+            }
+
+            default: {
+                return new TextFormat(isBatch);
+            }
+        }
+    }
+
+    boolean isAppendable(); // whether a new run may be appended to an existing output file
+
+    void begin(Writer writer) throws IOException;
+
+    void beginApk(Writer writer, String apkPath) throws IOException;
+
+    void write(Writer writer, Finding finding) throws IOException;
+
+    void endApk(Writer writer) throws IOException;
+
+    void end(Writer writer) throws IOException;
+}
@@ -0,0 +1,92 @@
+package com.ccadroid.report;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+public class ResultSink {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long FLUSH_INTERVAL = 1000L; // ms
+    private final ResultFormat format;
+    private final FileOutputStream outputStream;
+    private final Writer writer;
+    private long lastFlushTime;
+
+    public ResultSink(String outputPath, ResultFormat format) {
+        this.format = format;
+
+        try {
+            if (outputPath == null) {
+                outputStream = null;
+                writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            } else {
+                outputStream = new FileOutputStream(outputPath, format.isAppendable());
+                writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+            }
+
+            format.begin(writer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        lastFlushTime = System.currentTimeMillis();
+    }
+
+    public synchronized void beginApk(String apkPath) { // shared by the analysis threads
+        try {
+            format.beginApk(writer, apkPath);
+            flushIfNeeded();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public synchronized void write(Finding finding) {
+        try {
+            format.write(writer, finding);
+            flushIfNeeded();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public synchronized void endApk() {
+        try {
+            format.endApk(writer);
+            sync();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public synchronized void close() {
+        try {
+            format.end(writer);
+            sync();
+            if (outputStream == null) {
+                return;
+            }
+
+            writer.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void flushIfNeeded() throws IOException {
+        long currentTime = System.currentTimeMillis();
+        if (outputStream != null && currentTime - lastFlushTime < FLUSH_INTERVAL) {
+            return;
+        }
+
+        writer.flush(); // the console keeps the order with the log lines
+        lastFlushTime = currentTime;
+    }
+
+    private void sync() throws IOException {
+        writer.flush();
+        lastFlushTime = System.currentTimeMillis();
+        if (outputStream != null) {
+            outputStream.getFD().sync();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.ccadroid.report;
+
+import com.ccadroid.slice.SliceLine;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import static com.ccadroid.report.ReportConstant.TARGET_STATEMENT;
+
+public class SarifFormat implements ResultFormat { // one run per APK, written as the results come
+    private static final String SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    private static final String VERSION = "2.1.0";
+    private static final String TOOL_NAME = "CCA-Droid";
+    private static final String TOOL_URI = "https://github.com/AndroidSeclab/CCA-Droid";
+    private String artifactUri;
+    private boolean hasRun;
+    private boolean hasResult;
+
+    @Override
+    public boolean isAppendable() {
+        return false;
+    }
+
+    @Override
+    public void begin(Writer writer) throws IOException {
+        writer.write("{\"$schema\":");
+        writer.write(JSONObject.quote(SCHEMA));
+        writer.write(",\"version\":");
+        writer.write(JSONObject.quote(VERSION));
+        writer.write(",\"runs\":[");
+    }
+
+    @Override
+    public void beginApk(Writer writer, String apkPath) throws IOException {
+        artifactUri = (apkPath == null) ? null : new File(apkPath).toURI().toString();
+
+        JSONObject driver = new JSONObject();
+        driver.put("name", TOOL_NAME);
+        driver.put("informationUri", TOOL_URI);
+        JSONObject tool = new JSONObject();
+        tool.put("driver", driver);
+
+        writer.write(hasRun ? ",{" : "{");
+        writer.write("\"tool\":");
+        writer.write(tool.toString());
+        if (artifactUri != null) {
+            JSONArray artifacts = new JSONArray();
+            artifacts.put(new JSONObject().put("location", getArtifactLocation()));
+            writer.write(",\"artifacts\":");
+            writer.write(artifacts.toString());
+        }
+
+        writer.write(",\"results\":[");
+        hasRun = true;
+        hasResult = false;
+    }
+
+    @Override
+    public void write(Writer writer, Finding finding) throws IOException {
+        JSONObject result = new JSONObject();
+        result.put("ruleId", finding.getRuleId());
+        result.put("level", "warning");
+        result.put("message", new JSONObject().put("text", finding.getDescription()));
+
+        JSONObject location = new JSONObject();
+        if (artifactUri != null) {
+            location.put("physicalLocation", new JSONObject().put("artifactLocation", getArtifactLocation()));
+        }
+
+        location.put("logicalLocations", new JSONArray().put(getLogicalLocation(finding.getCallerName())));
+        result.put("locations", new JSONArray().put(location));
+
+        JSONArray relatedLocations = new JSONArray();
+        List<SliceLine> lines = finding.getTargetLines();
+        for (int i = 0; i < lines.size(); i++) {
+            SliceLine l = lines.get(i);
+            JSONObject relatedLocation = new JSONObject();
+            relatedLocation.put("id", i);
+            relatedLocation.put("message", new JSONObject().put("text", l.getUnitString()));
+            relatedLocation.put("logicalLocations", new JSONArray().put(getLogicalLocation(l.getCallerName())));
+            relatedLocations.put(relatedLocation);
+        }
+
+        result.put("relatedLocations", relatedLocations);
+        result.put("properties", new JSONObject().put(TARGET_STATEMENT, finding.getTargetStatement()));
+
+        writer.write(hasResult ? "," : "");
+        writer.write(result.toString());
+        hasResult = true;
+    }
+
+    @Override
+    public void endApk(Writer writer) throws IOException {
+        writer.write("]}");
+        artifactUri = null;
+    }
+
+    @Override
+    public void end(Writer writer) throws IOException {
+        writer.write("]}\n");
+    }
+
+    private JSONObject getArtifactLocation() {
+        return new JSONObject().put("uri", artifactUri);
+    }
+
+    private JSONObject getLogicalLocation(String signature) {
+        JSONObject logicalLocation = new JSONObject();
+        logicalLocation.put("fullyQualifiedName", signature);
+        logicalLocation.put("kind", "function");
+
+        return logicalLocation;
+    }
+}
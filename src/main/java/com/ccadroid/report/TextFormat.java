@@ -0,0 +1,71 @@
+package com.ccadroid.report;
+
+import com.ccadroid.slice.SliceLine;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public class TextFormat implements ResultFormat {
+    private static final String SEPARATOR = "=======================================\n";
+    private final boolean hasApkHeader;
+
+    public TextFormat(boolean hasApkHeader) {
+        this.hasApkHeader = hasApkHeader;
+    }
+
+    @Override
+    public boolean isAppendable() {
+        return true;
+    }
+
+    @Override
+    public void begin(Writer writer) {
+
+    }
+
+    @Override
+    public void beginApk(Writer writer, String apkPath) throws IOException {
+        if (!hasApkHeader) {
+            return;
+        }
+
+        writer.write("[*] APK: ");
+        writer.write(apkPath);
+        writer.write("\n");
+    }
+
+    @Override
+    public void write(Writer writer, Finding finding) throws IOException {
+        writer.write(SEPARATOR);
+        writeField(writer, "[*] Rule ID: ", finding.getRuleId());
+        writeField(writer, "[*] Description: ", finding.getDescription());
+        writeField(writer, "[*] Caller name: ", finding.getCallerName());
+        writeField(writer, "[*] Target statement: ", finding.getTargetStatement());
+        writer.write("[*] Target lines:\n");
+        for (SliceLine l : finding.getTargetLines()) {
+            writer.write(l.getUnitString());
+            writer.write(", callerName=");
+            writer.write(l.getCallerName());
+            writer.write("\n");
+        }
+
+        writer.write(SEPARATOR);
+        writer.write("\n");
+    }
+
+    @Override
+    public void endApk(Writer writer) {
+
+    }
+
+    @Override
+    public void end(Writer writer) {
+
+    }
+
+    private void writeField(Writer writer, String name, String value) throws IOException {
+        writer.write(name);
+        writer.write(String.valueOf(value));
+        writer.write("\n");
+    }
+}
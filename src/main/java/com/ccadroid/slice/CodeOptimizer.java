@@ -1,9 +1,9 @@
 package com.ccadroid.slice;
 
+import com.ccadroid.AnalysisContext;
 import com.ccadroid.inspect.CodeInspector;
-import com.ccadroid.util.ChocoSolver;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.ccadroid.util.ConstantFolder;
+import com.ccadroid.util.soot.MethodUnits;
 import soot.*;
 import soot.jimple.IntConstant;
 import soot.jimple.Jimple;
@@ -13,42 +13,46 @@ import soot.jimple.internal.*;
 import soot.util.Chain;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-import static com.ccadroid.slice.SliceConstant.*;
 import static com.ccadroid.util.Common.isNumber;
 import static com.ccadroid.util.soot.Soot.*;
 import static com.ccadroid.util.soot.SootUnit.*;
 
 public class CodeOptimizer {
-    private static final CodeInspector codeInspector;
-    private static final ProgramSlicer programSlicer;
-    private static final SliceDatabase sliceDatabase;
-
-    static {
-        codeInspector = CodeInspector.getInstance();
-        programSlicer = ProgramSlicer.getInstance();
-        sliceDatabase = SliceDatabase.getInstance();
-    }
-
+    private final AnalysisContext context;
     private final HashMap<Value, Value> aliasingVariableMap;
     private final HashMap<String, Integer> variableCountMap;
+    private final AtomicInteger foldCount; // per APK, also in batch mode
 
-    public CodeOptimizer() {
+    public CodeOptimizer(AnalysisContext context) {
+        this.context = context;
         aliasingVariableMap = new HashMap<>();
         variableCountMap = new HashMap<>();
+        foldCount = new AtomicInteger();
+    }
+
+    public CodeOptimizer(AnalysisContext context, CodeOptimizer parent) { // for a fork, which preprocesses methods only in its turn
+        this.context = context;
+        aliasingVariableMap = parent.aliasingVariableMap;
+        variableCountMap = parent.variableCountMap;
+        foldCount = parent.foldCount;
     }
 
-    public static CodeOptimizer getInstance() {
-        return SingletonHolder.instance;
+    public int getFoldCount() {
+        return foldCount.get();
     }
 
-    public void runPointerAnalysis(String callerName, ArrayList<Unit> wholeUnit) {
+    public void runPointerAnalysis(String callerName, MethodUnits wholeUnit) {
         ArrayList<Integer> indexes = new ArrayList<>();
-        ArrayList<Unit> aliasedUnits = getAliasedUnits(wholeUnit);
+        ArrayList<Unit> aliasedUnits = getAliasedUnits(wholeUnit.asList());
 
         for (int i = 0; i < wholeUnit.size(); i++) {
             Unit unit = wholeUnit.get(i);
@@ -66,8 +70,7 @@ public class CodeOptimizer {
                 setIfCondition(unit, condition, tempValues);
 
                 if (isIfElseStatement(wholeUnit, unit, unitType)) {
-                    Unit targetUnit = getIfGotoTargetUnit(unit, unitType);
-                    int j = wholeUnit.indexOf(targetUnit);
+                    int j = wholeUnit.getTargetIndex(i);
                     IntStream.range(i, j + 1).forEach(indexes::add);
                 }
             }
@@ -146,6 +149,7 @@ public class CodeOptimizer {
     public void preModifyUnits(ArrayList<Unit> wholeUnit) {
         ArrayList<Value> callerParameters = new ArrayList<>();
         HashMap<Value, String> targetValueMap = new HashMap<>();
+        MethodUnits methodUnits = new MethodUnits(wholeUnit);
 
         for (Unit u : wholeUnit) {
             int unitType = getUnitType(u);
@@ -209,8 +213,8 @@ public class CodeOptimizer {
                 Value rightOp = getRightOp(u, unitType);
                 targetValueMap.put(leftOp, convertToStr(rightOp));
             } else if (unitType == IF || unitType == GOTO) {
-                int unitIndex = wholeUnit.indexOf(u);
-                int gotoUnitIndex = getTargetUnitIndex(wholeUnit, u, unitType);
+                int unitIndex = methodUnits.indexOf(u);
+                int gotoUnitIndex = getTargetUnitIndex(methodUnits, u, unitType);
                 int startUnitIndex = unitIndex + 1;
                 int endUnitIndex = gotoUnitIndex - 1;
                 ArrayList<Unit> units = new ArrayList<>();
@@ -229,25 +233,28 @@ public class CodeOptimizer {
                 ArrayList<String> randomSignatures = getRandomSignatures();
                 if (hasSignature(units, randomSignatures)) {
                     IntStream.range(startUnitIndex, endUnitIndex).forEach(i -> wholeUnit.set(i, getNopStmt()));
+                    methodUnits = new MethodUnits(wholeUnit); // replaced units are no longer branch targets
                 }
             }
         }
     }
 
-    public void removeUnreachableUnits(ArrayList<Unit> wholeUnit) {
+    public void removeUnreachableUnits(MethodUnits wholeUnit, ArrayList<Unit> targetUnits) {
         ArrayList<Unit> tempUnits = getUnreachableUnits(wholeUnit, wholeUnit, new HashMap<>());
-        tempUnits.forEach(wholeUnit::remove);
+        Set<Unit> unreachableUnits = Collections.newSetFromMap(new IdentityHashMap<>());
+        unreachableUnits.addAll(tempUnits);
+        targetUnits.removeIf(unreachableUnits::contains);
     }
 
-    public void removeUselessStatement(ArrayList<Unit> units, ArrayList<JSONObject> contents) {
-        ArrayList<JSONObject> tempContents = new ArrayList<>();
+    public void removeUselessStatement(ArrayList<Unit> units, List<SliceLine> contents) {
+        ArrayList<SliceLine> tempContents = new ArrayList<>();
 
         for (int i = 0; i < units.size(); i++) {
             Unit unit = units.get(i);
             int unitType = getUnitType(unit);
 
             if (unitType == NOP) {
-                JSONObject line = contents.get(i);
+                SliceLine line = contents.get(i);
                 tempContents.add(line);
             }
         }
@@ -256,6 +263,9 @@ public class CodeOptimizer {
     }
 
     public void postModifyUnits(ArrayList<Unit> units) {
+        ProgramSlicer programSlicer = context.getProgramSlicer();
+        SliceDatabase sliceDatabase = context.getSliceDatabase();
+
         HashMap<Value, String> targetValueMap = new HashMap<>();
 
         for (Unit u : units) {
@@ -267,13 +277,13 @@ public class CodeOptimizer {
             if ((unitType & INVOKE) == INVOKE) {
                 String unitString = u.toString();
                 String signature = getSignature(unitString);
-                List<String> query = List.of(String.format("%s==%s", CALLER_NAME, signature), String.format("%s==return", TARGET_STATEMENT), String.format("%s!=null", CONTENTS));
-                JSONObject result = sliceDatabase.selectOne(query);
+                SliceQuery query = new SliceQuery().callerName(signature).targetStatement("return").hasContents(true);
+                Slice result = sliceDatabase.selectOne(query);
                 if (result == null) {
                     continue;
                 }
 
-                String nodeId = result.getString(NODE_ID);
+                String nodeId = result.getNodeId();
                 ArrayList<Unit> targetUnits = programSlicer.getUnits(nodeId);
                 Unit targetUnit = targetUnits.get(0);
                 int targetUnitType = getUnitType(targetUnit);
@@ -303,25 +313,28 @@ public class CodeOptimizer {
         }
     }
 
-    public void removeUnreachableStatement(ArrayList<JSONObject> slices, ArrayList<JSONObject> contents) {
+    public void removeUnreachableStatement(ArrayList<Slice> slices, List<SliceLine> contents) {
+        CodeInspector codeInspector = context.getCodeInspector();
+        ProgramSlicer programSlicer = context.getProgramSlicer();
+
         HashMap<Value, String> targetValueMap = new HashMap<>();
 
-        for (JSONObject s : slices) {
-            String nodeId = s.getString(NODE_ID);
-            String callerName = s.getString(CALLER_NAME);
-            JSONArray c = s.getJSONArray(CONTENTS);
-            ArrayList<Unit> wholeUnit = codeInspector.getWholeUnit(callerName);
+        for (Slice s : slices) {
+            String nodeId = s.getNodeId();
+            String callerName = s.getCallerName();
+            List<SliceLine> c = s.getContents();
+            MethodUnits wholeUnit = codeInspector.getWholeUnit(callerName);
             ArrayList<Unit> units = programSlicer.getUnits(nodeId);
-            ArrayList<Unit> tempUnits = getUnreachableUnits(wholeUnit, units, targetValueMap);
+            ArrayList<Unit> tempUnits = getUnreachableUnits(wholeUnit, new MethodUnits(units), targetValueMap);
 
             for (Unit u : units) {
                 if (!tempUnits.contains(u)) {
                     continue;
                 }
 
-                for (int i = 0; i < c.length(); i++) {
-                    JSONObject line = c.getJSONObject(i);
-                    if (u.toString().equals(line.getString(UNIT_STRING))) {
+                for (SliceLine line : c) {
+                    String unitString = line.getUnitString();
+                    if (u.toString().equals(unitString)) {
                         contents.remove(line);
                         break;
                     }
@@ -381,14 +394,14 @@ public class CodeOptimizer {
         return Jimple.v().newLocal(name, type);
     }
 
-    private int getTargetUnitIndex(ArrayList<Unit> wholeUnit, Unit unit, int unitType) {
+    private int getTargetUnitIndex(MethodUnits wholeUnit, Unit unit, int unitType) {
         if (isLoopStatement(wholeUnit, unit, unitType)) {
             return -1;
         }
 
-        Unit targetUnit = getIfGotoTargetUnit(unit, unitType);
+        int unitIndex = wholeUnit.indexOf(unit);
 
-        return wholeUnit.indexOf(targetUnit);
+        return wholeUnit.getTargetIndex(unitIndex);
     }
 
     private ArrayList<String> getRandomSignatures() {
@@ -427,7 +440,7 @@ public class CodeOptimizer {
         return false;
     }
 
-    private ArrayList<Unit> getUnreachableUnits(ArrayList<Unit> wholeUnit, ArrayList<Unit> units, HashMap<Value, String> targetValueMap) {
+    private ArrayList<Unit> getUnreachableUnits(MethodUnits wholeUnit, MethodUnits units, HashMap<Value, String> targetValueMap) {
         int wholeUnitCount = wholeUnit.size();
         ArrayList<Unit> tempUnits = new ArrayList<>();
 
@@ -475,8 +488,7 @@ public class CodeOptimizer {
                     continue;
                 }
 
-                Unit targetUnit = getIfGotoTargetUnit(unit, unitType);
-                int targetUnitIndex = wholeUnit.indexOf(targetUnit);
+                int targetUnitIndex = wholeUnit.getTargetIndex(i);
                 if (targetUnitIndex == -1) { // The targetUnit may be JNopStmt
                     continue;
                 }
@@ -512,10 +524,9 @@ public class CodeOptimizer {
     }
 
     private void mappingParameters(ArrayList<Value> parameters, String signature, HashMap<Value, String> targetValueMap) {
-        ArrayList<Unit> wholeUnit = codeInspector.getWholeUnit(signature);
-        if (wholeUnit == null) {
-            return;
-        }
+        CodeInspector codeInspector = context.getCodeInspector();
+
+        MethodUnits wholeUnit = codeInspector.getWholeUnit(signature);
 
         for (Unit u : wholeUnit) {
             int unitType = getUnitType(u);
@@ -538,6 +549,12 @@ public class CodeOptimizer {
         }
     }
 
+    private int foldConstants(String str1, String operand, String str2) {
+        foldCount.incrementAndGet();
+
+        return ConstantFolder.getFoldResult(str1, operand, str2) == 1 ? 1 : 0;
+    }
+
     private int getIfStatementResult(Unit unit, int unitType, HashMap<Value, String> targetValueMap) {
         Value condition = getIfCondition(unit, unitType);
         if (condition == null) {
@@ -552,12 +569,12 @@ public class CodeOptimizer {
         String str2 = targetValueMap.get(op2);
 
         if (isNumber(str1) && isNumber(str2)) {
-            return ChocoSolver.getResolveResult(str1, operand, str2) == 1 ? 1 : 0;
+            return foldConstants(str1, operand, str2);
         } else if ((isNumber(str1) && isNumericConstant(op2)) || (isNumericConstant(op1) && isNumber(str2))) {
             str1 = str1 == null ? convertToStr(op1) : str1;
             str2 = str2 == null ? convertToStr(op2) : str2;
 
-            return ChocoSolver.getResolveResult(str1, operand, str2) == 1 ? 1 : 0;
+            return foldConstants(str1, operand, str2);
         } else if ((!isNumber(str1) && isNumericConstant(op2)) || (isNumericConstant(op1) && !isNumber(str2))) { // e.g., $i1 < 32
             return -1;
         } else {
@@ -584,8 +601,4 @@ public class CodeOptimizer {
 
         return operand;
     }
-
-    private static class SingletonHolder {
-        private static final CodeOptimizer instance = new CodeOptimizer();
-    }
 }
\ No newline at end of file
@@ -1,53 +1,38 @@
 package com.ccadroid.slice;
 
+import com.ccadroid.AnalysisContext;
 import com.ccadroid.check.RuleChecker;
 import com.ccadroid.inspect.ApkParser;
 import com.ccadroid.inspect.CodeInspector;
 import com.ccadroid.inspect.SlicingCriteriaGenerator;
 import com.ccadroid.inspect.SlicingCriterion;
 import com.ccadroid.util.Argparse4j;
-import org.graphstream.graph.Edge;
-import org.graphstream.graph.Node;
-import org.json.JSONObject;
+import com.ccadroid.util.graph.Edge;
+import com.ccadroid.util.graph.Node;
+import com.ccadroid.util.soot.MethodUnits;
 import soot.Unit;
 import soot.Value;
 
 import java.util.*;
 
-import static com.ccadroid.slice.SliceConstant.*;
-import static com.ccadroid.util.graph.CallGraph.INTERFACE_NAME;
 import static com.ccadroid.util.soot.Soot.isEnumClass;
 import static com.ccadroid.util.soot.SootUnit.*;
 
 public class ProgramSlicer {
     private static final int UPPER_LEVEL = Argparse4j.getInt(Argparse4j.UPPER_LEVEL);
     private static final int LOWER_LEVEL = Argparse4j.getInt(Argparse4j.LOWER_LEVEL);
-    private static final ApkParser apkParser;
-    private static final CodeInspector codeInspector;
-    private static final SlicingCriteriaGenerator slicingCriteriaGenerator;
-    private static final CodeOptimizer codeOptimizer;
-    private static final SliceDatabase sliceDatabase;
-    private static final SliceMerger sliceMerger;
-    private static final RuleChecker ruleChecker;
-
-    static {
-        apkParser = ApkParser.getInstance();
-        codeInspector = CodeInspector.getInstance();
-        slicingCriteriaGenerator = SlicingCriteriaGenerator.getInstance();
-        codeOptimizer = CodeOptimizer.getInstance();
-        sliceDatabase = SliceDatabase.getInstance();
-        sliceMerger = SliceMerger.getInstance();
-        ruleChecker = RuleChecker.getInstance();
-    }
 
+    private final AnalysisContext context;
     private final Deque<SlicingCriterion> deque;
     private final HashMap<String, ArrayList<Unit>> unitsMap;
-    private final HashMap<String, ArrayList<JSONObject>> contentsMap;
+    private final HashMap<String, SliceContents> contentsMap;
     private final ArrayList<Unit> gotoTargetUnits;
     private final HashMap<String, String> nodeIdMap;
     private final HashMap<String, ArrayList<Integer>> retainParamNumMap;
+    private HashMap<String, ArrayList<Integer>> newRetainParamNumMap; // only in a fork, put on the main slicer in criterion order
 
-    public ProgramSlicer() {
+    public ProgramSlicer(AnalysisContext context) {
+        this.context = context;
         deque = new LinkedList<>();
         unitsMap = new HashMap<>();
         contentsMap = new HashMap<>();
@@ -56,13 +41,11 @@ public class ProgramSlicer {
         retainParamNumMap = new HashMap<>();
     }
 
-    public static ProgramSlicer getInstance() {
-        return SingletonHolder.instance;
-    }
-
     public void sliceStatements(SlicingCriterion slicingCriterion) {
+        SliceMerger sliceMerger = context.getSliceMerger();
+
         String leafId = slicingCriterion.getId();
-        sliceMerger.addNode(leafId, leafId, 0);
+        sliceMerger.addNode(leafId, 0);
 
         addSlicingCriterion(slicingCriterion);
 
@@ -80,6 +63,21 @@ public class ProgramSlicer {
         return retainParamNumMap.get(unitString);
     }
 
+    public void recordChanges() {
+        newRetainParamNumMap = new HashMap<>();
+    }
+
+    public HashMap<String, ArrayList<Integer>> takeRetainParamNumbers() {
+        HashMap<String, ArrayList<Integer>> result = newRetainParamNumMap;
+        newRetainParamNumMap = new HashMap<>();
+
+        return result;
+    }
+
+    public void putRetainParamNumbers(Map<String, ArrayList<Integer>> map) {
+        retainParamNumMap.putAll(map);
+    }
+
     private void addSlicingCriterion(SlicingCriterion slicingCriterion) {
         if (!deque.contains(slicingCriterion)) {
             deque.add(slicingCriterion);
@@ -87,10 +85,17 @@ public class ProgramSlicer {
     }
 
     private void sliceStatement(SlicingCriterion slicingCriterion) {
+        ApkParser apkParser = context.getApkParser();
+        CodeInspector codeInspector = context.getCodeInspector();
+        SlicingCriteriaGenerator slicingCriteriaGenerator = context.getSlicingCriteriaGenerator();
+        CodeOptimizer codeOptimizer = context.getCodeOptimizer();
+        SliceDatabase sliceDatabase = context.getSliceDatabase();
+        SliceMerger sliceMerger = context.getSliceMerger();
+
         String nodeId = slicingCriterion.getId();
         Node node = sliceMerger.getNode(nodeId);
-        List<String> query1 = List.of(String.format("%s==%s", NODE_ID, nodeId), String.format("%s!=null", CALLER_NAME));
-        JSONObject slice = sliceDatabase.selectOne(query1);
+        SliceQuery query = new SliceQuery().nodeId(nodeId).hasCallerName(true);
+        Slice slice = sliceDatabase.selectOne(query);
         if (slice == null) {
             sliceDatabase.insert(nodeId);
         } else {
@@ -102,9 +107,9 @@ public class ProgramSlicer {
         int startUnitIndex = slicingCriterion.getTargetUnitIndex();
         ArrayList<Integer> targetParamIndexes = slicingCriterion.getTargetParamNumbers();
         Collection<Value> oldTargetVariables = slicingCriterion.getTargetVariables();
-        List<Unit> targetUnits = slicingCriterion.getTargetUnits();
+        MethodUnits targetUnits = slicingCriterion.getTargetUnits();
 
-        ArrayList<Unit> wholeUnit = codeInspector.getWholeUnit(callerName);
+        MethodUnits wholeUnit = codeInspector.getWholeUnit(callerName);
         int targetUnitCount = targetUnits.size();
         Unit startUnit = targetUnits.get(startUnitIndex);
         String startUnitStr = startUnit.toString();
@@ -118,7 +123,7 @@ public class ProgramSlicer {
         HashSet<Value> newTargetVariables = new HashSet<>(oldTargetVariables);
         ArrayList<Integer> newParamIndexes = new ArrayList<>();
         ArrayList<Unit> units = unitsMap.getOrDefault(nodeId, new ArrayList<>(Collections.singletonList(startUnit)));
-        ArrayList<JSONObject> contents = contentsMap.getOrDefault(nodeId, new ArrayList<>());
+        SliceContents contents = contentsMap.getOrDefault(nodeId, new SliceContents());
         if (contents.isEmpty()) {
             addLine(startUnitStr, startUnitType, callerName, startLineNum, contents);
         }
@@ -133,7 +138,8 @@ public class ProgramSlicer {
             }
 
             int dequeSize = deque.size();
-            int lineNum = wholeUnit.indexOf(unit) + 1;
+            int unitIndex = wholeUnit.indexOf(unit);
+            int lineNum = unitIndex + 1;
             String unitString = unit.toString();
 
             if (unitType == IF) {
@@ -144,8 +150,7 @@ public class ProgramSlicer {
                     continue;
                 }
 
-                Unit targetUnit = getIfGotoTargetUnit(unit, unitType);
-                int targetUnitIndex = wholeUnit.indexOf(targetUnit);
+                int targetUnitIndex = wholeUnit.getTargetIndex(unitIndex);
                 int lastUnitIndex = wholeUnit.indexOf(units.get(0));
                 if (targetUnitIndex < lastUnitIndex) { // ignore unit
                     continue;
@@ -166,7 +171,7 @@ public class ProgramSlicer {
                     continue;
                 }
 
-                int targetUnitIndex = wholeUnit.indexOf(targetUnit);
+                int targetUnitIndex = wholeUnit.getTargetIndex(unitIndex);
                 int lastUnitIndex = wholeUnit.indexOf(units.get(0));
                 if (targetUnitIndex <= lastUnitIndex) { // ignore unit
                     continue;
@@ -440,6 +445,9 @@ public class ProgramSlicer {
     }
 
     private void setRetainParamNumbers(Unit unit, String unitString, int unitType, Collection<Value> retainVariables) {
+        ApkParser apkParser = context.getApkParser();
+        RuleChecker ruleChecker = context.getRuleChecker();
+
         String signature = getSignature(unitString);
         String className = getClassName(signature);
         String methodName = getMethodName(signature);
@@ -453,17 +461,14 @@ public class ProgramSlicer {
         });
 
         retainParamNumMap.put(unitString, numbers);
+        if (newRetainParamNumMap != null) {
+            newRetainParamNumMap.put(unitString, numbers);
+        }
     }
 
-    private void addLine(String unitString, int unitType, String callerName, int lineNumber, ArrayList<JSONObject> contents) {
-        JSONObject line = new JSONObject();
-
-        line.put(UNIT_STRING, unitString);
-        line.put(UNIT_TYPE, unitType);
-        line.put(CALLER_NAME, callerName);
-        line.put(LINE_NUMBER, lineNumber);
-
-        contents.add(0, line);
+    private void addLine(String unitString, int unitType, String callerName, int lineNumber, SliceContents contents) {
+        SliceLine line = new SliceLine(unitString, unitType, callerName, lineNumber);
+        contents.addFirst(line);
     }
 
     private HashSet<Value> getRetainVariables(Unit unit, Collection<Value> targetVariables) {
@@ -488,6 +493,10 @@ public class ProgramSlicer {
     }
 
     private void handleInvokeUnit(Unit unit, Node parent, String calleeName) {
+        ApkParser apkParser = context.getApkParser();
+        SlicingCriteriaGenerator slicingCriteriaGenerator = context.getSlicingCriteriaGenerator();
+        SliceMerger sliceMerger = context.getSliceMerger();
+
         String className = getClassName(calleeName);
         if (apkParser.isBuiltInClassName(className)) {
             return;
@@ -513,7 +522,7 @@ public class ProgramSlicer {
         String parentId = parent.getId();
         for (SlicingCriterion sc : slicingCriteria) {
             String childId = sc.getId();
-            Node child = sliceMerger.addNode(childId, childId, level);
+            Node child = sliceMerger.addNode(childId, level);
             sliceMerger.addEdge(parent, child, true);
             nodeIdMap.put(childId, parentId);
         }
@@ -522,6 +531,11 @@ public class ProgramSlicer {
     }
 
     private void handleAssignVariableSignatureUnit(Node child1, String oldCallerName, String targetSignature) {
+        ApkParser apkParser = context.getApkParser();
+        CodeInspector codeInspector = context.getCodeInspector();
+        SlicingCriteriaGenerator slicingCriteriaGenerator = context.getSlicingCriteriaGenerator();
+        SliceMerger sliceMerger = context.getSliceMerger();
+
         String className = getClassName(targetSignature);
         if (apkParser.isBuiltInClassName(className)) {
             return;
@@ -539,7 +553,7 @@ public class ProgramSlicer {
         }
 
         String childId2 = String.valueOf(targetSignature.hashCode());
-        Node child2 = sliceMerger.getNode(childId2) == null ? sliceMerger.addNode(childId2, childId2, level) : sliceMerger.getNode(childId2);
+        Node child2 = sliceMerger.getNode(childId2) == null ? sliceMerger.addNode(childId2, level) : sliceMerger.getNode(childId2);
         sliceMerger.addEdge(child1, child2, false);
 
         level++;
@@ -560,7 +574,7 @@ public class ProgramSlicer {
             ArrayList<SlicingCriterion> slicingCriteria = slicingCriteriaGenerator.createSlicingCriteria(callerName2, targetSignature, ASSIGN_VARIABLE_SIGNATURE, null);
             for (SlicingCriterion sc : slicingCriteria) {
                 String parentId2 = sc.getId();
-                Node parent2 = sliceMerger.addNode(parentId2, parentId2, level);
+                Node parent2 = sliceMerger.addNode(parentId2, level);
                 sliceMerger.addEdge(parent2, child2, false);
             }
 
@@ -569,6 +583,11 @@ public class ProgramSlicer {
     }
 
     private void handleParameterUnit(String childId, String calleeName, ArrayList<Integer> targetParamNumbers) {
+        ApkParser apkParser = context.getApkParser();
+        CodeInspector codeInspector = context.getCodeInspector();
+        SlicingCriteriaGenerator slicingCriteriaGenerator = context.getSlicingCriteriaGenerator();
+        SliceMerger sliceMerger = context.getSliceMerger();
+
         if (targetParamNumbers.isEmpty()) {
             return;
         }
@@ -587,12 +606,10 @@ public class ProgramSlicer {
         }
 
         Node callee = codeInspector.getNode(calleeName);
-        if (callee.hasAttribute(INTERFACE_NAME)) {
-            Node newCallee = codeInspector.getInterfaceNode(callee);
-            if (newCallee != null) {
-                callee = newCallee;
-                calleeName = callee.getId();
-            }
+        Node newCallee = codeInspector.getInterfaceNode(callee);
+        if (newCallee != null) {
+            callee = newCallee;
+            calleeName = callee.getId();
         }
 
         List<Edge> edges = codeInspector.getEdges(callee);
@@ -602,7 +619,7 @@ public class ProgramSlicer {
             }
 
             Node caller = e.getSourceNode();
-            if (!sliceMerger.isConcrete(caller)) {
+            if (!codeInspector.isConcrete(caller)) {
                 continue;
             }
 
@@ -619,7 +636,7 @@ public class ProgramSlicer {
             ArrayList<SlicingCriterion> slicingCriteria = slicingCriteriaGenerator.createSlicingCriteria(callerName, calleeName, PARAMETER, targetParamNumbers);
             for (SlicingCriterion sc : slicingCriteria) {
                 String parentId = sc.getId();
-                Node parent = sliceMerger.addNode(parentId, parentId, level);
+                Node parent = sliceMerger.addNode(parentId, level);
                 sliceMerger.addEdge(parent, child, true);
                 addSlicingCriterion(sc);
             }
@@ -627,6 +644,8 @@ public class ProgramSlicer {
     }
 
     private void updateTargetParameters(String childId, ArrayList<Integer> targetParamNumbers) {
+        SlicingCriteriaGenerator slicingCriteriaGenerator = context.getSlicingCriteriaGenerator();
+
         String parentId = nodeIdMap.get(childId);
         SlicingCriterion slicingCriterion = slicingCriteriaGenerator.getSlicingCriterion(parentId);
         if (slicingCriterion == null) {
@@ -650,7 +669,7 @@ public class ProgramSlicer {
 
     private ArrayList<Value> getTargetParameters(SlicingCriterion slicingCriterion) {
         int targetUnitIndex = slicingCriterion.getTargetUnitIndex();
-        ArrayList<Unit> targetUnits = slicingCriterion.getTargetUnits();
+        MethodUnits targetUnits = slicingCriterion.getTargetUnits();
         Unit targetUnit = targetUnits.get(targetUnitIndex);
         int targetUnitType = getUnitType(targetUnit);
         ArrayList<Value> parameters = getParameters(targetUnit, targetUnitType);
@@ -709,8 +728,4 @@ public class ProgramSlicer {
 
         return targetIndexes;
     }
-
-    private static class SingletonHolder {
-        private static final ProgramSlicer instance = new ProgramSlicer();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.ccadroid.slice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Slice {
+    private final SliceKey key;
+    private final String nodeId;
+    private final String callerName;
+    private final String targetStatement;
+    private final int targetUnitIndex;
+    private final ArrayList<Integer> targetParamNumbers;
+    private final String targetVariables;
+    private final List<SliceLine> contents;
+
+    public Slice(SliceKey key, String nodeId, String callerName, String targetStatement, int targetUnitIndex, ArrayList<Integer> targetParamNumbers, String targetVariables, List<SliceLine> contents) {
+        this.key = key;
+        this.nodeId = nodeId;
+        this.callerName = callerName;
+        this.targetStatement = targetStatement;
+        this.targetUnitIndex = targetUnitIndex;
+        this.targetParamNumbers = targetParamNumbers;
+        this.targetVariables = targetVariables;
+        this.contents = contents;
+    }
+
+    public SliceKey getKey() {
+        return key;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getCallerName() {
+        return callerName;
+    }
+
+    public String getTargetStatement() {
+        return targetStatement;
+    }
+
+    public int getTargetUnitIndex() {
+        return targetUnitIndex;
+    }
+
+    public ArrayList<Integer> getTargetParamNumbers() {
+        return targetParamNumbers;
+    }
+
+    public String getTargetVariables() {
+        return targetVariables;
+    }
+
+    public List<SliceLine> getContents() {
+        return contents;
+    }
+
+    public boolean hasCallerName() {
+        return callerName != null;
+    }
+
+    public boolean hasContents() {
+        return contents != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Slice{key=" + key + ", nodeId=" + nodeId + ", callerName=" + callerName + ", targetStatement=" + targetStatement + "}";
+    }
+}
\ No newline at end of file
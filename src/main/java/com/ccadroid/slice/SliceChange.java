@@ -0,0 +1,23 @@
+package com.ccadroid.slice;
+
+public class SliceChange {
+    private final String nodeId;
+    private final Slice slice; // null for a deletion
+
+    public SliceChange(String nodeId, Slice slice) {
+        this.nodeId = nodeId;
+        this.slice = slice;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Slice getSlice() {
+        return slice;
+    }
+
+    public boolean isDeletion() {
+        return slice == null;
+    }
+}
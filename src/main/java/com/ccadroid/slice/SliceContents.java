@@ -0,0 +1,140 @@
+package com.ccadroid.slice;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+public class SliceContents extends AbstractList<SliceLine> implements RandomAccess {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private SliceLine[] lines;
+    private int head;
+    private int tail;
+
+    public SliceContents() {
+        lines = new SliceLine[DEFAULT_CAPACITY];
+        head = DEFAULT_CAPACITY; // lines are mostly prepended while slicing backwards
+        tail = DEFAULT_CAPACITY;
+    }
+
+    public SliceContents(Collection<SliceLine> collection) {
+        lines = collection.toArray(new SliceLine[0]);
+        head = 0;
+        tail = lines.length;
+    }
+
+    public void addFirst(SliceLine line) {
+        if (head == 0) {
+            grow(true);
+        }
+
+        lines[--head] = line;
+        modCount++;
+    }
+
+    @Override
+    public boolean add(SliceLine line) {
+        if (tail == lines.length) {
+            grow(false);
+        }
+
+        lines[tail++] = line;
+        modCount++;
+
+        return true;
+    }
+
+    @Override
+    public void add(int index, SliceLine line) {
+        int size = size();
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+
+        if (index == 0) {
+            addFirst(line);
+        } else if (index == size) {
+            add(line);
+        } else {
+            if (tail == lines.length) {
+                grow(false);
+            }
+
+            int position = head + index;
+            System.arraycopy(lines, position, lines, position + 1, tail - position);
+            lines[position] = line;
+            tail++;
+            modCount++;
+        }
+    }
+
+    @Override
+    public SliceLine get(int index) {
+        checkIndex(index);
+
+        return lines[head + index];
+    }
+
+    @Override
+    public SliceLine set(int index, SliceLine line) {
+        checkIndex(index);
+
+        SliceLine oldLine = lines[head + index];
+        lines[head + index] = line;
+
+        return oldLine;
+    }
+
+    @Override
+    public SliceLine remove(int index) {
+        checkIndex(index);
+
+        int position = head + index;
+        SliceLine oldLine = lines[position];
+        if (index == 0) {
+            lines[head++] = null;
+        } else {
+            System.arraycopy(lines, position + 1, lines, position, tail - position - 1);
+            lines[--tail] = null;
+        }
+
+        modCount++;
+
+        return oldLine;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = head; i < tail; i++) {
+            lines[i] = null;
+        }
+
+        head = lines.length;
+        tail = lines.length;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return tail - head;
+    }
+
+    private void checkIndex(int index) {
+        int size = size();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+    }
+
+    private void grow(boolean front) {
+        int size = size();
+        int capacity = Math.max(DEFAULT_CAPACITY, size * 2);
+        int newHead = front ? capacity - size : 0;
+        SliceLine[] newLines = new SliceLine[capacity];
+        System.arraycopy(lines, head, newLines, newHead, size);
+
+        lines = newLines;
+        head = newHead;
+        tail = newHead + size;
+    }
+}
\ No newline at end of file
@@ -1,148 +1,180 @@
 package com.ccadroid.slice;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
 import soot.Value;
 
 import java.util.*;
 
-import static com.ccadroid.slice.SliceConstant.*;
-
 public class SliceDatabase {
-    private final HashMap<Integer, JSONObject> collection;
+    private final LinkedHashMap<SliceKey, Slice> collection;
+    private final HashMap<String, LinkedHashSet<Slice>> nodeIdIndex;
+    private final HashMap<String, LinkedHashSet<Slice>> callerNameIndex;
+    private final HashMap<String, LinkedHashSet<Slice>> targetStatementIndex;
+    private ArrayList<SliceChange> changes; // only in a fork, replayed on the main database in criterion order
+    private int insertCount;
+    private int overwriteCount;
 
     public SliceDatabase() {
-        collection = new HashMap<>();
+        collection = new LinkedHashMap<>();
+        nodeIdIndex = new HashMap<>();
+        callerNameIndex = new HashMap<>();
+        targetStatementIndex = new HashMap<>();
     }
 
-    public static SliceDatabase getInstance() {
-        return SingletonHolder.instance;
+    public void insert(String nodeId) {
+        SliceKey key = new SliceKey(nodeId, null, -1, List.of());
+        Slice slice = new Slice(key, nodeId, null, null, -1, null, null, null);
+        insert(slice);
     }
 
-    public void insert(String nodeId) {
-        JSONObject object = new JSONObject();
-        object.put(NODE_ID, nodeId);
-
-        int id = getId(object);
-        collection.put(id, object);
-    }
-
-    public void insert(String nodeId, String callerName, String targetStatement, int targetUnitIndex, ArrayList<Integer> targetParamIndexes, Collection<Value> targetVariables, ArrayList<JSONObject> contents) {
-        JSONObject object = new JSONObject();
-        object.put(NODE_ID, nodeId);
-        object.put(CALLER_NAME, callerName);
-        object.put(TARGET_STATEMENT, targetStatement);
-        object.put(TARGET_UNIT_INDEX, targetUnitIndex);
-        object.put(TARGET_PARAM_INDEXES, targetParamIndexes);
-        object.put(TARGET_VARIABLES, targetVariables.toString());
-        object.put(CONTENTS, contents);
-
-        int id = getId(object);
-        collection.put(id, object);
-    }
-
-    public void insert(String nodeId, String targetStatement, ArrayList<Integer> targetParamNumbers, Collection<Value> targetVariables, ArrayList<JSONObject> contents) {
-        JSONObject object = new JSONObject();
-        object.put(NODE_ID, nodeId);
-        object.put(TARGET_STATEMENT, targetStatement);
-        object.put(TARGET_PARAM_INDEXES, targetParamNumbers);
-        object.put(TARGET_VARIABLES, targetVariables.toString());
-        object.put(CONTENTS, contents);
-
-        int id = getId(object);
-        collection.put(id, object);
-    }
-
-    public ArrayList<JSONObject> selectAll(List<String> query) {
-        HashSet<JSONObject> result = new HashSet<>();
-
-        ArrayList<JSONObject> values = new ArrayList<>(collection.values());
-        for (JSONObject o1 : values) {
-            boolean flag = true;
-
-            for (String q : query) {
-                String[] arr = q.split("(==)|(!=)|( in )");
-                String k = arr[0];
-                String v = arr[1];
-
-                if ((q.contains("==") || q.contains("!=")) && !v.equals("null")) {
-                    flag &= o1.has(k) && ((q.contains("==") && o1.get(k).equals(v)) || (q.contains("!=") && !o1.get(k).equals(v)));
-                } else if ((q.contains("==") || q.contains("!=")) && v.equals("null")) {
-                    Object r = o1.query(String.format("/%s", k));
-                    flag &= ((q.contains("==") && r == null) || (q.contains("!=") && r != null));
-                } else if (q.contains(" in ")) {
-                    boolean f = false;
-                    ArrayList<JSONObject> objects = getValuesInObject(o1, v);
-                    for (JSONObject o2 : objects) {
-                        f |= o2.has(v) && (o2.get(v) instanceof String) && o2.get(v).toString().contains(k);
-                    }
-
-                    flag &= f;
-                }
+    public void insert(String nodeId, String callerName, String targetStatement, int targetUnitIndex, ArrayList<Integer> targetParamIndexes, Collection<Value> targetVariables, List<SliceLine> contents) {
+        SliceKey key = new SliceKey(nodeId, callerName, targetUnitIndex, List.of());
+        Slice slice = new Slice(key, nodeId, callerName, targetStatement, targetUnitIndex, copyOf(targetParamIndexes), targetVariables.toString(), List.copyOf(contents));
+        insert(slice);
+    }
+
+    public void insert(String nodeId, List<String> mergePath, String targetStatement, ArrayList<Integer> targetParamNumbers, Collection<Value> targetVariables, List<SliceLine> contents) {
+        SliceKey key = new SliceKey(nodeId, null, -1, mergePath);
+        Slice slice = new Slice(key, nodeId, null, targetStatement, -1, copyOf(targetParamNumbers), targetVariables.toString(), List.copyOf(contents));
+        insert(slice);
+    }
+
+    public void recordChanges() {
+        changes = new ArrayList<>();
+    }
+
+    public ArrayList<SliceChange> takeChanges() {
+        ArrayList<SliceChange> result = changes;
+        changes = new ArrayList<>();
+
+        return result;
+    }
+
+    public void applyChanges(List<SliceChange> sliceChanges) {
+        for (SliceChange c : sliceChanges) {
+            if (c.isDeletion()) {
+                delete(c.getNodeId());
+            } else {
+                insert(c.getSlice());
             }
+        }
+    }
+
+    public int getInsertCount() {
+        return insertCount;
+    }
 
-            if (flag) {
-                result.add(o1);
+    public int getOverwriteCount() {
+        return overwriteCount;
+    }
+
+    public ArrayList<Slice> selectAll(SliceQuery query) {
+        ArrayList<Slice> result = new ArrayList<>();
+
+        Collection<Slice> candidates = getCandidates(query);
+        for (Slice s : candidates) {
+            if (query.matches(s)) {
+                result.add(s);
             }
         }
 
-        return new ArrayList<>(result);
+        return result;
     }
 
-    public JSONObject selectOne(List<String> query) {
-        ArrayList<JSONObject> result = selectAll(query);
+    public Slice selectOne(SliceQuery query) {
+        Collection<Slice> candidates = getCandidates(query);
+        for (Slice s : candidates) {
+            if (query.matches(s)) {
+                return s;
+            }
+        }
 
-        return (result.isEmpty()) ? null : result.get(0);
+        return null;
     }
 
     public void delete(String nodeId) {
-        List<String> query = List.of(String.format("%s==%s", NODE_ID, nodeId), String.format("%s==null", CONTENTS));
-        ArrayList<JSONObject> result = selectAll(query);
-        Collection<JSONObject> values = collection.values();
+        if (changes != null) {
+            changes.add(new SliceChange(nodeId, null));
+        }
+
+        SliceQuery query = new SliceQuery().nodeId(nodeId).hasContents(false);
+        ArrayList<Slice> result = selectAll(query);
 
-        for (JSONObject o : result) {
-            values.remove(o);
+        for (Slice s : result) {
+            SliceKey key = s.getKey();
+            collection.remove(key);
+            removeIndexes(s);
         }
     }
 
-    private int getId(JSONObject object) {
-        return object.hashCode();
+    private void insert(Slice slice) {
+        if (changes != null) {
+            changes.add(new SliceChange(slice.getNodeId(), slice));
+        }
+
+        SliceKey key = slice.getKey();
+        Slice oldSlice = collection.put(key, slice);
+        if (oldSlice != null) {
+            overwriteCount++;
+            removeIndexes(oldSlice);
+        }
+
+        insertCount++;
+        addIndex(nodeIdIndex, slice.getNodeId(), slice);
+        addIndex(callerNameIndex, slice.getCallerName(), slice);
+        addIndex(targetStatementIndex, slice.getTargetStatement(), slice);
     }
 
-    private ArrayList<JSONObject> getValuesInObject(JSONObject jsonObject, String key) {
-        ArrayList<JSONObject> objects = new ArrayList<>();
+    private void removeIndexes(Slice slice) {
+        removeIndex(nodeIdIndex, slice.getNodeId(), slice);
+        removeIndex(callerNameIndex, slice.getCallerName(), slice);
+        removeIndex(targetStatementIndex, slice.getTargetStatement(), slice);
+    }
 
-        for (String k : jsonObject.keySet()) {
-            Object o = jsonObject.get(k);
-            if (k.equals(key)) {
-                objects.add(jsonObject);
-            }
+    private ArrayList<Integer> copyOf(ArrayList<Integer> numbers) {
+        return (numbers == null) ? null : new ArrayList<>(numbers); // criteria without parameter targets
+    }
 
-            if (o instanceof JSONObject) {
-                objects.addAll(getValuesInObject((JSONObject) o, key));
-            } else if (o instanceof JSONArray) {
-                objects.addAll(getValuesInArray((JSONArray) o, key));
-            }
+    private Collection<Slice> getCandidates(SliceQuery query) {
+        String nodeId = query.getNodeId();
+        if (nodeId != null) {
+            return nodeIdIndex.getOrDefault(nodeId, new LinkedHashSet<>());
         }
 
-        return objects;
-    }
+        String callerName = query.getCallerName();
+        if (callerName != null) {
+            return callerNameIndex.getOrDefault(callerName, new LinkedHashSet<>());
+        }
 
-    private ArrayList<JSONObject> getValuesInArray(JSONArray jsonArray, String key) {
-        ArrayList<JSONObject> objects = new ArrayList<>();
+        String targetStatement = query.getTargetStatement();
+        if (targetStatement != null) {
+            return targetStatementIndex.getOrDefault(targetStatement, new LinkedHashSet<>());
+        }
 
-        for (Object o : jsonArray) {
-            if (o instanceof JSONArray) {
-                objects.addAll(getValuesInArray((JSONArray) o, key));
-            } else if (o instanceof JSONObject) {
-                objects.addAll(getValuesInObject((JSONObject) o, key));
-            }
+        return collection.values();
+    }
+
+    private void addIndex(HashMap<String, LinkedHashSet<Slice>> index, String key, Slice slice) {
+        if (key == null) {
+            return;
         }
 
-        return objects;
+        LinkedHashSet<Slice> slices = index.computeIfAbsent(key, k -> new LinkedHashSet<>());
+        slices.add(slice);
     }
 
-    private static class SingletonHolder {
-        private static final SliceDatabase instance = new SliceDatabase();
+    private void removeIndex(HashMap<String, LinkedHashSet<Slice>> index, String key, Slice slice) {
+        if (key == null) {
+            return;
+        }
+
+        LinkedHashSet<Slice> slices = index.get(key);
+        if (slices == null) {
+            return;
+        }
+
+        slices.remove(slice);
+        if (slices.isEmpty()) {
+            index.remove(key);
+        }
     }
 }
\ No newline at end of file
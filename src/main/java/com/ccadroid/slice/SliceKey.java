@@ -0,0 +1,80 @@
+package com.ccadroid.slice;
+
+import java.util.List;
+import java.util.Objects;
+
+public class SliceKey {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String nodeId;
+    private final String callerName;
+    private final int targetUnitIndex;
+    private final List<String> mergePath;
+    private final long hash;
+
+    public SliceKey(String nodeId, String callerName, int targetUnitIndex, List<String> mergePath) {
+        this.nodeId = nodeId;
+        this.callerName = callerName;
+        this.targetUnitIndex = targetUnitIndex;
+        this.mergePath = List.copyOf(mergePath);
+
+        long h = FNV_OFFSET_BASIS;
+        h = hash(h, nodeId);
+        h = hash(h, callerName);
+        h = hash(h, targetUnitIndex);
+        for (String id : this.mergePath) {
+            h = hash(h, id);
+        }
+
+        hash = h;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        SliceKey key = (SliceKey) obj;
+
+        return hash == key.hash && targetUnitIndex == key.targetUnitIndex && Objects.equals(nodeId, key.nodeId) && Objects.equals(callerName, key.callerName) && mergePath.equals(key.mergePath); // for colliding hashes
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x", hash);
+    }
+
+    private static long hash(long h, String str) {
+        if (str == null) {
+            return hash(h, -1);
+        }
+
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            h = (h ^ str.charAt(i)) * FNV_PRIME;
+        }
+
+        return hash(h, length);
+    }
+
+    private static long hash(long h, int value) {
+        for (int i = 0; i < 4; i++) {
+            h = (h ^ ((value >>> (i * 8)) & 0xff)) * FNV_PRIME;
+        }
+
+        return h;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.ccadroid.slice;
+
+import org.json.JSONObject;
+
+import static com.ccadroid.slice.SliceConstant.*;
+
+public class SliceLine {
+    private final String unitString;
+    private final int unitType;
+    private final String callerName;
+    private final int lineNumber;
+
+    public SliceLine(String unitString, int unitType, String callerName, int lineNumber) {
+        this.unitString = unitString;
+        this.unitType = unitType;
+        this.callerName = callerName;
+        this.lineNumber = lineNumber;
+    }
+
+    public String getUnitString() {
+        return unitString;
+    }
+
+    public int getUnitType() {
+        return unitType;
+    }
+
+    public String getCallerName() {
+        return callerName;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public JSONObject toJSONObject() {
+        JSONObject line = new JSONObject();
+
+        line.put(UNIT_STRING, unitString);
+        line.put(UNIT_TYPE, unitType);
+        line.put(CALLER_NAME, callerName);
+        line.put(LINE_NUMBER, lineNumber);
+
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        return toJSONObject().toString();
+    }
+}
\ No newline at end of file
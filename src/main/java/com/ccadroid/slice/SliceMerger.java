@@ -1,40 +1,33 @@
 package com.ccadroid.slice;
 
+import com.ccadroid.AnalysisContext;
 import com.ccadroid.inspect.SlicingCriterion;
+import com.ccadroid.util.Argparse4j;
 import com.ccadroid.util.graph.CallGraph;
-import org.graphstream.graph.Node;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.ccadroid.util.graph.Node;
 import soot.Value;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
-import static com.ccadroid.slice.SliceConstant.*;
 import static com.ccadroid.util.soot.SootUnit.PARAMETER;
 
 public class SliceMerger {
-    private static final SliceDatabase sliceDatabase;
-    private static final CodeOptimizer codeOptimizer;
-
-    static {
-        sliceDatabase = SliceDatabase.getInstance();
-        codeOptimizer = CodeOptimizer.getInstance();
-    }
+    private static final int MAX_CALLER_CHAINS = Argparse4j.getInt(Argparse4j.MAX_CALLER_CHAINS);
+    private static final int MAX_CHAIN_DEPTH = Argparse4j.getInt(Argparse4j.MAX_CHAIN_DEPTH);
 
+    private final AnalysisContext context;
     private final CallGraph callGraph;
+    private int mergeCount;
 
-    public SliceMerger() {
+    public SliceMerger(AnalysisContext context) {
+        this.context = context;
         callGraph = new CallGraph();
     }
 
-    public static SliceMerger getInstance() {
-        return SingletonHolder.instance;
-    }
-
-    public Node addNode(String hashCode, String label, int level) {
-        Node node = callGraph.addNode(hashCode, label);
+    public Node addNode(String hashCode, int level) {
+        Node node = callGraph.addNode(hashCode);
         callGraph.setLevel(node, level);
 
         return node;
@@ -44,10 +37,6 @@ public class SliceMerger {
         callGraph.deleteNode(node);
     }
 
-    public boolean isConcrete(Node node) {
-        return callGraph.isConcrete(node);
-    }
-
     public int getLevel(Node node) {
         return callGraph.getLevel(node);
     }
@@ -60,10 +49,21 @@ public class SliceMerger {
         return callGraph.getNode(id);
     }
 
+    public int getMergeCount() {
+        return mergeCount;
+    }
+
+    public int getTruncatedCount() {
+        return callGraph.getTruncatedCount();
+    }
+
     public void mergeSlices(SlicingCriterion slicingCriterion) {
+        SliceDatabase sliceDatabase = context.getSliceDatabase();
+        CodeOptimizer codeOptimizer = context.getCodeOptimizer();
+
         String nodeId = slicingCriterion.getId();
-        List<String> query1 = List.of(String.format("%s==%s", NODE_ID, nodeId), String.format("%s==null", CALLER_NAME), String.format("%s!=null", CONTENTS));
-        JSONObject mergedSlice = sliceDatabase.selectOne(query1);
+        SliceQuery query1 = new SliceQuery().nodeId(nodeId).hasCallerName(false).hasContents(true);
+        Slice mergedSlice = sliceDatabase.selectOne(query1);
         if (mergedSlice != null) {
             return;
         }
@@ -74,19 +74,19 @@ public class SliceMerger {
         ArrayList<ArrayList<String>> listOfIds = getListOfIds(nodeId);
 
         for (ArrayList<String> ids : listOfIds) {
-            ArrayList<JSONObject> slices = new ArrayList<>();
-            ArrayList<JSONObject> combinedContents = new ArrayList<>();
+            ArrayList<Slice> slices = new ArrayList<>();
+            SliceContents combinedContents = new SliceContents();
 
             for (String id : ids) {
-                List<String> query2 = List.of(String.format("%s==%s", NODE_ID, id), String.format("%s!=null", CALLER_NAME));
-                JSONObject slice = sliceDatabase.selectOne(query2);
+                SliceQuery query2 = new SliceQuery().nodeId(id).hasCallerName(true);
+                Slice slice = sliceDatabase.selectOne(query2);
                 if (slice == null) {
                     continue;
                 }
 
                 slices.add(slice);
-                JSONArray contents = slice.getJSONArray(CONTENTS);
-                contents.forEach(o -> combinedContents.add((JSONObject) o));
+                List<SliceLine> contents = slice.getContents();
+                combinedContents.addAll(contents);
             }
 
             if (combinedContents.isEmpty()) {
@@ -95,15 +95,12 @@ public class SliceMerger {
 
             codeOptimizer.removeUnreachableStatement(slices, combinedContents);
 
-            sliceDatabase.insert(nodeId, targetStatement, targetParamNumbers, targetVariables, combinedContents);
+            sliceDatabase.insert(nodeId, ids, targetStatement, targetParamNumbers, targetVariables, combinedContents);
+            mergeCount++;
         }
     }
 
     private ArrayList<ArrayList<String>> getListOfIds(String nodeId) {
-        return callGraph.getListOfIds(nodeId);
-    }
-
-    private static class SingletonHolder {
-        private static final SliceMerger instance = new SliceMerger();
+        return callGraph.getListOfIds(nodeId, MAX_CALLER_CHAINS, MAX_CHAIN_DEPTH);
     }
 }
\ No newline at end of file
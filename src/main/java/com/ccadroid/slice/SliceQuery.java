@@ -0,0 +1,71 @@
+package com.ccadroid.slice;
+
+public class SliceQuery {
+    private String nodeId;
+    private String callerName;
+    private String targetStatement;
+    private Boolean hasCallerName;
+    private Boolean hasContents;
+
+    public SliceQuery nodeId(String nodeId) {
+        this.nodeId = nodeId;
+        return this;
+    }
+
+    public SliceQuery callerName(String callerName) {
+        this.callerName = callerName;
+        return this;
+    }
+
+    public SliceQuery targetStatement(String targetStatement) {
+        this.targetStatement = targetStatement;
+        return this;
+    }
+
+    public SliceQuery hasCallerName(boolean hasCallerName) {
+        this.hasCallerName = hasCallerName;
+        return this;
+    }
+
+    public SliceQuery hasContents(boolean hasContents) {
+        this.hasContents = hasContents;
+        return this;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getCallerName() {
+        return callerName;
+    }
+
+    public String getTargetStatement() {
+        return targetStatement;
+    }
+
+    public boolean matches(Slice slice) {
+        if (nodeId != null && !nodeId.equals(slice.getNodeId())) {
+            return false;
+        }
+
+        if (callerName != null && !callerName.equals(slice.getCallerName())) {
+            return false;
+        }
+
+        if (targetStatement != null && !targetStatement.equals(slice.getTargetStatement())) {
+            return false;
+        }
+
+        if (hasCallerName != null && hasCallerName != slice.hasCallerName()) {
+            return false;
+        }
+
+        return hasContents == null || hasContents == slice.hasContents();
+    }
+
+    @Override
+    public String toString() {
+        return "SliceQuery{nodeId=" + nodeId + ", callerName=" + callerName + ", targetStatement=" + targetStatement + ", hasCallerName=" + hasCallerName + ", hasContents=" + hasContents + "}";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.ccadroid.slice;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+
+public class SliceScheduler {
+    private final int[] nextIndexes; // next criterion of the same component, -1 for the last one
+    private final IntConsumer task;
+    private final PriorityQueue<Integer> readyQueue;
+    private final BitSet slicedSet;
+    private final int threadCount;
+    private ExecutorService executor;
+    private int lowestIndex; // every criterion before it is sliced
+    private Throwable failure;
+
+    public SliceScheduler(int[] nextIndexes, List<Integer> firstIndexes, IntConsumer task, int threadCount) {
+        this.nextIndexes = nextIndexes;
+        this.task = task;
+        readyQueue = new PriorityQueue<>(firstIndexes);
+        slicedSet = new BitSet(nextIndexes.length);
+        this.threadCount = threadCount;
+    }
+
+    public void start() { // after the tasks can reach the scheduler, as they wait on it
+        executor = Executors.newFixedThreadPool(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            executor.execute(this::work);
+        }
+    }
+
+    public void awaitSliced(int index) {
+        synchronized (this) {
+            while (!slicedSet.get(index) && failure == null) {
+                waitForChange();
+            }
+
+            checkFailure();
+        }
+    }
+
+    public void awaitTurn(int index) { // before a criterion changes the state shared by all criteria
+        while (true) {
+            int lowest;
+
+            synchronized (this) {
+                checkFailure();
+                if (lowestIndex >= index) {
+                    return;
+                }
+
+                Integer head = readyQueue.peek();
+                if (head == null || head != lowestIndex) {
+                    waitForChange();
+                    continue;
+                }
+
+                lowest = readyQueue.poll();
+            }
+
+            run(lowest); // the lowest criterion never waits, so helping it cannot block every thread
+        }
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            int index;
+
+            synchronized (this) {
+                while (readyQueue.isEmpty() && lowestIndex < nextIndexes.length && failure == null) {
+                    waitForChange();
+                }
+
+                if (readyQueue.isEmpty() || failure != null) {
+                    return;
+                }
+
+                index = readyQueue.poll();
+            }
+
+            run(index);
+        }
+    }
+
+    private void run(int index) {
+        try {
+            task.accept(index);
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                if (failure == null) {
+                    failure = e;
+                }
+
+                notifyAll();
+            }
+
+            return;
+        }
+
+        synchronized (this) {
+            slicedSet.set(index);
+            while (lowestIndex < nextIndexes.length && slicedSet.get(lowestIndex)) {
+                lowestIndex++;
+            }
+
+            int nextIndex = nextIndexes[index];
+            if (nextIndex > -1) {
+                readyQueue.add(nextIndex);
+            }
+
+            notifyAll();
+        }
+    }
+
+    private void waitForChange() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void checkFailure() {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+}
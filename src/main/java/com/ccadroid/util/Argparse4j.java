@@ -1,30 +1,53 @@
 package com.ccadroid.util;
 
+import com.ccadroid.report.ReportConstant;
 import net.sourceforge.argparse4j.ArgumentParsers;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.MutuallyExclusiveGroup;
 import net.sourceforge.argparse4j.inf.Namespace;
 
 public class Argparse4j {
     public static final String INPUT_PATH = "INPUT_PATH";
+    public static final String BATCH_PATH = "BATCH_PATH";
     public static final String PLATFORMS_PATH = "PLATFORMS_PATH";
     public static final String RULE_PATH = "RULE_PATH";
     public static final String DETECT_DEV_ONLY = "DETECT_DEV_ONLY";
     public static final String UPPER_LEVEL = "UPPER_LEVEL";
     public static final String LOWER_LEVEL = "LOWER_LEVEL";
     public static final String OUTPUT_PATH = "OUTPUT_PATH";
+    public static final String OUTPUT_FORMAT = "OUTPUT_FORMAT";
+    public static final String PROFILE_PATH = "PROFILE_PATH";
+    public static final String WORKERS = "WORKERS";
+    public static final String THREADS = "THREADS";
+    public static final String MAX_CALLER_CHAINS = "MAX_CALLER_CHAINS";
+    public static final String MAX_CHAIN_DEPTH = "MAX_CHAIN_DEPTH";
+    public static final String ENTRY_COMPONENTS = "ENTRY_COMPONENTS";
+    public static final String MAX_BODY_UNITS = "MAX_BODY_UNITS";
+    public static final String PRUNE_CLASSES = "PRUNE_CLASSES";
     private static final ArgumentParser parser;
     private static Namespace namespace;
 
     static {
         parser = ArgumentParsers.newFor("prog").build();
-        parser.addArgument("-i", String.format("--%s", INPUT_PATH)).type(String.class).required(true);
-        parser.addArgument("-p", String.format("--%s", PLATFORMS_PATH)).type(String.class).required(true);
+        MutuallyExclusiveGroup inputGroup = parser.addMutuallyExclusiveGroup().required(true);
+        inputGroup.addArgument("-i", String.format("--%s", INPUT_PATH)).type(String.class);
+        inputGroup.addArgument("-b", String.format("--%s", BATCH_PATH)).type(String.class);
+        parser.addArgument("-p", String.format("--%s", PLATFORMS_PATH)).type(String.class); // only for APKs
         parser.addArgument("-r", String.format("--%s", RULE_PATH)).type(String.class).required(true);
         parser.addArgument("-s", String.format("--%s", DETECT_DEV_ONLY)).type(Boolean.class).setDefault(false);
         parser.addArgument("-ul", String.format("--%s", UPPER_LEVEL)).type(Integer.class).setDefault(5);
         parser.addArgument("-ll", String.format("--%s", LOWER_LEVEL)).type(Integer.class).setDefault(-5);
         parser.addArgument("-o", String.format("--%s", OUTPUT_PATH)).type(String.class);
+        parser.addArgument("-f", String.format("--%s", OUTPUT_FORMAT)).type(String.class).choices(ReportConstant.TEXT, ReportConstant.JSON_LINES, ReportConstant.SARIF).setDefault(ReportConstant.TEXT);
+        parser.addArgument("-po", String.format("--%s", PROFILE_PATH)).type(String.class);
+        parser.addArgument("-w", String.format("--%s", WORKERS)).type(Integer.class).setDefault(1);
+        parser.addArgument("-t", String.format("--%s", THREADS)).type(Integer.class).setDefault(1);
+        parser.addArgument("-mc", String.format("--%s", MAX_CALLER_CHAINS)).type(Integer.class).setDefault(1000);
+        parser.addArgument("-md", String.format("--%s", MAX_CHAIN_DEPTH)).type(Integer.class).setDefault(100);
+        parser.addArgument("-ec", String.format("--%s", ENTRY_COMPONENTS)).type(String.class); // comma-separated class names
+        parser.addArgument("-mb", String.format("--%s", MAX_BODY_UNITS)).type(Integer.class).setDefault(1000000); // statements of bodies outside the slicing working set, 0 for no limit
+        parser.addArgument("-pc", String.format("--%s", PRUNE_CLASSES)).type(Boolean.class).setDefault(true); // only for APKs
     }
 
     public Argparse4j() throws InstantiationException {
@@ -39,6 +62,10 @@ public class Argparse4j {
         return namespace.getInt(dest);
     }
 
+    public static boolean getBoolean(String dest) {
+        return namespace.getBoolean(dest);
+    }
+
     public static void setArguments(String[] args) {
         try {
             namespace = parser.parseArgs(args);
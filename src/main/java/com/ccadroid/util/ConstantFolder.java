@@ -0,0 +1,70 @@
+package com.ccadroid.util;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.math.BigInteger;
+
+public class ConstantFolder {
+    public ConstantFolder() throws InstantiationException {
+        throw new InstantiationException();
+    }
+
+    public static int getFoldResult(String str1, String operand, String str2) { // both sides are constants at every call site, so no model is needed
+        if (str1 == null || str2 == null) {
+            return -1;
+        }
+
+        return foldConstants(str1, operand, str2);
+    }
+
+    private static int foldConstants(String str1, String operand, String str2) {
+        int comparison;
+
+        try {
+            Number n1 = NumberUtils.createNumber(str1);
+            Number n2 = NumberUtils.createNumber(str2);
+            if (isIntegral(n1) && isIntegral(n2)) {
+                comparison = new BigInteger(n1.toString()).compareTo(new BigInteger(n2.toString()));
+            } else {
+                comparison = Double.compare(n1.doubleValue(), n2.doubleValue());
+            }
+        } catch (NumberFormatException ignored) {
+            return -1;
+        }
+
+        switch (operand) {
+            case "=":
+            case "==": {
+                return (comparison == 0) ? 1 : 0;
+            }
+
+            case "!=": {
+                return (comparison != 0) ? 1 : 0;
+            }
+
+            case "<": {
+                return (comparison < 0) ? 1 : 0;
+            }
+
+            case "<=": {
+                return (comparison <= 0) ? 1 : 0;
+            }
+
+            case ">": {
+                return (comparison > 0) ? 1 : 0;
+            }
+
+            case ">=": {
+                return (comparison >= 0) ? 1 : 0;
+            }
+
+            default: {
+                return -1;
+            }
+        }
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof BigInteger;
+    }
+}
@@ -0,0 +1,203 @@
+package com.ccadroid.util;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.ccadroid.util.MathParser.calculateExpression;
+
+public class NumericPredicate {
+    private static final Pattern TERM_PATTERN = Pattern.compile("^\\s*(x|-?\\d{1,18})\\s*(<=|>=|==|!=|<>|<|>|=)\\s*(x|-?\\d{1,18})\\s*$");
+    private final String expression;
+    private final Term[] terms;
+
+    public NumericPredicate(String expression) {
+        this.expression = expression;
+
+        ArrayList<String> strings = splitTerms(expression);
+        if (strings == null) {
+            terms = new Term[]{new Term(expression)}; // left to mXparser as a whole
+            return;
+        }
+
+        terms = new Term[strings.size()];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = compileTerm(strings.get(i));
+        }
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public boolean test(long x) {
+        for (Term t : terms) {
+            if (!t.test(x)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public boolean test(String str) {
+        long x;
+        try {
+            x = Long.parseLong(str);
+        } catch (NumberFormatException ignored) {
+            return testSlowly(str);
+        }
+
+        return test(x);
+    }
+
+    private boolean testSlowly(String str) {
+        BigInteger x;
+        try {
+            x = new BigInteger(str);
+        } catch (NumberFormatException ignored) {
+            return calculateExpression("x=" + str, expression) == 1; // e.g., 1.5, 0x10
+        }
+
+        for (Term t : terms) {
+            if (!t.test(x)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static ArrayList<String> splitTerms(String expression) { // top-level conjunction only
+        ArrayList<String> strings = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' || depth < 0) {
+                return null;
+            } else if (c == '&' && depth == 0) {
+                strings.add(expression.substring(start, i));
+                start = i + 1;
+            }
+        }
+
+        strings.add(expression.substring(start));
+        if (depth != 0 || strings.stream().anyMatch(s -> s.isBlank())) {
+            return null;
+        }
+
+        return strings;
+    }
+
+    private static Term compileTerm(String str) {
+        Matcher matcher = TERM_PATTERN.matcher(str);
+        if (!matcher.matches()) {
+            return new Term(str);
+        }
+
+        String left = matcher.group(1);
+        String operator = matcher.group(2);
+        String right = matcher.group(3);
+        boolean isLeftVariable = left.equals("x");
+        boolean isRightVariable = right.equals("x");
+        if (isLeftVariable == isRightVariable) {
+            return new Term(str);
+        }
+
+        return isLeftVariable ? new Term(operator, Long.parseLong(right)) : new Term(reverse(operator), Long.parseLong(left));
+    }
+
+    private static String reverse(String operator) { // N < x is x > N
+        switch (operator) {
+            case "<": {
+                return ">";
+            }
+
+            case "<=": {
+                return ">=";
+            }
+
+            case ">": {
+                return "<";
+            }
+
+            case ">=": {
+                return "<=";
+            }
+
+            default: {
+                return operator;
+            }
+        }
+    }
+
+    private static class Term {
+        private final String operator;
+        private final long bound;
+        private final String expression;
+
+        private Term(String operator, long bound) {
+            this.operator = operator;
+            this.bound = bound;
+            this.expression = null;
+        }
+
+        private Term(String expression) {
+            this.operator = null;
+            this.bound = 0;
+            this.expression = expression;
+        }
+
+        private boolean test(long x) {
+            if (expression != null) {
+                return calculateExpression("x=" + x, expression) == 1;
+            }
+
+            return compare(Long.compare(x, bound));
+        }
+
+        private boolean test(BigInteger x) {
+            if (expression != null) {
+                return calculateExpression("x=" + x, expression) == 1;
+            }
+
+            return compare(x.compareTo(BigInteger.valueOf(bound)));
+        }
+
+        private boolean compare(int comparison) {
+            switch (operator) {
+                case "<": {
+                    return comparison < 0;
+                }
+
+                case "<=": {
+                    return comparison <= 0;
+                }
+
+                case ">": {
+                    return comparison > 0;
+                }
+
+                case ">=": {
+                    return comparison >= 0;
+                }
+
+                case "!=":
+                case "<>": {
+                    return comparison != 0;
+                }
+
+                default: {
+                    return comparison == 0;
+                }
+            }
+        }
+    }
+}
@@ -1,107 +1,375 @@
 package com.ccadroid.util.graph;
 
-import org.graphstream.graph.Edge;
-import org.graphstream.graph.Node;
-import org.graphstream.graph.implementations.SingleGraph;
-
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+public class CallGraph {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int[] EMPTY_EDGES = new int[0];
 
-public class CallGraph extends BaseGraph {
-    public static final String INTERFACE_NAME = "interfaceName";
-    private static final String IS_CONCRETE = "isConcrete";
-    private static final String LEVEL = "level";
+    private final HashMap<String, Integer> indexMap;
+    private final ArrayList<String> ids;
+    private final BitSet concreteSet;
+    private final BitSet deletedSet;
+    private final HashMap<Integer, String> interfaceNameMap;
+    private final AtomicInteger truncatedCount; // queries whose chains were cut by the caps
+    private int[] levels;
+    private int[][] inEdges; // source indexes of directed edges
+    private int[] inCounts;
+    private int[][] outEdges; // target indexes of directed edges
+    private int[] outCounts;
+    private int[][] undirectedEdges; // opposite indexes, complemented when the opposite is the source
+    private int[] undirectedCounts;
+    private Condensation condensation;
 
     public CallGraph() {
-        int hashCode = this.hashCode();
-        String id = String.valueOf(hashCode);
-        graph = new SingleGraph(id);
-        graph.setAutoCreate(false);
+        indexMap = new HashMap<>();
+        ids = new ArrayList<>();
+        concreteSet = new BitSet();
+        deletedSet = new BitSet();
+        interfaceNameMap = new HashMap<>();
+        truncatedCount = new AtomicInteger();
+        levels = new int[DEFAULT_CAPACITY];
+        inEdges = new int[DEFAULT_CAPACITY][];
+        inCounts = new int[DEFAULT_CAPACITY];
+        outEdges = new int[DEFAULT_CAPACITY][];
+        outCounts = new int[DEFAULT_CAPACITY];
+        undirectedEdges = new int[DEFAULT_CAPACITY][];
+        undirectedCounts = new int[DEFAULT_CAPACITY];
     }
 
     public Node getNode(String id) {
-        return super.getNode(id);
+        Integer index = indexMap.get(id);
+
+        return (index == null) ? null : new Node(index, id);
     }
 
-    public Node addNode(String id, String label) {
-        return super.addNode(id, label);
+    public Node addNode(String id) {
+        Integer index = indexMap.get(id);
+        if (index != null) {
+            return new Node(index, id);
+        }
+
+        int newIndex = ids.size();
+        ensureCapacity(newIndex + 1);
+        ids.add(id);
+        indexMap.put(id, newIndex);
+        condensation = null;
+        inEdges[newIndex] = EMPTY_EDGES;
+        outEdges[newIndex] = EMPTY_EDGES;
+        undirectedEdges[newIndex] = EMPTY_EDGES;
+
+        return new Node(newIndex, id);
     }
 
-    public boolean isConcrete(Node node) {
-        Object attribute = node.getAttribute(IS_CONCRETE);
+    public ArrayList<Node> getNodes() {
+        ArrayList<Node> nodes = new ArrayList<>();
 
-        return attribute != null && (boolean) attribute;
+        for (int i = deletedSet.nextClearBit(0); i < ids.size(); i = deletedSet.nextClearBit(i + 1)) {
+            nodes.add(getNode(i));
+        }
+
+        return nodes;
+    }
+
+    public boolean isConcrete(Node node) {
+        return concreteSet.get(node.getIndex());
     }
 
     public void setConcrete(Node node, boolean isConcrete) {
-        node.setAttribute(IS_CONCRETE, isConcrete);
+        concreteSet.set(node.getIndex(), isConcrete);
     }
 
     public String getInterfaceName(Node node) {
-        Object attribute = node.getAttribute(INTERFACE_NAME);
-
-        return attribute == null ? null : (String) attribute;
+        return interfaceNameMap.get(node.getIndex());
     }
 
     public void setInterfaceName(Node node, String methodName) {
-        node.setAttribute(INTERFACE_NAME, methodName);
+        interfaceNameMap.put(node.getIndex(), methodName);
     }
 
     public int getLevel(Node node) {
-        Object attribute = node.getAttribute(LEVEL);
-
-        return (int) attribute;
+        return levels[node.getIndex()];
     }
 
     public void setLevel(Node node, int level) {
-        node.setAttribute(CallGraph.LEVEL, level);
+        levels[node.getIndex()] = level;
     }
 
     public void deleteNode(Node node) {
-        super.deleteNode(node);
+        if (node == null) {
+            return;
+        }
+
+        int index = node.getIndex();
+        if (deletedSet.get(index)) {
+            return;
+        }
+
+        for (int i = 0; i < inCounts[index]; i++) {
+            int source = inEdges[index][i];
+            outCounts[source] = removeEdge(outEdges[source], outCounts[source], index);
+        }
+
+        for (int i = 0; i < outCounts[index]; i++) {
+            int target = outEdges[index][i];
+            inCounts[target] = removeEdge(inEdges[target], inCounts[target], index);
+        }
+
+        for (int i = 0; i < undirectedCounts[index]; i++) {
+            int opposite = decode(undirectedEdges[index][i]);
+            undirectedCounts[opposite] = removeEdge(undirectedEdges[opposite], undirectedCounts[opposite], index);
+        }
+
+        deletedSet.set(index);
+        condensation = null;
+        indexMap.remove(node.getId());
+        concreteSet.clear(index);
+        interfaceNameMap.remove(index);
+        inEdges[index] = EMPTY_EDGES;
+        inCounts[index] = 0;
+        outEdges[index] = EMPTY_EDGES;
+        outCounts[index] = 0;
+        undirectedEdges[index] = EMPTY_EDGES;
+        undirectedCounts[index] = 0;
     }
 
     public void addEdge(Node node1, Node node2, boolean isDirected) {
-        super.addEdge(node1, node2, isDirected);
+        int index1 = node1.getIndex();
+        int index2 = node2.getIndex();
+        if (hasEdge(index1, index2)) { // only one edge between two nodes
+            return;
+        }
+
+        if (isDirected) {
+            condensation = null;
+            outEdges[index1] = appendEdge(outEdges[index1], outCounts[index1]++, index2);
+            if (index1 != index2) {
+                inEdges[index2] = appendEdge(inEdges[index2], inCounts[index2]++, index1);
+            }
+        } else {
+            undirectedEdges[index1] = appendEdge(undirectedEdges[index1], undirectedCounts[index1]++, index2);
+            if (index1 != index2) {
+                undirectedEdges[index2] = appendEdge(undirectedEdges[index2], undirectedCounts[index2]++, ~index1);
+            }
+        }
     }
 
     public List<Edge> getEdges(Node node) {
-        return super.getEdges(node);
+        int index = node.getIndex();
+        ArrayList<Edge> edges = new ArrayList<>(inCounts[index] + undirectedCounts[index] + outCounts[index]);
+
+        for (int i = 0; i < inCounts[index]; i++) {
+            Node source = getNode(inEdges[index][i]);
+            edges.add(new Edge(source, node, true));
+        }
+
+        for (int i = 0; i < undirectedCounts[index]; i++) {
+            int opposite = undirectedEdges[index][i];
+            if (opposite < 0) {
+                edges.add(new Edge(getNode(~opposite), node, false));
+            } else {
+                edges.add(new Edge(node, getNode(opposite), false));
+            }
+        }
+
+        for (int i = 0; i < outCounts[index]; i++) {
+            Node target = getNode(outEdges[index][i]);
+            edges.add(new Edge(node, target, true));
+        }
+
+        return edges;
     }
 
-    public ArrayList<ArrayList<String>> getListOfIds(String id) {
-        return super.getListOfIds(id);
+    public ArrayList<ArrayList<String>> getListOfIds(String id, int maxChains, int maxDepth) {
+        ArrayList<ArrayList<String>> listOfIds = new ArrayList<>();
+        Iterator<ArrayList<String>> iterator = getCallerChains(id, maxChains, maxDepth);
+        iterator.forEachRemaining(listOfIds::add);
+        if (iterator instanceof CallerChainIterator && ((CallerChainIterator) iterator).isTruncated()) {
+            truncatedCount.incrementAndGet();
+        }
+
+        return listOfIds;
+    }
+
+    public int getTruncatedCount() {
+        return truncatedCount.get();
     }
 
-    @Override
-    protected void traverse(Node node, ArrayList<String> ids, ArrayList<ArrayList<String>> listOfIds) {
-        if (ids.isEmpty()) {
-            String id = node.getId();
-            ids.add(id);
+    public Iterator<ArrayList<String>> getCallerChains(String id, int maxChains, int maxDepth) {
+        Integer index = indexMap.get(id);
+        if (index == null) {
+            return Collections.emptyIterator();
         }
 
-        boolean flag = false;
-        List<Edge> edges = getEdges(node);
-        for (Edge e : edges) {
-            if (!e.isDirected()) {
-                continue;
+        Condensation condensation = getCondensation();
+
+        return new CallerChainIterator(ids, condensation, index, maxChains, maxDepth);
+    }
+
+    public int[] getWeakComponents(Predicate<String> isLinked) { // edges count only between linked nodes, interface methods always link their implementations
+        int nodeCount = ids.size();
+        int[] parents = new int[nodeCount];
+        BitSet linkedSet = new BitSet(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            parents[i] = i;
+            if (isLinked.test(ids.get(i))) {
+                linkedSet.set(i);
             }
+        }
 
-            Node node2 = e.getSourceNode();
-            String id2 = node2.getId();
-            if (ids.contains(id2)) { // escape loop
+        for (Map.Entry<Integer, String> e : interfaceNameMap.entrySet()) {
+            int index1 = e.getKey();
+            Integer index2 = indexMap.get(e.getValue());
+            if (index2 == null || !linkedSet.get(index1)) {
                 continue;
             }
 
-            flag = true;
-            ArrayList<String> tempIds = new ArrayList<>(ids);
-            tempIds.add(0, id2);
+            linkedSet.set(index2);
+            union(parents, index1, index2);
+        }
+
+        for (int i = linkedSet.nextSetBit(0); i > -1; i = linkedSet.nextSetBit(i + 1)) {
+            for (int j = 0; j < outCounts[i]; j++) {
+                int target = outEdges[i][j];
+                if (linkedSet.get(target)) {
+                    union(parents, i, target);
+                }
+            }
 
-            traverse(node2, tempIds, listOfIds);
+            for (int j = 0; j < undirectedCounts[i]; j++) {
+                int opposite = decode(undirectedEdges[i][j]);
+                if (linkedSet.get(opposite)) {
+                    union(parents, i, opposite);
+                }
+            }
+        }
+
+        for (int i = 0; i < nodeCount; i++) {
+            parents[i] = find(parents, i);
+        }
+
+        return parents;
+    }
+
+    public String getGraphString() {
+        StringBuilder builder = new StringBuilder("digraph {");
+        builder.append("\n");
+
+        for (int i = deletedSet.nextClearBit(0); i < ids.size(); i = deletedSet.nextClearBit(i + 1)) {
+            for (int j = 0; j < outCounts[i]; j++) {
+                builder.append(String.format("\t%s -> %s\n", ids.get(i), ids.get(outEdges[i][j])));
+            }
+
+            for (int j = 0; j < undirectedCounts[i]; j++) {
+                int opposite = undirectedEdges[i][j];
+                if (opposite >= 0) {
+                    builder.append(String.format("\t%s -> %s [dir=none]\n", ids.get(i), ids.get(opposite)));
+                }
+            }
+        }
+
+        builder.append("}");
+
+        return builder.toString();
+    }
+
+    private synchronized Condensation getCondensation() { // shared by the slicing threads
+        if (condensation == null) {
+            condensation = new Condensation(ids.size(), inEdges, inCounts, deletedSet);
+        }
+
+        return condensation;
+    }
+
+    private Node getNode(int index) {
+        return new Node(index, ids.get(index));
+    }
+
+    private boolean hasEdge(int index1, int index2) {
+        int degree1 = inCounts[index1] + outCounts[index1] + undirectedCounts[index1];
+        int degree2 = inCounts[index2] + outCounts[index2] + undirectedCounts[index2];
+        int index = (degree1 <= degree2) ? index1 : index2; // scan the smaller adjacency
+        int opposite = (index == index1) ? index2 : index1;
+
+        return indexOf(inEdges[index], inCounts[index], opposite) > -1 || indexOf(outEdges[index], outCounts[index], opposite) > -1 || indexOf(undirectedEdges[index], undirectedCounts[index], opposite) > -1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= levels.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, levels.length * 2);
+        levels = Arrays.copyOf(levels, newCapacity);
+        inEdges = Arrays.copyOf(inEdges, newCapacity);
+        inCounts = Arrays.copyOf(inCounts, newCapacity);
+        outEdges = Arrays.copyOf(outEdges, newCapacity);
+        outCounts = Arrays.copyOf(outCounts, newCapacity);
+        undirectedEdges = Arrays.copyOf(undirectedEdges, newCapacity);
+        undirectedCounts = Arrays.copyOf(undirectedCounts, newCapacity);
+    }
+
+    private static void union(int[] parents, int index1, int index2) {
+        int root1 = find(parents, index1);
+        int root2 = find(parents, index2);
+        if (root1 != root2) {
+            parents[Math.max(root1, root2)] = Math.min(root1, root2);
+        }
+    }
+
+    private static int find(int[] parents, int index) {
+        int root = index;
+        while (parents[root] != root) {
+            root = parents[root];
+        }
+
+        while (parents[index] != root) { // path compression
+            int next = parents[index];
+            parents[index] = root;
+            index = next;
+        }
+
+        return root;
+    }
+
+    private static int[] appendEdge(int[] edges, int count, int index) {
+        int[] newEdges = (count < edges.length) ? edges : Arrays.copyOf(edges, Math.max(4, count * 2));
+        newEdges[count] = index;
+
+        return newEdges;
+    }
+
+    private static int removeEdge(int[] edges, int count, int index) {
+        int i = indexOf(edges, count, index);
+        if (i < 0) {
+            return count;
         }
 
-        if (!flag) {
-            listOfIds.add(ids);
+        System.arraycopy(edges, i + 1, edges, i, count - i - 1);
+
+        return count - 1;
+    }
+
+    private static int indexOf(int[] edges, int count, int index) {
+        for (int i = 0; i < count; i++) {
+            if (decode(edges[i]) == index) {
+                return i;
+            }
         }
+
+        return -1;
+    }
+
+    private static int decode(int index) {
+        return (index < 0) ? ~index : index;
     }
 }
\ No newline at end of file
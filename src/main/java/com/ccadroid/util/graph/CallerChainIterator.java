@@ -0,0 +1,102 @@
+package com.ccadroid.util.graph;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class CallerChainIterator implements Iterator<ArrayList<String>> { // suffixes are not memoized per node, as the chains through a node grow with the chains rather than the nodes, while each chain costs at most maxDepth steps here
+    private final ArrayList<String> ids;
+    private final Condensation condensation;
+    private final int startIndex;
+    private final int maxChains;
+    private final int maxDepth;
+    private final ArrayList<int[]> path; // {component, next predecessor position}, from the start component upwards
+    private ArrayList<String> nextChain;
+    private int chainCount;
+    private boolean isTruncated;
+
+    CallerChainIterator(ArrayList<String> ids, Condensation condensation, int startIndex, int maxChains, int maxDepth) {
+        this.ids = ids;
+        this.condensation = condensation;
+        this.startIndex = startIndex;
+        this.maxChains = maxChains;
+        this.maxDepth = maxDepth;
+        path = new ArrayList<>();
+
+        int component = condensation.getComponent(startIndex);
+        if (component > -1) {
+            path.add(new int[]{component, 0});
+            nextChain = findNextChain(true);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextChain != null;
+    }
+
+    @Override
+    public ArrayList<String> next() {
+        if (nextChain == null) {
+            throw new NoSuchElementException();
+        }
+
+        ArrayList<String> chain = nextChain;
+        chainCount++;
+        nextChain = findNextChain(false);
+        if (nextChain != null && maxChains > 0 && chainCount >= maxChains) {
+            isTruncated = true;
+            nextChain = null;
+        }
+
+        return chain;
+    }
+
+    public boolean isTruncated() { // by maxChains or maxDepth
+        return isTruncated;
+    }
+
+    private ArrayList<String> findNextChain(boolean isFirst) {
+        if (!isFirst) { // backtrack from the last emitted top
+            path.remove(path.size() - 1);
+        }
+
+        while (!path.isEmpty()) {
+            int[] frame = path.get(path.size() - 1);
+            int[] predecessors = condensation.getPredecessors(frame[0]);
+            boolean isCut = predecessors.length > 0 && maxDepth > 0 && path.size() >= maxDepth;
+            boolean isTop = predecessors.length == 0 || isCut;
+
+            if (isTop) {
+                isTruncated |= isCut;
+                return getChain();
+            } else if (frame[1] < predecessors.length) {
+                int predecessor = predecessors[frame[1]++];
+                path.add(new int[]{predecessor, 0});
+            } else {
+                path.remove(path.size() - 1);
+            }
+        }
+
+        return null;
+    }
+
+    private ArrayList<String> getChain() {
+        ArrayList<String> chain = new ArrayList<>();
+
+        for (int i = path.size() - 1; i > -1; i--) {
+            int[] members = condensation.getMembers(path.get(i)[0]);
+            for (int m : members) {
+                if (i == 0 && m == startIndex) { // keep the start node last
+                    continue;
+                }
+
+                chain.add(ids.get(m));
+            }
+        }
+
+        chain.add(ids.get(startIndex));
+
+        return chain;
+    }
+}
\ No newline at end of file
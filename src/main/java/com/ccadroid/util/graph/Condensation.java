@@ -0,0 +1,129 @@
+package com.ccadroid.util.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+class Condensation {
+    private final int[] componentOf;
+    private final int[][] members;
+    private final int[][] predecessors;
+
+    Condensation(int nodeCount, int[][] inEdges, int[] inCounts, BitSet deletedSet) {
+        componentOf = new int[nodeCount];
+        Arrays.fill(componentOf, -1);
+
+        int[] order = new int[nodeCount];
+        int[] lowLinks = new int[nodeCount];
+        Arrays.fill(order, -1);
+        boolean[] onStack = new boolean[nodeCount];
+        int[] stack = new int[nodeCount];
+        int[] callStack = new int[nodeCount];
+        int[] edgePositions = new int[nodeCount];
+        int stackSize = 0;
+        int counter = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < nodeCount; root++) { // iterative Tarjan along the caller edges
+            if (order[root] > -1 || deletedSet.get(root)) {
+                continue;
+            }
+
+            int depth = 0;
+            order[root] = lowLinks[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            callStack[depth] = root;
+            edgePositions[depth++] = 0;
+
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+                if (edgePositions[depth - 1] < inCounts[v]) {
+                    int w = inEdges[v][edgePositions[depth - 1]++];
+                    if (order[w] == -1) {
+                        order[w] = lowLinks[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        callStack[depth] = w;
+                        edgePositions[depth++] = 0;
+                    } else if (onStack[w]) {
+                        lowLinks[v] = Math.min(lowLinks[v], order[w]);
+                    }
+
+                    continue;
+                }
+
+                if (lowLinks[v] == order[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        onStack[w] = false;
+                        componentOf[w] = componentCount;
+                    } while (w != v);
+
+                    componentCount++;
+                }
+
+                depth--;
+                if (depth > 0) {
+                    int u = callStack[depth - 1];
+                    lowLinks[u] = Math.min(lowLinks[u], lowLinks[v]);
+                }
+            }
+        }
+
+        int[] memberCounts = new int[componentCount];
+        for (int i = 0; i < nodeCount; i++) {
+            if (componentOf[i] > -1) {
+                memberCounts[componentOf[i]]++;
+            }
+        }
+
+        members = new int[componentCount][];
+        for (int c = 0; c < componentCount; c++) {
+            members[c] = new int[memberCounts[c]];
+            memberCounts[c] = 0;
+        }
+
+        for (int i = 0; i < nodeCount; i++) {
+            int c = componentOf[i];
+            if (c > -1) {
+                members[c][memberCounts[c]++] = i;
+            }
+        }
+
+        predecessors = new int[componentCount][];
+        int[] marks = new int[componentCount];
+        Arrays.fill(marks, -1);
+        int[] buffer = new int[componentCount];
+
+        for (int c = 0; c < componentCount; c++) {
+            int count = 0;
+
+            for (int v : members[c]) {
+                for (int i = 0; i < inCounts[v]; i++) {
+                    int p = componentOf[inEdges[v][i]];
+                    if (p == c || marks[p] == c) {
+                        continue;
+                    }
+
+                    marks[p] = c;
+                    buffer[count++] = p;
+                }
+            }
+
+            predecessors[c] = Arrays.copyOf(buffer, count);
+        }
+    }
+
+    int getComponent(int index) {
+        return (index < componentOf.length) ? componentOf[index] : -1;
+    }
+
+    int[] getMembers(int component) {
+        return members[component];
+    }
+
+    int[] getPredecessors(int component) {
+        return predecessors[component];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.ccadroid.util.graph;
+
+public class Edge {
+    private final Node sourceNode;
+    private final Node targetNode;
+    private final boolean isDirected;
+
+    Edge(Node sourceNode, Node targetNode, boolean isDirected) {
+        this.sourceNode = sourceNode;
+        this.targetNode = targetNode;
+        this.isDirected = isDirected;
+    }
+
+    public Node getSourceNode() {
+        return sourceNode;
+    }
+
+    public Node getTargetNode() {
+        return targetNode;
+    }
+
+    public boolean isDirected() {
+        return isDirected;
+    }
+
+    @Override
+    public String toString() {
+        return (isDirected) ? String.format("%s -> %s", sourceNode, targetNode) : String.format("%s -- %s", sourceNode, targetNode);
+    }
+}
\ No newline at end of file
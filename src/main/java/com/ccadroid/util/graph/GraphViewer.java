@@ -0,0 +1,46 @@
+package com.ccadroid.util.graph;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.implementations.SingleGraph;
+
+import java.util.List;
+
+public class GraphViewer {
+
+    public GraphViewer() throws InstantiationException {
+        throw new InstantiationException();
+    }
+
+    public static Graph toGraph(CallGraph callGraph) {
+        Graph graph = new SingleGraph(String.valueOf(callGraph.hashCode()));
+        graph.setStrict(false);
+
+        List<Node> nodes = callGraph.getNodes();
+        for (Node n : nodes) {
+            String id = n.getId();
+            org.graphstream.graph.Node node = graph.addNode(id);
+            node.setAttribute("label", id);
+        }
+
+        for (Node n : nodes) {
+            List<Edge> edges = callGraph.getEdges(n);
+            for (Edge e : edges) {
+                Node sourceNode = e.getSourceNode();
+                if (!sourceNode.equals(n)) { // add each edge once, from its source
+                    continue;
+                }
+
+                graph.addEdge(e.toString(), sourceNode.getId(), e.getTargetNode().getId(), e.isDirected());
+            }
+        }
+
+        return graph;
+    }
+
+    public static void display(CallGraph callGraph) {
+        System.setProperty("org.graphstream.ui", "javafx");
+
+        Graph graph = toGraph(callGraph);
+        graph.display();
+    }
+}
\ No newline at end of file
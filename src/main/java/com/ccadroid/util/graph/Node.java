@@ -0,0 +1,44 @@
+package com.ccadroid.util.graph;
+
+public class Node {
+    private final int index;
+    private final String id;
+
+    Node(int index, String id) {
+        this.index = index;
+        this.id = id;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof Node)) {
+            return false;
+        }
+
+        Node node = (Node) o;
+
+        return index == node.index && id.equals(node.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.ccadroid.util.soot;
+
+import soot.Unit;
+
+import java.util.*;
+
+import static com.ccadroid.util.soot.SootUnit.getIfGotoTargetUnit;
+import static com.ccadroid.util.soot.SootUnit.getUnitType;
+
+public class MethodUnits implements Iterable<Unit> {
+    private final Unit[] units;
+    private final IdentityHashMap<Unit, Integer> indexMap;
+    private final int[] targetIndexes;
+    private final int hashCode;
+
+    public MethodUnits(List<Unit> units) {
+        this.units = units.toArray(new Unit[0]);
+        indexMap = new IdentityHashMap<>(this.units.length);
+        targetIndexes = new int[this.units.length];
+
+        for (int i = this.units.length - 1; i > -1; i--) { // keep the first index like List.indexOf
+            indexMap.put(this.units[i], i);
+        }
+
+        for (int i = 0; i < this.units.length; i++) {
+            Unit unit = this.units[i];
+            int unitType = getUnitType(unit);
+            Unit targetUnit = getIfGotoTargetUnit(unit, unitType);
+            targetIndexes[i] = indexOf(targetUnit);
+        }
+
+        hashCode = Arrays.hashCode(this.units); // same as List.hashCode, units hash by identity
+    }
+
+    public int size() {
+        return units.length;
+    }
+
+    public boolean isEmpty() {
+        return units.length == 0;
+    }
+
+    public Unit get(int index) {
+        return units[index];
+    }
+
+    public int indexOf(Unit unit) {
+        if (unit == null) {
+            return -1;
+        }
+
+        Integer index = indexMap.get(unit);
+
+        return (index == null) ? -1 : index;
+    }
+
+    public boolean contains(Unit unit) {
+        return indexOf(unit) > -1;
+    }
+
+    public int getTargetIndex(int index) { // index of the if/goto target, -1 for the other units
+        return (index < 0 || index >= targetIndexes.length) ? -1 : targetIndexes[index];
+    }
+
+    public List<Unit> asList() {
+        return Collections.unmodifiableList(Arrays.asList(units));
+    }
+
+    public ArrayList<Unit> toList() {
+        return new ArrayList<>(Arrays.asList(units));
+    }
+
+    @Override
+    public Iterator<Unit> iterator() {
+        return asList().iterator();
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        } else {
+            return Arrays.equals(units, ((MethodUnits) obj).units);
+        }
+    }
+}
@@ -8,11 +8,19 @@ import soot.tagkit.Tag;
 import soot.util.Chain;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.ccadroid.util.soot.SootUnit.getClassName;
 import static com.ccadroid.util.soot.SootUnit.getSubSignature;
 
 public class Soot {
+    private static final ConcurrentHashMap<String, MethodMap> classMethodMap = new ConcurrentHashMap<>(); // class name to its methods by subsignature
+    private static final ConcurrentHashMap<String, MethodEntry> signatureMap = new ConcurrentHashMap<>(); // including missing methods
+    private static final LinkedHashMap<SootMethod, Integer> bodyMap = new LinkedHashMap<>(16, 0.75f, true); // releasable bodies to their unit counts, least recently used first
+    private static final HashSet<SootMethod> pinnedMethods = new HashSet<>();
+    private static int maxBodyUnits = Integer.MAX_VALUE;
+    private static int bodyUnitCount;
+    private static int releaseCount;
 
     public Soot() throws InstantiationException {
         throw new InstantiationException();
@@ -21,6 +29,7 @@ public class Soot {
     public static void initialize(String apkPath, String platformDir) {
         Options.v().set_allow_phantom_refs(true);
         Options.v().set_android_jars(platformDir);
+        Options.v().set_drop_bodies_after_load(false); // keep the method sources, so that released bodies can be rebuilt
         Options.v().set_full_resolver(true);
         Options.v().set_ignore_resolution_errors(true);
         Options.v().set_ignore_resolving_levels(true);
@@ -30,6 +39,33 @@ public class Soot {
         Options.v().set_whole_program(true);
     }
 
+    public static void initialize(String classPath) { // JAR or class directory, against the classes of the running JDK
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_drop_bodies_after_load(false);
+        Options.v().set_full_resolver(true);
+        Options.v().set_ignore_resolution_errors(true);
+        Options.v().set_ignore_resolving_levels(true);
+        Options.v().set_prepend_classpath(true);
+        Options.v().set_process_dir(Collections.singletonList(classPath));
+        Options.v().set_src_prec(Options.src_prec_only_class);
+        Options.v().set_whole_program(true);
+    }
+
+    public static void reset() {
+        G.reset();
+        classMethodMap.clear();
+        signatureMap.clear();
+        resetBodies();
+    }
+
+    public static void setMaxBodyUnits(int maxUnits) { // less than 1 for no limit
+        maxBodyUnits = (maxUnits < 1) ? Integer.MAX_VALUE : maxUnits;
+    }
+
+    public static synchronized int getReleaseCount() {
+        return releaseCount;
+    }
+
     public static void loadDexClasses(ArrayList<String> dexClassNames) {
         for (String s : dexClassNames) {
             try {
@@ -41,6 +77,11 @@ public class Soot {
 
         Scene.v().loadBasicClasses();
         Scene.v().loadNecessaryClasses();
+
+        ArrayList<SootClass> sootClasses = new ArrayList<>(Scene.v().getClasses());
+        for (SootClass c : sootClasses) {
+            classMethodMap.put(c.getName(), new MethodMap(c));
+        }
     }
 
     public static String join(String delimiter, String... elements) {
@@ -72,11 +113,18 @@ public class Soot {
     }
 
     public static SootMethod getSootMethod(String signature) {
+        MethodEntry entry = signatureMap.get(signature);
+        if (entry != null && entry.isValid()) {
+            return entry.sootMethod;
+        }
+
         String className = getClassName(signature);
         SootClass sootClass = getSootClass(className);
         String subSignature = getSubSignature(signature);
+        SootMethod sootMethod = getSootMethod(sootClass, subSignature);
+        signatureMap.put(signature, new MethodEntry(sootClass, sootMethod));
 
-        return getSootMethod(sootClass, subSignature);
+        return sootMethod;
     }
 
     public static boolean hasInterface(String className, String targetClassName) {
@@ -86,30 +134,32 @@ public class Soot {
         return hasInterface(interfaces, targetClassName);
     }
 
-    public static ArrayList<Unit> getUnits(SootMethod sootMethod) {
-        ArrayList<Unit> units = new ArrayList<>();
-
-        if (sootMethod == null || sootMethod.isJavaLibraryMethod() || !sootMethod.isConcrete()) {
-            return units;
-        }
+    public static ArrayList<Unit> getUnits(SootMethod sootMethod) { // its body may be released and rebuilt later
+        return getUnits(sootMethod, false);
+    }
 
-        Body body = sootMethod.retrieveActiveBody();
-        units.addAll(body.getUnits());
+    public static ArrayList<Unit> getUnits(String signature) { // the caller keeps the units, so its body stays resident
+        SootMethod sootMethod = getSootMethod(signature);
 
-        return units;
+        return getUnits(sootMethod, true);
     }
 
-    public static ArrayList<Unit> getUnits(String signature) {
-        String className = getClassName(signature);
-        SootClass sootClass = getSootClass(className);
-        String subSignature = getSubSignature(signature);
-        SootMethod sootMethod = getSootMethod(sootClass, subSignature);
+    public static synchronized void unpinBodies(List<String> signatures) { // pinned bodies whose units are no longer used
+        for (String s : signatures) {
+            SootMethod m = getSootMethod(s);
+            if (m == null || !pinnedMethods.remove(m)) {
+                continue;
+            }
 
-        return getUnits(sootMethod);
+            if (m.getSource() != null) {
+                m.releaseActiveBody();
+                releaseCount++;
+            }
+        }
     }
 
     public static Chain<Local> getLocals(SootMethod sootMethod) {
-        Body body = sootMethod.retrieveActiveBody();
+        Body body = retrieveActiveBody(sootMethod, false);
 
         return body.getLocals();
     }
@@ -214,6 +264,64 @@ public class Soot {
         return value;
     }
 
+    private static ArrayList<Unit> getUnits(SootMethod sootMethod, boolean isPinned) {
+        ArrayList<Unit> units = new ArrayList<>();
+
+        if (sootMethod == null || sootMethod.isJavaLibraryMethod() || !sootMethod.isConcrete()) {
+            return units;
+        }
+
+        Body body = retrieveActiveBody(sootMethod, isPinned);
+        units.addAll(body.getUnits());
+
+        return units;
+    }
+
+    private static synchronized Body retrieveActiveBody(SootMethod sootMethod, boolean isPinned) { // Soot resolves bodies through the shared Scene
+        Body body = sootMethod.retrieveActiveBody();
+        if (pinnedMethods.contains(sootMethod)) {
+            return body;
+        }
+
+        Integer unitCount = bodyMap.get(sootMethod);
+        if (isPinned) {
+            pinnedMethods.add(sootMethod);
+            if (unitCount != null) {
+                bodyMap.remove(sootMethod);
+                bodyUnitCount -= unitCount;
+            }
+        } else if (unitCount == null) {
+            unitCount = body.getUnits().size();
+            bodyMap.put(sootMethod, unitCount);
+            bodyUnitCount += unitCount;
+            releaseBodies();
+        }
+
+        return body;
+    }
+
+    private static void releaseBodies() {
+        Iterator<Map.Entry<SootMethod, Integer>> iterator = bodyMap.entrySet().iterator();
+        while (bodyUnitCount > maxBodyUnits && iterator.hasNext()) {
+            Map.Entry<SootMethod, Integer> e = iterator.next();
+            SootMethod m = e.getKey();
+            if (m.getSource() != null) { // without a source, the body could not be rebuilt, so it stays resident
+                m.releaseActiveBody();
+                releaseCount++;
+            }
+
+            bodyUnitCount -= e.getValue();
+            iterator.remove();
+        }
+    }
+
+    private static synchronized void resetBodies() {
+        bodyMap.clear();
+        pinnedMethods.clear();
+        bodyUnitCount = 0;
+        releaseCount = 0;
+    }
+
     private static boolean hasInterface(Chain<SootClass> interfaces, String targetClassName) {
         for (SootClass c : interfaces) {
             if (c.getName().startsWith(targetClassName) || c.getName().equals(targetClassName)) {
@@ -225,14 +333,14 @@ public class Soot {
     }
 
     private static SootMethod getSootMethod(SootClass sootClass, String subSignature) {
-        List<SootMethod> sootMethods = sootClass.getMethods();
-        for (SootMethod m : sootMethods) {
-            if (m.getSubSignature().equals(subSignature)) {
-                return m;
-            }
+        String className = sootClass.getName();
+        MethodMap map = classMethodMap.get(className);
+        if (map == null || map.methodCount != sootClass.getMethodCount()) { // phantom refs add methods while bodies are resolved
+            map = new MethodMap(sootClass);
+            classMethodMap.put(className, map);
         }
 
-        return null;
+        return map.methods.get(subSignature);
     }
 
     private static String getReturnType(String signature) {
@@ -241,4 +349,35 @@ public class Soot {
 
         return tokenizer.nextToken();
     }
-}
\ No newline at end of file
+
+    private static class MethodMap {
+        private final int methodCount;
+        private final HashMap<String, SootMethod> methods;
+
+        private MethodMap(SootClass sootClass) {
+            List<SootMethod> sootMethods = new ArrayList<>(sootClass.getMethods());
+            methodCount = sootMethods.size();
+            methods = new HashMap<>(sootMethods.size() * 2);
+
+            for (SootMethod m : sootMethods) {
+                methods.putIfAbsent(m.getSubSignature(), m); // first match, as the linear scan did
+            }
+        }
+    }
+
+    private static class MethodEntry {
+        private final SootClass sootClass;
+        private final SootMethod sootMethod; // null if missing
+        private final int methodCount;
+
+        private MethodEntry(SootClass sootClass, SootMethod sootMethod) {
+            this.sootClass = sootClass;
+            this.sootMethod = sootMethod;
+            this.methodCount = sootClass.getMethodCount();
+        }
+
+        private boolean isValid() { // a missing method stays missing until its class gains methods
+            return sootMethod != null || sootClass.getMethodCount() == methodCount;
+        }
+    }
+}
@@ -404,7 +404,7 @@ public class SootUnit {
         return targetUnit;
     }
 
-    public static boolean isIfElseStatement(ArrayList<Unit> wholeUnit, Unit unit, int unitType) {
+    public static boolean isIfElseStatement(MethodUnits wholeUnit, Unit unit, int unitType) {
         if (isLoopStatement(wholeUnit, unit, unitType)) {
             return false;
         }
@@ -421,26 +421,24 @@ public class SootUnit {
         return false;
     }
 
-    public static boolean isLoopStatement(ArrayList<Unit> wholeUnit, Unit unit, int unitType) {
+    public static boolean isLoopStatement(MethodUnits wholeUnit, Unit unit, int unitType) {
         Unit targetUnit = getIfGotoTargetUnit(unit, unitType);
-        if (!wholeUnit.contains(targetUnit)) {
+        int targetUnitIndex = wholeUnit.indexOf(targetUnit);
+        if (targetUnitIndex == -1) {
             return false;
         }
 
         if (unitType == IF) {
-            int tempUnitIndex = wholeUnit.indexOf(targetUnit) - 1;
+            int tempUnitIndex = targetUnitIndex - 1;
             if (tempUnitIndex == -1) {
                 return true;
             }
 
-            Unit tempUnitUnit = wholeUnit.get(tempUnitIndex);
-            int tempUnitType = getUnitType(tempUnitUnit);
-            targetUnit = getIfGotoTargetUnit(tempUnitUnit, tempUnitType);
+            targetUnitIndex = wholeUnit.getTargetIndex(tempUnitIndex);
         }
 
         int wholeUnitCount = wholeUnit.size();
         int unitIndex = wholeUnit.indexOf(unit);
-        int targetUnitIndex = wholeUnit.indexOf(targetUnit);
 
         return wholeUnitCount > unitIndex + 1 && unitIndex >= targetUnitIndex && targetUnitIndex > -1;
     }
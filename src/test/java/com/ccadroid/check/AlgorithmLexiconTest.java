@@ -0,0 +1,55 @@
+package com.ccadroid.check;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.Provider;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlgorithmLexiconTest { // the lexicon against probing the providers, as RuleChecker did before
+    private static final List<String> NAMES = List.of("AES", "aes", "Aes", "DES", "DESede", "TripleDES", "Blowfish", "ARCFOUR", "RC2", "RSA", "ChaCha20", "AES_128/GCM/NoPadding", "AES/ECB/PKCS5Padding", "aes/cbc/pkcs5padding", "AES/GCM/NoPadding", "AES/CTR/NoPadding", "AES/XYZ/NoPadding", "AES/CBC/XYZPadding", "AES/CBC", "DES/ECB/PKCS5Padding", "DESede/CBC/NoPadding", "RSA/ECB/PKCS1Padding", "RSA/ECB/OAEPWithSHA-256AndMGF1Padding", "RSA/NONE/XYZ", "PBEWithMD5AndDES", "PBKDF2WithHmacSHA1", "PBKDF2WithHmacSHA256", "SHA1PRNG", "NativePRNG", "DRBG", "DH", "ECDH", "SHA-1", "SHA1", "SHA-256", "MD5", "MD2", "HmacSHA1", "HmacSHA256", "HmacMD5", "XYZ", "AESX", "", "/", "//", "UTF-8", "changeit", "1024", "$r1", "AES/", "AES//", "/AES", "AES///", "DES/", "SHA-256/", "AES/CBC/", "AES//PKCS5Padding", "AES/ /NoPadding", "AES/CBC/PKCS5Padding/", "RSA/ECB/OAEPWithSHA-256AndMGF1Padding/X", " / ", "AES ", " aes", "SHA-256 "); // with the slashes and spaces Cipher skips
+
+    @Test
+    void matchesProbing() {
+        assertEquals(List.of(), findMismatches(NAMES));
+    }
+
+    @Test
+    void matchesProbingForProviderNames() { // every name and alias the desktop providers register for the six services
+        List<String> types = List.of("Cipher", "SecretKeyFactory", "SecureRandom", "KeyAgreement", "MessageDigest", "Mac");
+        ArrayList<String> names = new ArrayList<>();
+        for (Provider p : Security.getProviders()) {
+            for (Provider.Service s : p.getServices()) {
+                if (types.contains(s.getType())) {
+                    names.add(s.getAlgorithm());
+                    names.add(s.getAlgorithm().toLowerCase(Locale.ENGLISH));
+                }
+            }
+        }
+
+        assertFalse(names.isEmpty());
+        assertEquals(List.of(), findMismatches(names));
+    }
+
+    @Test
+    void acceptsAndroidNames() { // registered by AndroidOpenSSL or BC, which a desktop JVM lacks
+        for (String s : List.of("AES_256/GCM/NoPadding", "ARC4", "RSA/NONE/OAEPPadding", "PBEWithSHA256And256BitAES-CBC-BC", "AESCMAC", "X25519")) {
+            assertTrue(AlgorithmLexicon.isAlgorithm(s), s);
+        }
+    }
+
+    private static List<String> findMismatches(List<String> names) {
+        ArrayList<String> mismatches = new ArrayList<>();
+        for (String s : names) {
+            if (RuleCheckerTest.isAlgorithm(s) != AlgorithmLexicon.isAlgorithm(s)) {
+                mismatches.add(s);
+            }
+        }
+
+        return mismatches;
+    }
+}
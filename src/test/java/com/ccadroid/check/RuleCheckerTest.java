@@ -0,0 +1,245 @@
+package com.ccadroid.check;
+
+import com.ccadroid.util.Argparse4j;
+import com.ccadroid.util.NumericPredicate;
+import jakarta.xml.bind.DatatypeConverter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyAgreement;
+import javax.crypto.Mac;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKeyFactory;
+import java.math.BigInteger;
+import java.security.*;
+import java.security.interfaces.RSAKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static com.ccadroid.util.Common.isNumber;
+import static com.ccadroid.util.MathParser.calculateExpression;
+import static com.ccadroid.util.soot.SootUnit.isVariableStr;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleCheckerTest { // isTargetConstant against the per-line check it replaced
+    private static final List<String> CONSTANTS = List.of("", "null", "$r1", "r2", "$i0", "0", "1", "8", "16", "999", "1000", "1024", "2048", "3072", "4096", "65537", "1000000", "-1", "16.0F", "1.5f", "2048.0", "12345678", "123456789", "abcdefgh", "abcdefghi", "0123456789abcdef", "0123456789abcdef0", "changeit", "AES", "aes", "DES", "AES/ECB/PKCS5Padding", "RSA/ECB/OAEPWithSHA-256AndMGF1Padding", "SHA1PRNG", "HmacSHA256", "PBKDF2WithHmacSHA1", "SHA-256", "UTF-8", "deadbeef", "ABCDEFGHIJKLMNOPQRSTUVWXYZ", "dGhpcyBpcyBub3QgYSBrZXk=");
+    private static final ArrayList<String> keys = new ArrayList<>();
+    private static RuleChecker ruleChecker;
+
+    @BeforeAll
+    static void setUp() throws NoSuchAlgorithmException {
+        Argparse4j.setArguments(new String[]{"-i", "input.apk", "-r", "rule"});
+        ruleChecker = new RuleChecker(null); // only the rules are needed
+
+        for (int size : new int[]{1024, 1536, 2048}) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(size);
+            KeyPair keyPair = generator.generateKeyPair();
+            byte[] publicKey = keyPair.getPublic().getEncoded();
+            keys.add(Base64.getEncoder().encodeToString(publicKey));
+            keys.add(Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+            keys.add(DatatypeConverter.printHexBinary(publicKey));
+        }
+    }
+
+    @Test
+    void loadsRules() {
+        assertEquals(14, ruleChecker.getRules().size());
+    }
+
+    @Test
+    void matchesOldCheck() {
+        int matcherCount = 0;
+        ArrayList<String> constants = new ArrayList<>(CONSTANTS);
+        constants.addAll(keys);
+
+        for (Rule rule : ruleChecker.getRules()) {
+            for (RuleMatcher m : Arrays.asList(rule.getInsecureMatcher(), rule.getSecureMatcher())) {
+                if (m == null || m.getConstantRegex() == null) {
+                    continue;
+                }
+
+                matcherCount++;
+                String lenExpr = getExpression(m.getConstantLength());
+                String sizeExpr = getExpression(m.getConstantSize());
+                for (String s : constants) {
+                    boolean expected = isTargetConstant(s, m.getConstantRegex(), lenExpr, sizeExpr);
+                    assertEquals(expected, ruleChecker.isTargetConstant(s, m), m.getRuleId() + " with " + s);
+                }
+            }
+        }
+
+        assertEquals(12, matcherCount);
+    }
+
+    @Test
+    void measuresKeys() {
+        RuleMatcher matcher = findMatcher("9-1");
+        assertTrue(ruleChecker.isTargetConstant(keys.get(0), matcher)); // 1024 bits
+        assertTrue(ruleChecker.isTargetConstant(keys.get(1), matcher));
+        assertFalse(ruleChecker.isTargetConstant(keys.get(2), matcher)); // hex digits whose length is a multiple of 4 read as Base64 first, as before
+        assertTrue(ruleChecker.isTargetConstant(keys.get(3), matcher)); // 1536 bits
+        assertFalse(ruleChecker.isTargetConstant(keys.get(6), matcher)); // 2048 bits
+    }
+
+    @Test
+    void skipsAlgorithmsAndVariables() {
+        RuleMatcher matcher = findMatcher("3-1");
+        assertTrue(ruleChecker.isTargetConstant("changeit", matcher));
+        assertFalse(ruleChecker.isTargetConstant("AES/ECB/PKCS5Padding", matcher));
+        assertFalse(ruleChecker.isTargetConstant("$r1", matcher));
+        assertFalse(ruleChecker.isTargetConstant("1000", matcher)); // a number without a size
+    }
+
+    private static RuleMatcher findMatcher(String ruleId) {
+        for (Rule rule : ruleChecker.getRules()) {
+            for (RuleMatcher m : Arrays.asList(rule.getInsecureMatcher(), rule.getSecureMatcher())) {
+                if (m != null && m.getRuleId().equals(ruleId)) {
+                    return m;
+                }
+            }
+        }
+
+        throw new IllegalArgumentException(ruleId);
+    }
+
+    private static String getExpression(NumericPredicate predicate) {
+        return (predicate == null) ? null : predicate.getExpression();
+    }
+
+    private static boolean isTargetConstant(String str, String regex, String lenExpr, String sizeExpr) { // the loop body of the old checkConstant, for one string
+        Pattern targetPattern = Pattern.compile(regex);
+        String s = str;
+        if (isVariableStr(s)) {
+            return false;
+        }
+
+        boolean isNumber = isNumber(s);
+        if (s.toLowerCase().endsWith("f") && isNumber) {
+            s = String.valueOf((int) Double.parseDouble(s));
+        }
+
+        if (s.isEmpty() || s.equals("null")) {
+            return false;
+        }
+
+        if (!targetPattern.matcher(s).matches()) {
+            return false;
+        }
+
+        if (isAlgorithm(s)) {
+            return false;
+        }
+
+        if (regex.equals(".*") && sizeExpr == null && isNumber) {
+            return false;
+        }
+
+        if (lenExpr == null && sizeExpr == null) {
+            return true;
+        }
+
+        if (lenExpr != null) {
+            s = String.valueOf(s.length());
+        } else {
+            RSAKey rsaKey = convertToRSAKey(s);
+            if (rsaKey == null) {
+                s = (isNumber) ? s : String.valueOf(s.length());
+            } else {
+                BigInteger modulus = rsaKey.getModulus();
+                s = String.valueOf(modulus.bitLength());
+            }
+        }
+
+        String expressionString = (lenExpr == null) ? sizeExpr : lenExpr;
+
+        return calculateExpression("x=" + s, expressionString) == 1;
+    }
+
+    static boolean isAlgorithm(String str) { // probing the providers, as before the lexicon
+        String s = str.toLowerCase();
+
+        try {
+            Cipher.getInstance(s);
+            return true;
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException ignored) {
+
+        }
+
+        try {
+            SecretKeyFactory.getInstance(s);
+            return true;
+        } catch (NoSuchAlgorithmException ignored) {
+
+        }
+
+        try {
+            SecureRandom.getInstance(s);
+            return true;
+        } catch (NoSuchAlgorithmException ignored) {
+
+        }
+
+        try {
+            KeyAgreement.getInstance(s);
+            return true;
+        } catch (NoSuchAlgorithmException ignored) {
+
+        }
+
+        try {
+            MessageDigest.getInstance(s);
+            return true;
+        } catch (NoSuchAlgorithmException ignored) {
+
+        }
+
+        try {
+            Mac.getInstance(s);
+            return true;
+        } catch (NoSuchAlgorithmException ignored) {
+
+        }
+
+        return false;
+    }
+
+    private static RSAKey convertToRSAKey(String str) {
+        String s = str.replace("\\r", "").replace("\\n", "");
+        byte[] bytes = null;
+
+        if (s.matches("^([A-Za-z\\d+/]{4})*([A-Za-z\\d+/]{3}=|[A-Za-z\\d+/]{2}==)?$")) {
+            bytes = DatatypeConverter.parseBase64Binary(s);
+        } else if (s.matches("^[\\da-fA-F]+$")) {
+            s = (s.length() % 2 == 1) ? "0" + s : s;
+            bytes = DatatypeConverter.parseHexBinary(s);
+        }
+
+        if (bytes == null) {
+            return null;
+        }
+
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            return (RSAKey) keyFactory.generatePublic(new X509EncodedKeySpec(bytes));
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException ignored) {
+
+        }
+
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            return (RSAKey) keyFactory.generatePrivate(new PKCS8EncodedKeySpec(bytes));
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException ignored) {
+
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,140 @@
+package com.ccadroid.check;
+
+import com.ccadroid.slice.SliceLine;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.ccadroid.util.soot.SootUnit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SliceTokensTest { // hasAlgorithm against the per-rule matching it replaced
+    private static final List<String> STRINGS = List.of("AES", "aes", "DES", "DESede", "Blowfish", "ARCFOUR", "RC2", "RSA", "AES/ECB/PKCS5Padding", "aes/ecb/nopadding", "AES/CBC/PKCS5Padding", "AES/GCM/NoPadding", "AES/CTR/NoPadding", "DES/CBC/PKCS5Padding", "DESede/ECB/PKCS5Padding", "Blowfish/CBC/PKCS5Padding", "RSA/ECB/PKCS1Padding", "RSA/ECB/NoPadding", "RSA/ECB/OAEPPadding", "RSA/ECB/OAEPWithSHA-1AndMGF1Padding", "RSA/ECB/OAEPWithSHA-256AndMGF1Padding", "PBEWithMD5AndDES", "PBEWithHmacSHA256AndAES_128", "PBKDF2WithHmacSHA1", "SHA1PRNG", "SHA-256", "MD5", "HmacSHA256", "BC", "UTF-8", "changeit", "1024", "AES/");
+
+    @Test
+    void matchesOldMatching() throws IOException {
+        ArrayList<JSONArray> arrays = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(Paths.get("rule"))) {
+            for (Path p : stream.filter(p -> p.toString().endsWith(".json")).sorted().collect(Collectors.toList())) {
+                collectAlgorithms(new JSONObject(Files.readString(p)), arrays);
+            }
+        }
+
+        ArrayList<AlgorithmMatcher> matchers = new ArrayList<>();
+        arrays.forEach(a -> matchers.add(new AlgorithmMatcher(a)));
+        List<SliceLine> lines = getLines();
+        SliceTokens tokens = new SliceTokens(lines, new AlgorithmIndex(matchers));
+
+        int foundCount = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            SliceLine line = lines.get(i);
+            for (int j = 0; j < matchers.size(); j++) {
+                boolean expected = hasTargetAlgorithm(getStrings(line.getUnitString(), line.getUnitType()), arrays.get(j));
+                assertEquals(expected, tokens.hasAlgorithm(i, matchers.get(j)), line.getUnitString() + " with " + arrays.get(j));
+                foundCount += expected ? 1 : 0;
+            }
+        }
+
+        assertFalse(arrays.isEmpty());
+        assertTrue(foundCount > 0);
+    }
+
+    @Test
+    void keepsSignatures() {
+        List<SliceLine> lines = getLines();
+        SliceTokens tokens = new SliceTokens(lines, new AlgorithmIndex(List.of()));
+
+        assertEquals("<javax.crypto.Cipher: javax.crypto.Cipher getInstance(java.lang.String)>", tokens.getSignature(1));
+        assertNull(tokens.getSignature(0));
+    }
+
+    @Test
+    void matchesAnyParameter() {
+        AlgorithmMatcher matcher = new AlgorithmMatcher(new JSONArray(List.of("AES/ECB")));
+        SliceLine line = new SliceLine("$r1 = staticinvoke <javax.crypto.Cipher: javax.crypto.Cipher getInstance(java.lang.String,java.lang.String)>(\"BC\", \"AES/ECB/PKCS5Padding\")", ASSIGN_STATIC_INVOKE, "<C: void m()>", 1);
+        SliceTokens tokens = new SliceTokens(List.of(line), new AlgorithmIndex(List.of(matcher)));
+
+        assertTrue(tokens.hasAlgorithm(0, matcher));
+        assertFalse(tokens.hasAlgorithm(0, new AlgorithmMatcher(new JSONArray(List.of("AES/ECB"))))); // only the indexed matchers
+    }
+
+    private static List<SliceLine> getLines() {
+        ArrayList<SliceLine> lines = new ArrayList<>();
+        String callerName = "<C: void m()>";
+
+        for (String s : STRINGS) {
+            lines.add(new SliceLine(String.format("$r1 = \"%s\"", s), ASSIGN_VARIABLE_CONSTANT, callerName, lines.size()));
+            lines.add(new SliceLine(String.format("$r2 = staticinvoke <javax.crypto.Cipher: javax.crypto.Cipher getInstance(java.lang.String)>(\"%s\")", s), ASSIGN_STATIC_INVOKE, callerName, lines.size()));
+            lines.add(new SliceLine(String.format("$r3 = staticinvoke <javax.crypto.Cipher: javax.crypto.Cipher getInstance(java.lang.String,java.lang.String)>(\"%s\", \"BC\")", s), ASSIGN_STATIC_INVOKE, callerName, lines.size()));
+            lines.add(new SliceLine(String.format("return \"%s\"", s), RETURN_VALUE, callerName, lines.size()));
+        }
+
+        lines.add(new SliceLine("$r4 = virtualinvoke $r2.<javax.crypto.Cipher: byte[] doFinal(byte[])>($r5)", ASSIGN_VIRTUAL_INVOKE, callerName, lines.size()));
+
+        return lines;
+    }
+
+    private static void collectAlgorithms(Object object, ArrayList<JSONArray> arrays) { // every targetAlgorithms list, as RuleMatcher reads it
+        if (object instanceof JSONObject) {
+            JSONObject obj = (JSONObject) object;
+            for (String k : obj.keySet()) {
+                Object value = obj.get(k);
+                if (k.equals("targetAlgorithms") && value instanceof JSONArray) {
+                    arrays.add((JSONArray) value);
+                } else {
+                    collectAlgorithms(value, arrays);
+                }
+            }
+        } else if (object instanceof JSONArray) {
+            for (Object o : (JSONArray) object) {
+                collectAlgorithms(o, arrays);
+            }
+        }
+    }
+
+    private static ArrayList<String> getStrings(String unitString, int unitType) {
+        ArrayList<String> strings = new ArrayList<>();
+
+        if ((unitType & INVOKE) == INVOKE) {
+            strings.addAll(getParameters(unitString));
+        } else if (unitType == ASSIGN_VARIABLE_CONSTANT || unitType == RETURN_VALUE) {
+            strings.add(getRightOpStr(unitString, unitType));
+        }
+
+        return strings;
+    }
+
+    private static boolean hasTargetAlgorithm(ArrayList<String> strings, JSONArray targetAlgorithms) { // as the old RuleChecker, with a pattern per call
+        int count = targetAlgorithms.length();
+
+        for (String s : strings) {
+            String str = s.toUpperCase();
+            if (!RuleCheckerTest.isAlgorithm(str)) {
+                continue;
+            }
+
+            for (int j = 0; j < count; j++) {
+                String algorithm = targetAlgorithms.getString(j);
+                String[] strArr = algorithm.split("-");
+                Pattern pattern = Pattern.compile("(?i)^(" + (algorithm.contains("-") ? strArr[0] : algorithm) + ")?(/.*)?$");
+                Matcher matcher = pattern.matcher(str);
+                if ((matcher.matches() && (!algorithm.contains("-") || !s.toLowerCase().contains(strArr[1].toLowerCase()))) || (str.contains("PBE") && str.contains(algorithm))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ccadroid.slice;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SliceSchedulerTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30); // a deadlock fails instead of hanging
+
+    @Test
+    void runsEachComponentInOrder() {
+        int[] componentIds = {0, 1, 0, 2, 1, 0, 2, 2, 1, 0};
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+
+        assertTimeoutPreemptively(TIMEOUT, () -> run(componentIds, i -> order.add(i), 4));
+
+        assertEquals(componentIds.length, order.size());
+        for (int c = 0; c < 3; c++) {
+            int lastIndex = -1;
+            for (int i : order) {
+                if (componentIds[i] == c) {
+                    assertTrue(i > lastIndex, "criterion " + i + " ran before " + lastIndex);
+                    lastIndex = i;
+                }
+            }
+        }
+    }
+
+    @Test
+    void awaitTurnFollowsCriterionOrder() {
+        int[] componentIds = new int[200];
+        for (int i = 0; i < componentIds.length; i++) {
+            componentIds[i] = (i * 7) % 11;
+        }
+
+        for (int threadCount : new int[]{1, 2, 8}) {
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            AtomicReference<SliceScheduler> reference = new AtomicReference<>();
+
+            assertTimeoutPreemptively(TIMEOUT, () -> run(componentIds, i -> {
+                reference.get().awaitTurn(i);
+                order.add(i);
+            }, threadCount, reference));
+
+            for (int i = 0; i < order.size(); i++) {
+                assertEquals(i, order.get(i), threadCount + " thread(s)");
+            }
+        }
+    }
+
+    @Test
+    void rethrowsFailure() {
+        int[] componentIds = {0, 1, 0, 1};
+        IllegalStateException failure = new IllegalStateException();
+
+        IllegalStateException e = assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(IllegalStateException.class, () -> run(componentIds, i -> {
+            if (i == 1) {
+                throw failure;
+            }
+        }, 2)));
+
+        assertSame(failure, e);
+    }
+
+    private static void run(int[] componentIds, IntConsumer task, int threadCount) {
+        run(componentIds, task, threadCount, new AtomicReference<>());
+    }
+
+    private static void run(int[] componentIds, IntConsumer task, int threadCount, AtomicReference<SliceScheduler> reference) {
+        int[] nextIndexes = new int[componentIds.length];
+        ArrayList<Integer> firstIndexes = new ArrayList<>();
+        int[] lastIndexes = new int[componentIds.length];
+        Arrays.fill(nextIndexes, -1);
+        Arrays.fill(lastIndexes, -1);
+
+        for (int i = 0; i < componentIds.length; i++) {
+            int c = componentIds[i];
+            if (lastIndexes[c] == -1) {
+                firstIndexes.add(i);
+            } else {
+                nextIndexes[lastIndexes[c]] = i;
+            }
+
+            lastIndexes[c] = i;
+        }
+
+        SliceScheduler sliceScheduler = new SliceScheduler(nextIndexes, firstIndexes, task, threadCount);
+        reference.set(sliceScheduler);
+        sliceScheduler.start();
+
+        try {
+            for (int i = 0; i < componentIds.length; i++) {
+                sliceScheduler.awaitSliced(i);
+            }
+        } finally {
+            sliceScheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.ccadroid.util;
+
+import org.junit.jupiter.api.Test;
+import soot.jimple.DoubleConstant;
+import soot.jimple.FloatConstant;
+import soot.jimple.IntConstant;
+import soot.jimple.LongConstant;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConstantFolderTest {
+    private static final List<String> OPERANDS = List.of("=", "!=", "<", "<=", ">", ">="); // as CodeOptimizer names the Jimple conditions
+    private static final int[] LESS = {0, 1, 1, 1, 0, 0};
+    private static final int[] EQUAL = {1, 0, 0, 1, 0, 1};
+    private static final int[] GREATER = {0, 1, 0, 0, 1, 1};
+
+    @Test
+    void foldsInts() {
+        assertFolds(IntConstant.v(3).toString(), IntConstant.v(7).toString());
+        assertFolds(IntConstant.v(-7).toString(), IntConstant.v(-3).toString());
+        assertFolds(IntConstant.v(Integer.MIN_VALUE).toString(), IntConstant.v(Integer.MAX_VALUE).toString());
+    }
+
+    @Test
+    void foldsLongs() {
+        assertFolds(LongConstant.v(3).toString(), LongConstant.v(7).toString());
+        assertFolds(LongConstant.v(Long.MIN_VALUE).toString(), LongConstant.v(Long.MAX_VALUE).toString());
+        assertFolds(LongConstant.v((1L << 53) + 1).toString(), LongConstant.v((1L << 53) + 2).toString()); // equal as doubles
+    }
+
+    @Test
+    void foldsConstantsOutOfIntRange() {
+        assertFolds(IntConstant.v(Integer.MAX_VALUE).toString(), LongConstant.v(Integer.MAX_VALUE + 1L).toString());
+        assertFolds(LongConstant.v(Integer.MIN_VALUE - 1L).toString(), IntConstant.v(Integer.MIN_VALUE).toString());
+        assertFolds("2147483648", "3000000000"); // without a suffix, as a folded value may be stored
+        assertFolds("9223372036854775807", "9223372036854775808");
+        assertFoldsEqual(LongConstant.v(3000000000L).toString(), "3000000000");
+    }
+
+    @Test
+    void foldsFloats() {
+        assertFolds(FloatConstant.v(1.5f).toString(), FloatConstant.v(2.5f).toString());
+        assertFolds(FloatConstant.v(-0.5f).toString(), FloatConstant.v(0.25f).toString());
+        assertFolds(DoubleConstant.v(0.5).toString(), DoubleConstant.v(1.0).toString());
+        assertFoldsEqual(FloatConstant.v(0.5f).toString(), DoubleConstant.v(0.5).toString());
+    }
+
+    @Test
+    void foldsMixedTypes() {
+        assertFolds(IntConstant.v(2).toString(), FloatConstant.v(2.5f).toString());
+        assertFolds(LongConstant.v(2).toString(), DoubleConstant.v(2.5).toString());
+        assertFoldsEqual(IntConstant.v(2).toString(), FloatConstant.v(2.0f).toString());
+        assertFoldsEqual(IntConstant.v(7).toString(), LongConstant.v(7).toString());
+    }
+
+    @Test
+    void acceptsDoubleEqualSign() {
+        assertEquals(1, ConstantFolder.getFoldResult("5", "==", "5"));
+        assertEquals(0, ConstantFolder.getFoldResult("5", "==", "6"));
+    }
+
+    @Test
+    void doesNotFoldUnknowns() {
+        assertEquals(-1, ConstantFolder.getFoldResult(null, "<", "5"));
+        assertEquals(-1, ConstantFolder.getFoldResult("5", "<", null));
+        assertEquals(-1, ConstantFolder.getFoldResult("5", "cmp", "6"));
+        assertEquals(-1, ConstantFolder.getFoldResult("$i0", "<", "6"));
+    }
+
+    private static void assertFolds(String smaller, String larger) { // both orders of the operands
+        for (int i = 0; i < OPERANDS.size(); i++) {
+            String operand = OPERANDS.get(i);
+            assertEquals(LESS[i], ConstantFolder.getFoldResult(smaller, operand, larger), smaller + " " + operand + " " + larger);
+            assertEquals(GREATER[i], ConstantFolder.getFoldResult(larger, operand, smaller), larger + " " + operand + " " + smaller);
+            assertEquals(EQUAL[i], ConstantFolder.getFoldResult(smaller, operand, smaller), smaller + " " + operand + " " + smaller);
+        }
+    }
+
+    private static void assertFoldsEqual(String str1, String str2) {
+        for (int i = 0; i < OPERANDS.size(); i++) {
+            String operand = OPERANDS.get(i);
+            assertEquals(EQUAL[i], ConstantFolder.getFoldResult(str1, operand, str2), str1 + " " + operand + " " + str2);
+            assertEquals(EQUAL[i], ConstantFolder.getFoldResult(str2, operand, str1), str2 + " " + operand + " " + str1);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ccadroid.util;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static com.ccadroid.util.MathParser.calculateExpression;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumericPredicateTest {
+    private static final List<String> RULE_EXPRESSIONS = List.of("x<16", "x<=8", "x>8", "x>=16", "x>0 & x<1000", "x>0 & x>=1000", "x>=512 & gcd(x,512)==512 & (x/512)<4", "x>=512 & gcd(x,512)==512 & (x/512)>=4");
+    private static final List<String> OTHER_EXPRESSIONS = List.of("16>x", "8 <= x", "x==16", "x=16", "x!=16", "x<>16", "(x>8)", "x<8 | x>16", "x>-5 & x<5", "x%2==0"); // reversed, spaced, grouped or not split
+    private static final long[] VALUES = {-1000000, -6, -5, -4, -1, 0, 1, 2, 7, 8, 9, 15, 16, 17, 511, 512, 513, 999, 1000, 1001, 1024, 1536, 2047, 2048, 3072, 4096, 1000000};
+    private static final long[] LIMITS = {Long.MIN_VALUE, Long.MAX_VALUE}; // not for gcd, which mXparser computes by subtraction
+
+    @Test
+    void coversRuleExpressions() throws IOException {
+        HashSet<String> expressions = new HashSet<>();
+        try (Stream<Path> stream = Files.list(Paths.get("rule"))) {
+            for (Path p : stream.filter(p -> p.toString().endsWith(".json")).collect(Collectors.toList())) {
+                collectExpressions(new JSONObject(Files.readString(p)), expressions);
+            }
+        }
+
+        assertFalse(expressions.isEmpty());
+        assertTrue(RULE_EXPRESSIONS.containsAll(expressions), expressions.toString());
+    }
+
+    @Test
+    void matchesMathParser() {
+        for (String e : RULE_EXPRESSIONS) {
+            assertMatchesMathParser(e);
+        }
+
+        for (String e : OTHER_EXPRESSIONS) {
+            assertMatchesMathParser(e);
+        }
+    }
+
+    @Test
+    void testsRuleExpressions() {
+        NumericPredicate keySize = new NumericPredicate("x>=512 & gcd(x,512)==512 & (x/512)<4");
+        assertTrue(keySize.test(1024));
+        assertTrue(keySize.test(1536));
+        assertFalse(keySize.test(2048));
+        assertFalse(keySize.test(1000));
+        assertFalse(keySize.test(256));
+
+        NumericPredicate iterationCount = new NumericPredicate("x>0 & x<1000");
+        assertTrue(iterationCount.test(1));
+        assertTrue(iterationCount.test(999));
+        assertFalse(iterationCount.test(0));
+        assertFalse(iterationCount.test(1000));
+    }
+
+    @Test
+    void testsStrings() {
+        NumericPredicate predicate = new NumericPredicate("x>0 & x<1000");
+        assertTrue(predicate.test("999"));
+        assertFalse(predicate.test("99999999999999999999")); // beyond long
+        assertFalse(predicate.test("-99999999999999999999"));
+        assertTrue(new NumericPredicate("x>0 & x>=1000").test("99999999999999999999"));
+
+        for (String s : List.of("1.5", "999.5", "1000.5", "0x10")) { // left to mXparser, as before
+            assertEquals(calculateExpression("x=" + s, "x>0 & x<1000") == 1, predicate.test(s), s);
+        }
+    }
+
+    @Test
+    void keepsExpression() {
+        assertEquals("x>0 & x<1000", new NumericPredicate("x>0 & x<1000").getExpression());
+    }
+
+    private static void assertMatchesMathParser(String expression) {
+        NumericPredicate predicate = new NumericPredicate(expression);
+
+        long[] values = expression.contains("gcd") ? VALUES : LongStream.concat(LongStream.of(VALUES), LongStream.of(LIMITS)).toArray();
+        for (long x : values) {
+            boolean expected = calculateExpression("x=" + x, expression) == 1;
+            assertEquals(expected, predicate.test(x), expression + " with x=" + x);
+            assertEquals(expected, predicate.test(String.valueOf(x)), expression + " with x=\"" + x + "\"");
+        }
+    }
+
+    private static void collectExpressions(Object object, HashSet<String> expressions) {
+        if (object instanceof JSONObject) {
+            JSONObject obj = (JSONObject) object;
+            for (String k : obj.keySet()) {
+                Object value = obj.get(k);
+                if ((k.equals("targetConstantLength") || k.equals("targetConstantSize")) && value instanceof String) {
+                    expressions.add((String) value);
+                } else {
+                    collectExpressions(value, expressions);
+                }
+            }
+        } else if (object instanceof JSONArray) {
+            for (Object o : (JSONArray) object) {
+                collectExpressions(o, expressions);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ccadroid.util.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallGraphTest {
+    private CallGraph callGraph;
+
+    @BeforeEach
+    void setUp() { // a -> b -> c -> h -> b, c -> d <- e, f -> f -> g
+        callGraph = new CallGraph();
+        addEdges("a", "b", "b", "c", "c", "h", "h", "b", "c", "d", "e", "d", "f", "f", "f", "g"); // only one edge between two nodes, so no cycle of two
+    }
+
+    @Test
+    void keepsCycleInOneChain() {
+        assertEquals(List.of(List.of("a", "b", "c", "h", "d"), List.of("e", "d")), callGraph.getListOfIds("d", 0, 0));
+        assertEquals(0, callGraph.getTruncatedCount());
+    }
+
+    @Test
+    void startsInsideCycle() {
+        assertEquals(List.of(List.of("a", "b", "h", "c")), callGraph.getListOfIds("c", 0, 0));
+        assertEquals(List.of(List.of("a", "c", "h", "b")), callGraph.getListOfIds("b", 0, 0));
+    }
+
+    @Test
+    void ignoresSelfLoop() {
+        assertEquals(List.of(List.of("f", "g")), callGraph.getListOfIds("g", 0, 0));
+        assertEquals(List.of(List.of("f")), callGraph.getListOfIds("f", 0, 0));
+    }
+
+    @Test
+    void coversCycleWithoutOutsideCaller() {
+        addEdges("p", "q", "q", "p", "q", "r");
+
+        assertEquals(List.of(List.of("p", "q", "r")), callGraph.getListOfIds("r", 0, 0));
+    }
+
+    @Test
+    void returnsNothingForUnknownId() {
+        assertTrue(callGraph.getListOfIds("x", 0, 0).isEmpty());
+        assertEquals(0, callGraph.getTruncatedCount());
+    }
+
+    @Test
+    void capsChains() {
+        assertEquals(List.of(List.of("a", "b", "c", "h", "d")), callGraph.getListOfIds("d", 1, 0));
+        assertEquals(1, callGraph.getTruncatedCount());
+    }
+
+    @Test
+    void capsDepthAtCycle() { // the cycle counts as one level
+        assertEquals(List.of(List.of("b", "c", "h", "d"), List.of("e", "d")), callGraph.getListOfIds("d", 0, 2));
+        assertEquals(1, callGraph.getTruncatedCount());
+    }
+
+    @Test
+    void doesNotTruncateWithinCaps() {
+        assertEquals(List.of(List.of("a", "b", "c", "h", "d"), List.of("e", "d")), callGraph.getListOfIds("d", 2, 3));
+        assertEquals(0, callGraph.getTruncatedCount());
+    }
+
+    @Test
+    void reportsTruncationPerIterator() {
+        Iterator<ArrayList<String>> iterator = callGraph.getCallerChains("d", 0, 2);
+        iterator.forEachRemaining(c -> { });
+
+        assertTrue(((CallerChainIterator) iterator).isTruncated());
+        assertEquals(0, callGraph.getTruncatedCount()); // only getListOfIds counts
+    }
+
+    @Test
+    void enumeratesEveryPathThroughDiamonds() { // 2^n chains through n diamonds
+        CallGraph graph = new CallGraph();
+        int diamondCount = 12;
+        for (int i = 0; i < diamondCount; i++) {
+            String top = "n" + i;
+            String bottom = "n" + (i + 1);
+            addEdge(graph, top, "l" + i);
+            addEdge(graph, top, "r" + i);
+            addEdge(graph, "l" + i, bottom);
+            addEdge(graph, "r" + i, bottom);
+        }
+
+        ArrayList<ArrayList<String>> chains = graph.getListOfIds("n" + diamondCount, 0, 0);
+
+        assertEquals(1 << diamondCount, chains.size());
+        assertEquals(2 * diamondCount + 1, chains.get(0).size());
+        assertEquals(1 << diamondCount, chains.stream().distinct().count());
+    }
+
+    private void addEdges(String... ids) {
+        for (int i = 0; i < ids.length; i += 2) {
+            addEdge(callGraph, ids[i], ids[i + 1]);
+        }
+    }
+
+    private static void addEdge(CallGraph graph, String caller, String callee) {
+        Node node1 = graph.addNode(caller);
+        Node node2 = graph.addNode(callee);
+        graph.addEdge(node1, node2, true);
+    }
+}